@@ -86,4 +86,139 @@ CREATE INDEX idx_events_date ON events(start_date);
 CREATE INDEX idx_events_category ON events(category_id);
 CREATE INDEX idx_registrations_event ON registrations(event_id);
 CREATE INDEX idx_registrations_participant ON registrations(participant_id);
-CREATE INDEX idx_participants_email ON participants(email);
\ No newline at end of file
+CREATE INDEX idx_participants_email ON participants(email);
+CREATE INDEX idx_registrations_event_status ON registrations(event_id, status);
+CREATE INDEX idx_events_date_id ON events(start_date, event_id);
+CREATE INDEX idx_events_status_date ON events(status, start_date);
+CREATE INDEX idx_participants_name ON participants(last_name, first_name, participant_id);
+CREATE INDEX idx_registrations_date_id ON registrations(registration_date, registration_id);
+
+-- Trigram index for institution substring search (type-ahead)
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX idx_participants_institution_trgm ON participants USING gin (lower(institution) gin_trgm_ops);
+
+-- Per-event registration counters, maintained by statement-level triggers
+CREATE TABLE event_registration_stats (
+    event_id INTEGER PRIMARY KEY REFERENCES events(event_id) ON DELETE CASCADE,
+    confirmed INTEGER NOT NULL DEFAULT 0,
+    pending INTEGER NOT NULL DEFAULT 0,
+    cancelled INTEGER NOT NULL DEFAULT 0,
+    paid INTEGER NOT NULL DEFAULT 0,
+    refunded INTEGER NOT NULL DEFAULT 0,
+    paid_revenue DECIMAL(12,2) NOT NULL DEFAULT 0.00
+);
+
+CREATE OR REPLACE FUNCTION apply_registration_stats_delta() RETURNS trigger AS $$
+DECLARE
+    changes TEXT;
+    full_event INTEGER;
+BEGIN
+    changes := CASE TG_OP
+        WHEN 'INSERT' THEN 'SELECT event_id, status, payment_status, 1 AS delta FROM new_rows'
+        WHEN 'DELETE' THEN 'SELECT event_id, status, payment_status, -1 AS delta FROM old_rows'
+        ELSE 'SELECT event_id, status, payment_status, 1 AS delta FROM new_rows ' ||
+             'UNION ALL SELECT event_id, status, payment_status, -1 AS delta FROM old_rows'
+    END;
+    EXECUTE format(
+        'INSERT INTO event_registration_stats AS s (event_id, confirmed, pending, cancelled, paid, refunded, paid_revenue) ' ||
+        'SELECT d.event_id, d.confirmed, d.pending, d.cancelled, d.paid, d.refunded, d.paid * coalesce(e.registration_fee, 0) ' ||
+        'FROM (SELECT c.event_id, ' ||
+        '        coalesce(sum(c.delta) FILTER (WHERE c.status = ''CONFIRMED''), 0) AS confirmed, ' ||
+        '        coalesce(sum(c.delta) FILTER (WHERE c.status = ''PENDING''), 0) AS pending, ' ||
+        '        coalesce(sum(c.delta) FILTER (WHERE c.status = ''CANCELLED''), 0) AS cancelled, ' ||
+        '        coalesce(sum(c.delta) FILTER (WHERE c.payment_status = ''PAID''), 0) AS paid, ' ||
+        '        coalesce(sum(c.delta) FILTER (WHERE c.payment_status = ''REFUNDED''), 0) AS refunded ' ||
+        '      FROM (%s) c GROUP BY c.event_id) d ' ||
+        'JOIN events e ON e.event_id = d.event_id ' ||
+        'WHERE (d.confirmed, d.pending, d.cancelled, d.paid, d.refunded) <> (0, 0, 0, 0, 0) ' ||
+        'ORDER BY d.event_id ' ||
+        'ON CONFLICT (event_id) DO UPDATE SET confirmed = s.confirmed + EXCLUDED.confirmed, ' ||
+        'pending = s.pending + EXCLUDED.pending, cancelled = s.cancelled + EXCLUDED.cancelled, ' ||
+        'paid = s.paid + EXCLUDED.paid, refunded = s.refunded + EXCLUDED.refunded, ' ||
+        'paid_revenue = s.paid_revenue + EXCLUDED.paid_revenue', changes);
+    -- Capacity backstop for every writer (imports, other nodes, plain SQL). The counter rows updated
+    -- above stay locked until commit, so statements adding confirmed seats to one event are checked
+    -- one after another against the latest count.
+    EXECUTE format(
+        'SELECT min(s.event_id) FROM event_registration_stats s JOIN events e ON e.event_id = s.event_id ' ||
+        'WHERE s.confirmed > e.max_participants AND s.event_id IN (SELECT c.event_id FROM (%s) c ' ||
+        'GROUP BY c.event_id HAVING sum(c.delta) FILTER (WHERE c.status = ''CONFIRMED'') > 0)', changes) INTO full_event;
+    IF full_event IS NOT NULL THEN
+        RAISE EXCEPTION 'event % is full', full_event USING ERRCODE = 'check_violation', CONSTRAINT = 'event_capacity';
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER registrations_stats_insert AFTER INSERT ON registrations
+    REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION apply_registration_stats_delta();
+CREATE TRIGGER registrations_stats_update AFTER UPDATE ON registrations
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION apply_registration_stats_delta();
+CREATE TRIGGER registrations_stats_delete AFTER DELETE ON registrations
+    REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION apply_registration_stats_delta();
+
+CREATE OR REPLACE FUNCTION init_event_registration_stats() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO event_registration_stats (event_id) VALUES (NEW.event_id) ON CONFLICT (event_id) DO NOTHING;
+    ELSE
+        UPDATE event_registration_stats SET paid_revenue = paid * coalesce(NEW.registration_fee, 0)
+        WHERE event_id = NEW.event_id;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER events_stats_insert AFTER INSERT ON events
+    FOR EACH ROW EXECUTE FUNCTION init_event_registration_stats();
+CREATE TRIGGER events_stats_fee_update AFTER UPDATE OF registration_fee ON events
+    FOR EACH ROW WHEN (OLD.registration_fee IS DISTINCT FROM NEW.registration_fee)
+    EXECUTE FUNCTION init_event_registration_stats();
+
+INSERT INTO event_registration_stats (event_id, confirmed, pending, cancelled, paid, refunded, paid_revenue)
+SELECT e.event_id,
+       count(r.registration_id) FILTER (WHERE r.status = 'CONFIRMED'),
+       count(r.registration_id) FILTER (WHERE r.status = 'PENDING'),
+       count(r.registration_id) FILTER (WHERE r.status = 'CANCELLED'),
+       count(r.registration_id) FILTER (WHERE r.payment_status = 'PAID'),
+       count(r.registration_id) FILTER (WHERE r.payment_status = 'REFUNDED'),
+       count(r.registration_id) FILTER (WHERE r.payment_status = 'PAID') * coalesce(e.registration_fee, 0)
+FROM events e LEFT JOIN registrations r ON r.event_id = e.event_id
+GROUP BY e.event_id
+ON CONFLICT (event_id) DO NOTHING;
+
+-- Cross-node cache invalidation: every committed write to events, participants or registrations sends
+-- one NOTIFY per statement on academic_events_changes with a compact payload, '<e|p|r>:<id>,<id>,...',
+-- or '<e|p|r>:*' when more than 200 rows changed. Each node LISTENs and drops or reloads what it caches.
+CREATE OR REPLACE FUNCTION notify_cache_invalidation() RETURNS trigger AS $$
+DECLARE
+    ids INTEGER[];
+BEGIN
+    EXECUTE format('SELECT array_agg(id) FROM (SELECT DISTINCT %I AS id FROM %I LIMIT 201) c',
+        TG_ARGV[1], CASE TG_OP WHEN 'DELETE' THEN 'old_rows' ELSE 'new_rows' END) INTO ids;
+    IF ids IS NOT NULL THEN
+        PERFORM pg_notify('academic_events_changes', TG_ARGV[0] || ':' ||
+            CASE WHEN cardinality(ids) > 200 THEN '*' ELSE array_to_string(ids, ',') END);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER events_notify_insert AFTER INSERT ON events
+    REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION notify_cache_invalidation('e', 'event_id');
+CREATE TRIGGER events_notify_update AFTER UPDATE ON events
+    REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION notify_cache_invalidation('e', 'event_id');
+CREATE TRIGGER events_notify_delete AFTER DELETE ON events
+    REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION notify_cache_invalidation('e', 'event_id');
+CREATE TRIGGER participants_notify_insert AFTER INSERT ON participants
+    REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION notify_cache_invalidation('p', 'participant_id');
+CREATE TRIGGER participants_notify_update AFTER UPDATE ON participants
+    REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION notify_cache_invalidation('p', 'participant_id');
+CREATE TRIGGER participants_notify_delete AFTER DELETE ON participants
+    REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION notify_cache_invalidation('p', 'participant_id');
+CREATE TRIGGER registrations_notify_insert AFTER INSERT ON registrations
+    REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION notify_cache_invalidation('r', 'registration_id');
+CREATE TRIGGER registrations_notify_update AFTER UPDATE ON registrations
+    REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION notify_cache_invalidation('r', 'registration_id');
+CREATE TRIGGER registrations_notify_delete AFTER DELETE ON registrations
+    REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION notify_cache_invalidation('r', 'registration_id');
@@ -0,0 +1,6 @@
+#!/bin/bash
+# Usage: ./bench.sh <BenchmarkClass> [--option=value ...]
+echo "Compiling benchmarks..."
+javac -cp "src/lib/postgresql-42.7.1.jar" src/main/java/*.java src/bench/java/*.java -d build-bench/
+echo "Running $1..."
+java -cp "build-bench:src/lib/postgresql-42.7.1.jar:src/main/resources" "$@"
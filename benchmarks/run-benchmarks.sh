@@ -0,0 +1,27 @@
+#!/bin/bash
+# Usage: benchmarks/run-benchmarks.sh [JMH options, e.g. -p participants=1000,100000 ReportBenchmarks]
+# Starts a throwaway PostgreSQL seeded from academic_events_db.sql, builds the benchmark jar and runs JMH.
+set -e
+cd "$(dirname "$0")/.."
+
+PORT=${BENCH_DB_PORT:-5433}
+CONTAINER=academic_events_bench_db
+DB_URL="jdbc:postgresql://localhost:${PORT}/academic_events_bench"
+
+if ! docker ps --format '{{.Names}}' | grep -q "^${CONTAINER}$"; then
+    echo "Starting PostgreSQL on port ${PORT}..."
+    docker run -d --rm --name "${CONTAINER}" -p "${PORT}:5432" \
+        -e POSTGRES_DB=academic_events_bench -e POSTGRES_USER=postgres -e POSTGRES_PASSWORD=admin \
+        -v "$(pwd)/academic_events_db.sql:/docker-entrypoint-initdb.d/init.sql:ro" \
+        postgres:12 > /dev/null
+    until docker exec "${CONTAINER}" pg_isready -U postgres -d academic_events_bench > /dev/null 2>&1; do
+        sleep 1
+    done
+fi
+
+echo "Building benchmarks..."
+mvn -B -q -pl benchmarks -am package
+
+echo "Running JMH against ${DB_URL}..."
+java -jar benchmarks/target/benchmarks.jar \
+    -jvmArgsAppend "-Ddb.url=${DB_URL} -Ddb.username=postgres -Ddb.password=admin" "$@"
@@ -0,0 +1,101 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/*
+ * Seeds the database configured by -Ddb.url (see run-benchmarks.sh) at the requested scale.
+ * Seeding truncates events, participants and registrations, so it refuses to run against a
+ * database whose name does not contain "bench" unless -Dbench.allowReset=true is given.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkDatabase {
+
+    @Param({ "10000" })
+    public int participants;
+
+    @Param({ "3" })
+    public int registrationsPerParticipant;
+
+    public int events;
+    public int registrations;
+
+    @Setup(Level.Trial)
+    public void seed() throws SQLException {
+        events = Math.max(10, participants / 100);
+        try (Connection conn = Services.createConnection()
+                .orElseThrow(() -> new IllegalStateException("No database connection; check -Ddb.url"))) {
+            checkResettable(conn);
+            if (seedMarker().equals(currentMarker(conn))) {
+                registrations = count(conn, "SELECT count(*) FROM registrations");
+                return;
+            }
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("TRUNCATE registrations, participants, events RESTART IDENTITY CASCADE");
+                stmt.execute("INSERT INTO events (event_name, description, start_date, end_date, registration_deadline, " +
+                    "max_participants, registration_fee, category_id, location_id, status) " +
+                    "SELECT 'Benchmark event ' || g, 'Seeded for benchmarks', current_date + (g % 365) - 90, " +
+                    "current_date + (g % 365) - 88, current_date + (g % 365) - 95, NULL, (g % 5) * 25.00, " +
+                    "(SELECT min(category_id) FROM categories), (SELECT min(location_id) FROM locations), " +
+                    "CASE WHEN g % 10 = 0 THEN 'CANCELLED' WHEN g % 7 = 0 THEN 'COMPLETED' ELSE 'ACTIVE' END " +
+                    "FROM generate_series(1, " + events + ") g");
+                stmt.execute("INSERT INTO participants (first_name, last_name, email, phone, institution, participant_type) " +
+                    "SELECT 'First' || g, 'Last' || (g % 997), 'participant' || g || '@bench.local', '555-' || lpad((g % 10000)::text, 4, '0'), " +
+                    "'Institution ' || (g % 200), (ARRAY['STUDENT', 'PROFESSOR', 'RESEARCHER', 'OTHER'])[1 + g % 4] " +
+                    "FROM generate_series(1, " + participants + ") g");
+                stmt.execute("INSERT INTO registrations (event_id, participant_id, registration_date, status, payment_status, notes) " +
+                    "SELECT 1 + (p * 7 + k * 13) % " + events + ", p, now() - ((p + k) % 1000) * interval '1 hour', " +
+                    "(ARRAY['CONFIRMED', 'CONFIRMED', 'CONFIRMED', 'PENDING', 'CANCELLED'])[1 + (p + k) % 5], " +
+                    "(ARRAY['PAID', 'PENDING', 'PENDING', 'REFUNDED'])[1 + (p * 3 + k) % 4], NULL " +
+                    "FROM generate_series(1, " + participants + ") p, generate_series(0, " + (registrationsPerParticipant - 1) + ") k " +
+                    "ON CONFLICT (event_id, participant_id) DO NOTHING");
+                stmt.execute("COMMENT ON TABLE registrations IS '" + seedMarker() + "'");
+                stmt.execute("ANALYZE events");
+                stmt.execute("ANALYZE participants");
+                stmt.execute("ANALYZE registrations");
+            }
+            conn.commit();
+            registrations = count(conn, "SELECT count(*) FROM registrations");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdown() {
+        Services.shutdown();
+    }
+
+    // Reseeding a large scale takes a while; forks and repeated runs at the same scale reuse the data
+    private String seedMarker() {
+        return "bench-seed participants=" + participants + " registrationsPerParticipant=" + registrationsPerParticipant;
+    }
+
+    private static String currentMarker(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT obj_description('registrations'::regclass, 'pg_class')");
+             ResultSet rs = stmt.executeQuery()) {
+            rs.next();
+            return rs.getString(1);
+        }
+    }
+
+    private static void checkResettable(Connection conn) throws SQLException {
+        String database = conn.getCatalog();
+        if (!database.contains("bench") && !Boolean.getBoolean("bench.allowReset")) {
+            throw new IllegalStateException("Refusing to reseed database '" + database +
+                "'; use a *bench* database or pass -Dbench.allowReset=true");
+        }
+    }
+
+    private static int count(Connection conn, String sql) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Upcoming, contained-range and overlap queries through EventService, answered either by SQL on
+ * idx_events_status_date / idx_events_date or by the in-memory interval tree (events.dateIndex.enabled).
+ * Windows are one to four weeks inside the seeded start dates; setup checks that the tree returns the
+ * same events as SQL for the first 50 of them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class EventDateRangeBenchmarks {
+    private static final int WINDOWS = 1024;
+
+    @Param({ "sql", "tree" })
+    public String path;
+
+    private final List<LocalDate[]> windows = new ArrayList<>(WINDOWS);
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkDatabase database) {
+        SplittableRandom random = new SplittableRandom(42);
+        LocalDate firstStart = LocalDate.now().minusDays(90);
+        for (int i = 0; i < WINDOWS; i++) {
+            LocalDate from = firstStart.plusDays(random.nextInt(365));
+            windows.add(new LocalDate[] { from, from.plusDays(7 + random.nextInt(22)) });
+        }
+
+        Services.disableDateIndex();
+        if (path.equals("tree")) {
+            List<List<?>> expected = new ArrayList<>();
+            for (LocalDate[] window : windows.subList(0, 50)) {
+                expected.add(Services.getEventsByDateRange(window[0], window[1]));
+                expected.add(Services.getEventsOverlapping(window[0], window[1]));
+            }
+            if (!Services.enableDateIndex()) {
+                throw new IllegalStateException("Unable to build the date index");
+            }
+            List<List<?>> actual = new ArrayList<>();
+            for (LocalDate[] window : windows.subList(0, 50)) {
+                actual.add(Services.getEventsByDateRange(window[0], window[1]));
+                actual.add(Services.getEventsOverlapping(window[0], window[1]));
+            }
+            if (!ids(expected).equals(ids(actual))) {
+                throw new IllegalStateException("Interval tree and SQL returned different events");
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Services.disableDateIndex();
+    }
+
+    private LocalDate[] nextWindow() {
+        LocalDate[] window = windows.get(next);
+        next = (next + 1) % WINDOWS;
+        return window;
+    }
+
+    // Events have no equals(); both paths return (start_date, event_id) order
+    private static List<List<Integer>> ids(List<List<?>> results) {
+        List<List<Integer>> ids = new ArrayList<>(results.size());
+        for (List<?> result : results) {
+            List<Integer> eventIds = new ArrayList<>(result.size());
+            for (Object event : result) {
+                eventIds.add(Services.eventId(event));
+            }
+            ids.add(eventIds);
+        }
+        return ids;
+    }
+
+    @Benchmark
+    public List<?> upcoming() {
+        return Services.getUpcomingEvents();
+    }
+
+    @Benchmark
+    public List<?> containedRange() {
+        LocalDate[] window = nextWindow();
+        return Services.getEventsByDateRange(window[0], window[1]);
+    }
+
+    @Benchmark
+    public List<?> overlapping() {
+        LocalDate[] window = nextWindow();
+        return Services.getEventsOverlapping(window[0], window[1]);
+    }
+}
@@ -0,0 +1,100 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Single-row versus batched inserts. Each invocation writes batchSize rows; the rows are deleted
+ * again in an untimed per-invocation teardown so every invocation starts from the seeded state.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class InsertBenchmarks {
+    private static final String EMAIL_PREFIX = "insert-bench-";
+
+    @Param({ "100" })
+    public int batchSize;
+
+    private BenchmarkDatabase database;
+    private long sequence;
+    private int benchmarkEventId;
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkDatabase database) throws SQLException {
+        this.database = database;
+        benchmarkEventId = database.events + 1;
+        // an event nobody is registered for, so registration inserts never collide with seeded rows
+        execute("INSERT INTO events (event_id, event_name, start_date, end_date, registration_fee, status) " +
+            "VALUES (" + benchmarkEventId + ", 'Insert benchmark event', current_date + 30, current_date + 31, 10.00, 'ACTIVE') " +
+            "ON CONFLICT (event_id) DO NOTHING");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        execute("DELETE FROM events WHERE event_id = " + benchmarkEventId);
+    }
+
+    @TearDown(Level.Invocation)
+    public void deleteInsertedRows() throws SQLException {
+        execute("DELETE FROM participants WHERE email LIKE '" + EMAIL_PREFIX + "%'");
+        execute("DELETE FROM registrations WHERE event_id = " + benchmarkEventId);
+    }
+
+    @Benchmark
+    public void createParticipantOneByOne(Blackhole blackhole) {
+        for (int i = 0; i < batchSize; i++) {
+            blackhole.consume(Services.createParticipant("Insert", "Bench" + i, nextEmail()));
+        }
+    }
+
+    @Benchmark
+    public Object createParticipantsBatched() {
+        List<Object> participants = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            participants.add(Services.newParticipant("Insert", "Bench" + i, nextEmail()));
+        }
+        return Services.createParticipants(participants);
+    }
+
+    @Benchmark
+    public void createRegistrationOneByOne(Blackhole blackhole) {
+        for (int i = 1; i <= batchSize; i++) {
+            blackhole.consume(Services.createRegistration(benchmarkEventId, participantFor(i)));
+        }
+    }
+
+    @Benchmark
+    public Object createRegistrationsBatched() {
+        List<Object> registrations = new ArrayList<>(batchSize);
+        for (int i = 1; i <= batchSize; i++) {
+            registrations.add(Services.newRegistration(benchmarkEventId, participantFor(i)));
+        }
+        return Services.createRegistrations(registrations);
+    }
+
+    private int participantFor(int i) {
+        return 1 + (i - 1) % database.participants;
+    }
+
+    private String nextEmail() {
+        return EMAIL_PREFIX + (sequence++) + "@bench.local";
+    }
+
+    private static void execute(String sql) throws SQLException {
+        try (Connection conn = Services.createConnection().orElseThrow(() -> new IllegalStateException("No database connection"));
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.executeUpdate();
+        }
+    }
+}
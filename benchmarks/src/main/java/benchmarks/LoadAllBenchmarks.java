@@ -0,0 +1,29 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoadAllBenchmarks {
+
+    @Benchmark
+    public List<?> getAllEvents(BenchmarkDatabase database) {
+        return Services.getAllEvents();
+    }
+
+    @Benchmark
+    public List<?> getAllParticipants(BenchmarkDatabase database) {
+        return Services.getAllParticipants();
+    }
+
+    @Benchmark
+    public List<?> getAllRegistrations(BenchmarkDatabase database) {
+        return Services.getAllRegistrations();
+    }
+}
@@ -0,0 +1,45 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * The dashboard's registration summary and per-event revenue counts over the whole registrations
+ * table, held either as a List<Registration> (layout=list) or as RegistrationColumns (layout=columns).
+ * Loading is setup, so the scores are the scans alone. Heap per row and result agreement are checked
+ * by ./bench.sh RegistrationColumnsCheck.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RegistrationColumnsBenchmarks {
+
+    @Param({ "list", "columns" })
+    public String layout;
+
+    private List<?> events;
+    private Object registrations;
+
+    @Setup(Level.Trial)
+    public void load(BenchmarkDatabase database) {
+        events = Services.getAllEvents();
+        registrations = layout.equals("list")
+            ? Services.getAllRegistrations()
+            : Services.loadColumns().orElseThrow(() -> new IllegalStateException("Unable to load registration columns"));
+    }
+
+    @Benchmark
+    public Object summarizeRegistrations() {
+        return Services.summarizeRegistrations(registrations);
+    }
+
+    @Benchmark
+    public Object revenueReport() {
+        return Services.generateRevenueReport(events, registrations);
+    }
+}
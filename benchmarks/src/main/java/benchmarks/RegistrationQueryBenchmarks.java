@@ -0,0 +1,61 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class RegistrationQueryBenchmarks {
+    private final SplittableRandom random = new SplittableRandom(42);
+    private BenchmarkDatabase database;
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkDatabase database) {
+        this.database = database;
+    }
+
+    private int randomEvent() {
+        return 1 + random.nextInt(database.events);
+    }
+
+    private int randomParticipant() {
+        return 1 + random.nextInt(database.participants);
+    }
+
+    @Benchmark
+    public List<?> findRegistrationsByEventAndStatus() {
+        return Services.findRegistrations(Services.filterStatus(Services.filterEvent(Services.filter(), randomEvent()), "CONFIRMED"));
+    }
+
+    @Benchmark
+    public long countRegistrationsByEventAndStatus() {
+        return Services.countRegistrations(Services.filterStatus(Services.filterEvent(Services.filter(), randomEvent()), "CONFIRMED"));
+    }
+
+    @Benchmark
+    public long countRegistrationsByPaymentStatus() {
+        return Services.countRegistrations(Services.filterPaymentStatus(Services.filter(), "PAID"));
+    }
+
+    @Benchmark
+    public long countRegistrationsForEvent() {
+        return Services.countRegistrationsForEvent(randomEvent());
+    }
+
+    @Benchmark
+    public List<?> getRegistrationsByEvent() {
+        return Services.getRegistrationsByEvent(randomEvent());
+    }
+
+    @Benchmark
+    public List<?> getRegistrationsByParticipant() {
+        return Services.getRegistrationsByParticipant(randomParticipant());
+    }
+}
@@ -0,0 +1,43 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * One benchmark per entry of the Reports menu in AcademicEventsApp, calling the same service
+ * methods the menu does (without the console printing).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReportBenchmarks {
+
+    @Benchmark
+    public Object eventSummaryReport(BenchmarkDatabase database) {
+        return Services.summarizeEvents(Services.getAllEvents());
+    }
+
+    @Benchmark
+    public Object participantSummaryReport(BenchmarkDatabase database) {
+        return Services.summarizeParticipants(Services.getAllParticipants());
+    }
+
+    @Benchmark
+    public Optional<?> registrationSummaryReport(BenchmarkDatabase database) {
+        return Services.loadRegistrationSummary();
+    }
+
+    @Benchmark
+    public Optional<?> revenueReport(BenchmarkDatabase database) {
+        return Services.generateRevenueReport();
+    }
+
+    @Benchmark
+    public Optional<?> fullDashboard(BenchmarkDatabase database) {
+        return Services.generateDashboard();
+    }
+}
@@ -0,0 +1,69 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/*
+ * Pure mapping cost: the rows are fetched once into a scrollable (client-buffered) result set and
+ * re-mapped on every invocation, so the score is rows mapped per second. "byName" is the mapper as it
+ * was before RowMapper (a fresh lambda per row, columns looked up by name); "rowMapper" resolves the
+ * column indexes once per result set.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class RowMappingBenchmarks {
+    private static final int ROWS = 1000;
+
+    @Param({ "events", "participants", "registrations" })
+    public String entity;
+
+    @Param({ "byName", "rowMapper" })
+    public String mapping;
+
+    private Connection conn;
+    private PreparedStatement stmt;
+    private ResultSet rs;
+
+    @Setup(Level.Trial)
+    public void fetchRows(BenchmarkDatabase database) throws SQLException {
+        conn = Services.createConnection().orElseThrow(() -> new IllegalStateException("No database connection"));
+        // repeat small tables so every entity maps the same number of rows
+        stmt = conn.prepareStatement("SELECT t.* FROM " + entity + " t CROSS JOIN generate_series(1, " + ROWS + ") g LIMIT " + ROWS,
+            ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
+        rs = stmt.executeQuery();
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws SQLException {
+        rs.close();
+        stmt.close();
+        conn.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void mapRows(Blackhole blackhole) throws SQLException {
+        rs.beforeFirst();
+        if (mapping.equals("byName")) {
+            while (rs.next()) {
+                blackhole.consume(Services.legacyMapper(entity).apply(rs));
+            }
+        } else {
+            Function<ResultSet, ?> mapper = Services.mapper(entity);
+            while (rs.next()) {
+                blackhole.consume(mapper.apply(rs));
+            }
+        }
+    }
+}
@@ -0,0 +1,342 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/*
+ * The application classes live in the default package, which Java code in a named package cannot
+ * import and JMH cannot generate benchmarks for. This bridge resolves them once by name and calls
+ * them through MethodHandles, so the benchmarks measure the service code and not reflection.
+ */
+final class Services {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.publicLookup();
+
+    private static final MethodHandle GET_ALL_EVENTS = method("EventService", "getAllEvents");
+    private static final MethodHandle MAP_TO_EVENT = method("EventService", "mapToEvent");
+    private static final MethodHandle NEW_EVENT = constructor("EventService$Event", int.class, String.class, String.class,
+        LocalDate.class, LocalDate.class, LocalDate.class, int.class, BigDecimal.class, int.class, int.class, String.class);
+    private static final MethodHandle GET_UPCOMING_EVENTS = method("EventService", "getUpcomingEvents");
+    private static final MethodHandle GET_EVENTS_BY_DATE_RANGE = method("EventService", "getEventsByDateRange",
+        LocalDate.class, LocalDate.class);
+    private static final MethodHandle GET_EVENTS_OVERLAPPING = method("EventService", "getEventsOverlapping",
+        LocalDate.class, LocalDate.class);
+    private static final MethodHandle EVENT_ID = getter("EventService$Event", "eventId");
+    private static final MethodHandle ENABLE_DATE_INDEX = method("EventService", "enableDateIndex");
+    private static final MethodHandle DISABLE_DATE_INDEX = method("EventService", "disableDateIndex");
+    private static final MethodHandle GET_ALL_PARTICIPANTS = method("ParticipantService", "getAllParticipants");
+    private static final MethodHandle MAP_TO_PARTICIPANT = method("ParticipantService", "mapToParticipant");
+    private static final MethodHandle NEW_PARTICIPANT_ROW = constructor("ParticipantService$Participant",
+        int.class, String.class, String.class, String.class, String.class, String.class, String.class);
+    private static final MethodHandle CREATE_PARTICIPANT = method("ParticipantService", "createParticipant",
+        String.class, String.class, String.class, String.class, String.class, String.class);
+    private static final MethodHandle CREATE_PARTICIPANTS = method("ParticipantService", "createParticipants", List.class);
+    private static final MethodHandle NEW_PARTICIPANT = constructor("ParticipantService$NewParticipant",
+        String.class, String.class, String.class, String.class, String.class, String.class);
+    private static final MethodHandle GET_ALL_REGISTRATIONS = method("RegistrationService", "getAllRegistrations");
+    private static final MethodHandle MAP_TO_REGISTRATION = method("RegistrationService", "mapToRegistration");
+    private static final MethodHandle NEW_REGISTRATION_ROW = constructor("RegistrationService$Registration",
+        int.class, int.class, int.class, LocalDateTime.class, String.class, String.class, String.class);
+    private static final MethodHandle FILTER = method("RegistrationService", "filter");
+    private static final MethodHandle FILTER_EVENT = method("RegistrationService$RegistrationFilter", "event", int.class);
+    private static final MethodHandle FILTER_STATUS = method("RegistrationService$RegistrationFilter", "status", String.class);
+    private static final MethodHandle FILTER_PAYMENT_STATUS = method("RegistrationService$RegistrationFilter", "paymentStatus", String.class);
+    private static final MethodHandle FIND_REGISTRATIONS = method("RegistrationService", "findRegistrations",
+        type("RegistrationService$RegistrationFilter"));
+    private static final MethodHandle COUNT_REGISTRATIONS = method("RegistrationService", "countRegistrations",
+        type("RegistrationService$RegistrationFilter"));
+    private static final MethodHandle COUNT_REGISTRATIONS_FOR_EVENT = method("RegistrationService", "countRegistrationsForEvent", int.class);
+    private static final MethodHandle GET_REGISTRATIONS_BY_EVENT = method("RegistrationService", "getRegistrationsByEvent", int.class);
+    private static final MethodHandle GET_REGISTRATIONS_BY_PARTICIPANT = method("RegistrationService", "getRegistrationsByParticipant", int.class);
+    private static final MethodHandle CREATE_REGISTRATION = method("RegistrationService", "createRegistration",
+        int.class, int.class, String.class);
+    private static final MethodHandle CREATE_REGISTRATIONS = method("RegistrationService", "createRegistrations", List.class);
+    private static final MethodHandle NEW_REGISTRATION = constructor("RegistrationService$NewRegistration",
+        int.class, int.class, String.class);
+    private static final MethodHandle LOAD_COLUMNS = method("RegistrationService", "loadColumns");
+    private static final MethodHandle SUMMARIZE_REGISTRATIONS = method("ReportEngine", "summarizeRegistrations", List.class);
+    private static final MethodHandle SUMMARIZE_REGISTRATION_COLUMNS = method("ReportEngine", "summarizeRegistrations",
+        type("RegistrationColumns"));
+    private static final MethodHandle REVENUE_FROM_REGISTRATIONS = method("RevenueService", "generateRevenueReport",
+        List.class, List.class);
+    private static final MethodHandle REVENUE_FROM_REGISTRATION_COLUMNS = method("RevenueService", "generateRevenueReport",
+        List.class, type("RegistrationColumns"));
+    private static final MethodHandle SUMMARIZE_EVENTS = method("ReportEngine", "summarizeEvents", List.class);
+    private static final MethodHandle SUMMARIZE_PARTICIPANTS = method("ReportEngine", "summarizeParticipants", List.class);
+    private static final MethodHandle LOAD_REGISTRATION_SUMMARY = method("ReportEngine", "loadRegistrationSummary");
+    private static final MethodHandle GENERATE_DASHBOARD = method("ReportEngine", "generateDashboard");
+    private static final MethodHandle GENERATE_REVENUE_REPORT = method("RevenueService", "generateRevenueReport");
+    private static final MethodHandle CREATE_CONNECTION = method("DatabaseConnection", "createConnection");
+    private static final MethodHandle SHUTDOWN = method("DatabaseConnection", "shutdown");
+
+    private Services() {
+    }
+
+    static List<?> getAllEvents() {
+        return (List<?>) call(GET_ALL_EVENTS);
+    }
+
+    static List<?> getUpcomingEvents() {
+        return (List<?>) call(GET_UPCOMING_EVENTS);
+    }
+
+    static List<?> getEventsByDateRange(LocalDate from, LocalDate to) {
+        return (List<?>) call(GET_EVENTS_BY_DATE_RANGE, from, to);
+    }
+
+    static List<?> getEventsOverlapping(LocalDate from, LocalDate to) {
+        return (List<?>) call(GET_EVENTS_OVERLAPPING, from, to);
+    }
+
+    static int eventId(Object event) {
+        return (Integer) call(EVENT_ID, event);
+    }
+
+    static boolean enableDateIndex() {
+        return (Boolean) call(ENABLE_DATE_INDEX);
+    }
+
+    static void disableDateIndex() {
+        call(DISABLE_DATE_INDEX);
+    }
+
+    static List<?> getAllParticipants() {
+        return (List<?>) call(GET_ALL_PARTICIPANTS);
+    }
+
+    static List<?> getAllRegistrations() {
+        return (List<?>) call(GET_ALL_REGISTRATIONS);
+    }
+
+    @SuppressWarnings("unchecked")
+    static Function<ResultSet, ?> mapper(String entity) {
+        switch (entity) {
+            case "events":
+                return (Function<ResultSet, ?>) call(MAP_TO_EVENT);
+            case "participants":
+                return (Function<ResultSet, ?>) call(MAP_TO_PARTICIPANT);
+            case "registrations":
+                return (Function<ResultSet, ?>) call(MAP_TO_REGISTRATION);
+            default:
+                throw new IllegalArgumentException("Unknown entity: " + entity);
+        }
+    }
+
+    // The mappers as they were before RowMapper: a fresh lambda per row, every column resolved by name.
+    static Function<ResultSet, ?> legacyMapper(String entity) {
+        switch (entity) {
+            case "events":
+                return rs -> {
+                    try {
+                        Date registrationDeadline = rs.getDate("registration_deadline");
+                        return (Object) NEW_EVENT.invoke(
+                            rs.getInt("event_id"),
+                            rs.getString("event_name"),
+                            rs.getString("description"),
+                            rs.getDate("start_date").toLocalDate(),
+                            rs.getDate("end_date").toLocalDate(),
+                            registrationDeadline != null ? registrationDeadline.toLocalDate() : null,
+                            rs.getInt("max_participants"),
+                            rs.getBigDecimal("registration_fee"),
+                            rs.getInt("category_id"),
+                            rs.getInt("location_id"),
+                            rs.getString("status"));
+                    } catch (Throwable e) {
+                        throw new RuntimeException("Error mapping ResultSet to Event", e);
+                    }
+                };
+            case "participants":
+                return rs -> {
+                    try {
+                        return (Object) NEW_PARTICIPANT_ROW.invoke(
+                            rs.getInt("participant_id"),
+                            rs.getString("first_name"),
+                            rs.getString("last_name"),
+                            rs.getString("email"),
+                            rs.getString("phone"),
+                            rs.getString("institution"),
+                            rs.getString("participant_type"));
+                    } catch (Throwable e) {
+                        throw new RuntimeException("Error mapping ResultSet to Participant", e);
+                    }
+                };
+            case "registrations":
+                return rs -> {
+                    try {
+                        return (Object) NEW_REGISTRATION_ROW.invoke(
+                            rs.getInt("registration_id"),
+                            rs.getInt("event_id"),
+                            rs.getInt("participant_id"),
+                            rs.getTimestamp("registration_date").toLocalDateTime(),
+                            rs.getString("status"),
+                            rs.getString("payment_status"),
+                            rs.getString("notes"));
+                    } catch (Throwable e) {
+                        throw new RuntimeException("Error mapping ResultSet to Registration", e);
+                    }
+                };
+            default:
+                throw new IllegalArgumentException("Unknown entity: " + entity);
+        }
+    }
+
+    static Optional<?> createParticipant(String firstName, String lastName, String email) {
+        return (Optional<?>) call(CREATE_PARTICIPANT, firstName, lastName, email, null, "Benchmark University", "STUDENT");
+    }
+
+    static Object newParticipant(String firstName, String lastName, String email) {
+        return call(NEW_PARTICIPANT, firstName, lastName, email, null, "Benchmark University", "STUDENT");
+    }
+
+    static Optional<?> createParticipants(List<?> participants) {
+        return (Optional<?>) call(CREATE_PARTICIPANTS, participants);
+    }
+
+    static Optional<?> createRegistration(int eventId, int participantId) {
+        return (Optional<?>) call(CREATE_REGISTRATION, eventId, participantId, null);
+    }
+
+    static Object newRegistration(int eventId, int participantId) {
+        return call(NEW_REGISTRATION, eventId, participantId, null);
+    }
+
+    static Optional<?> createRegistrations(List<?> registrations) {
+        return (Optional<?>) call(CREATE_REGISTRATIONS, registrations);
+    }
+
+    static Object filter() {
+        return call(FILTER);
+    }
+
+    static Object filterEvent(Object filter, int eventId) {
+        return call(FILTER_EVENT, filter, eventId);
+    }
+
+    static Object filterStatus(Object filter, String status) {
+        return call(FILTER_STATUS, filter, status);
+    }
+
+    static Object filterPaymentStatus(Object filter, String paymentStatus) {
+        return call(FILTER_PAYMENT_STATUS, filter, paymentStatus);
+    }
+
+    static List<?> findRegistrations(Object filter) {
+        return (List<?>) call(FIND_REGISTRATIONS, filter);
+    }
+
+    static long countRegistrations(Object filter) {
+        return (Long) call(COUNT_REGISTRATIONS, filter);
+    }
+
+    static long countRegistrationsForEvent(int eventId) {
+        return (Long) call(COUNT_REGISTRATIONS_FOR_EVENT, eventId);
+    }
+
+    static List<?> getRegistrationsByEvent(int eventId) {
+        return (List<?>) call(GET_REGISTRATIONS_BY_EVENT, eventId);
+    }
+
+    static List<?> getRegistrationsByParticipant(int participantId) {
+        return (List<?>) call(GET_REGISTRATIONS_BY_PARTICIPANT, participantId);
+    }
+
+    static Optional<?> loadColumns() {
+        return (Optional<?>) call(LOAD_COLUMNS);
+    }
+
+    // registrations is a List<Registration> or a RegistrationColumns
+    static Object summarizeRegistrations(Object registrations) {
+        return registrations instanceof List
+            ? call(SUMMARIZE_REGISTRATIONS, registrations)
+            : call(SUMMARIZE_REGISTRATION_COLUMNS, registrations);
+    }
+
+    static Object generateRevenueReport(List<?> events, Object registrations) {
+        return registrations instanceof List
+            ? call(REVENUE_FROM_REGISTRATIONS, events, registrations)
+            : call(REVENUE_FROM_REGISTRATION_COLUMNS, events, registrations);
+    }
+
+    static Object summarizeEvents(List<?> events) {
+        return call(SUMMARIZE_EVENTS, events);
+    }
+
+    static Object summarizeParticipants(List<?> participants) {
+        return call(SUMMARIZE_PARTICIPANTS, participants);
+    }
+
+    static Optional<?> loadRegistrationSummary() {
+        return (Optional<?>) call(LOAD_REGISTRATION_SUMMARY);
+    }
+
+    static Optional<?> generateRevenueReport() {
+        return (Optional<?>) call(GENERATE_REVENUE_REPORT);
+    }
+
+    static Optional<?> generateDashboard() {
+        return (Optional<?>) call(GENERATE_DASHBOARD);
+    }
+
+    @SuppressWarnings("unchecked")
+    static Optional<Connection> createConnection() {
+        return (Optional<Connection>) call(CREATE_CONNECTION);
+    }
+
+    static void shutdown() {
+        call(SHUTDOWN);
+    }
+
+    private static Object call(MethodHandle handle, Object... args) {
+        try {
+            return handle.invokeWithArguments(args);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Class<?> type(String name) {
+        try {
+            return Class.forName(name, true, Services.class.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static MethodHandle method(String className, String name, Class<?>... parameterTypes) {
+        try {
+            Method method = type(className).getMethod(name, parameterTypes);
+            return LOOKUP.unreflect(method);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static MethodHandle getter(String className, String field) {
+        try {
+            return LOOKUP.unreflectGetter(type(className).getField(field));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static MethodHandle constructor(String className, Class<?>... parameterTypes) {
+        try {
+            Constructor<?> constructor = type(className).getConstructor(parameterTypes);
+            return LOOKUP.unreflectConstructor(constructor);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+}
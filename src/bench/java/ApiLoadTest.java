@@ -0,0 +1,137 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+ * Closed-loop load test for the JSON API: --clients virtual users each issue a read request as soon
+ * as the previous one returns, for --seconds after a --warmup period. Without --url an in-process
+ * ApiServer is started on a free port against the configured database.
+ */
+public class ApiLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        int clients = BenchmarkSupport.intOption(args, "clients", 200);
+        int seconds = BenchmarkSupport.intOption(args, "seconds", 15);
+        int warmup = BenchmarkSupport.intOption(args, "warmup", 3);
+        Optional<String> url = BenchmarkSupport.option(args, "url");
+
+        ApiServer server = null;
+        String baseUrl;
+        if (url.isPresent()) {
+            baseUrl = url.get();
+        } else {
+            Properties props = DatabaseConnection.loadDatabaseProperties()
+                .orElseThrow(() -> new IllegalStateException("application.properties not found"));
+            props.setProperty("server.port", "0");
+            server = new ApiServer(ApiServer.ServerConfig.fromProperties(props));
+            server.start();
+            baseUrl = "http://localhost:" + server.getPort();
+        }
+
+        ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("load");
+        HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(executor)
+            .build();
+        try {
+            List<Integer> eventIds = ids(client, baseUrl + "/api/events?limit=500", "eventId");
+            List<Integer> participantIds = ids(client, baseUrl + "/api/participants?limit=500", "participantId");
+            if (eventIds.isEmpty() || participantIds.isEmpty()) {
+                throw new IllegalStateException("The load test needs at least one event and one participant");
+            }
+            List<String> paths = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                paths.add("/api/events/" + eventIds.get(i % eventIds.size()));
+                paths.add("/api/participants/" + participantIds.get(i % participantIds.size()));
+                paths.add("/api/events/" + eventIds.get(i % eventIds.size()) + "/registrations");
+                paths.add("/api/participants?limit=20");
+                paths.add("/api/events/" + eventIds.get(i % eventIds.size()) + "/stats");
+            }
+            paths.add("/api/reports/registrations");
+
+            System.out.println("=== API load test: " + clients + " clients, " + seconds + "s against " + baseUrl +
+                " (" + (VirtualThreads.isAvailable() ? "virtual" : "platform") + " client threads) ===");
+            run(client, executor, baseUrl, paths, clients, warmup, false);
+            run(client, executor, baseUrl, paths, clients, seconds, true);
+        } finally {
+            executor.shutdownNow();
+            if (server != null) {
+                System.out.println("Server: " + Json.write(server.stats()));
+                server.stop(0);
+            }
+            DatabaseConnection.shutdown();
+        }
+    }
+
+    private static void run(HttpClient client, ExecutorService executor, String baseUrl, List<String> paths,
+                            int clients, int seconds, boolean report) throws Exception {
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Future<long[]>> results = new ArrayList<>();
+        Map<Integer, Long> statuses = new ConcurrentSkipListMap<>();
+        for (int c = 0; c < clients; c++) {
+            int seed = c;
+            results.add(executor.submit(() -> {
+                Random random = new Random(seed);
+                long[] latencies = new long[1024];
+                int count = 0;
+                while (running.get()) {
+                    HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + paths.get(random.nextInt(paths.size()))))
+                        .timeout(Duration.ofSeconds(30))
+                        .build();
+                    long start = System.nanoTime();
+                    int status;
+                    try {
+                        status = client.send(request, HttpResponse.BodyHandlers.ofByteArray()).statusCode();
+                    } catch (java.io.IOException e) {
+                        status = -1;
+                    }
+                    long elapsed = System.nanoTime() - start;
+                    statuses.merge(status, 1L, Long::sum);
+                    if (count == latencies.length) {
+                        latencies = Arrays.copyOf(latencies, count * 2);
+                    }
+                    latencies[count++] = elapsed;
+                }
+                return Arrays.copyOf(latencies, count);
+            }));
+        }
+        long start = System.nanoTime();
+        Thread.sleep(seconds * 1000L);
+        running.set(false);
+        long[] all = new long[0];
+        for (Future<long[]> result : results) {
+            long[] latencies = result.get();
+            int offset = all.length;
+            all = Arrays.copyOf(all, offset + latencies.length);
+            System.arraycopy(latencies, 0, all, offset, latencies.length);
+        }
+        long elapsed = System.nanoTime() - start;
+        if (!report) {
+            return;
+        }
+        Arrays.sort(all);
+        System.out.println(new BenchmarkSupport.Result("requests", all.length, elapsed));
+        System.out.println(new BenchmarkSupport.LatencyResult("latency", all));
+        System.out.println("Status codes: " + statuses + " (-1 = I/O error)");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Integer> ids(HttpClient client, String url, String field) throws Exception {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(url)).build(),
+            HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(url + " returned " + response.statusCode() + ": " + response.body());
+        }
+        List<Integer> ids = new ArrayList<>();
+        for (Object item : (List<Object>) ((Map<String, Object>) Json.parse(response.body())).get("items")) {
+            ids.add(((java.math.BigDecimal) ((Map<String, Object>) item).get(field)).intValue());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,98 @@
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+public class AsyncFanOutBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int rounds = BenchmarkSupport.intOption(args, "rounds", 5);
+        int sleepSeconds = BenchmarkSupport.intOption(args, "sleep", 10);
+
+        try {
+            List<Integer> eventIds = EventService.getAllEvents().stream()
+                .map(event -> event.eventId)
+                .collect(Collectors.toList());
+            if (eventIds.isEmpty()) {
+                throw new IllegalStateException("The benchmark needs at least one event");
+            }
+            System.out.println("=== Per-event registration fan-out (" + eventIds.size() + " events x " + rounds + " rounds, " +
+                (VirtualThreads.isAvailable() ? "virtual" : "platform") + " threads) ===");
+            fanOut(eventIds, 1, false);
+            fanOut(eventIds, 1, true);
+            BenchmarkSupport.Result sequential = fanOut(eventIds, rounds, false);
+            BenchmarkSupport.Result parallel = fanOut(eventIds, rounds, true);
+            BenchmarkSupport.speedup(sequential, parallel);
+
+            System.out.println("\n=== Timeout propagation (pg_sleep(" + sleepSeconds + "), 200 ms timeout) ===");
+            boolean cancelled = checkTimeoutCancelsQuery(sleepSeconds);
+            System.out.println(cancelled ? "PASS" : "FAIL");
+            if (!cancelled) {
+                System.exit(1);
+            }
+        } finally {
+            DatabaseConnection.shutdown();
+        }
+    }
+
+    private static BenchmarkSupport.Result fanOut(List<Integer> eventIds, int rounds, boolean async) {
+        long operations = (long) eventIds.size() * rounds;
+        String name = async ? "async fan-out (CompletableFuture.allOf)" : "sequential service calls";
+        Runnable body = () -> {
+            for (int round = 0; round < rounds; round++) {
+                if (async) {
+                    List<CompletableFuture<List<RegistrationService.Registration>>> pending = eventIds.stream()
+                        .map(AsyncRegistrationService::getRegistrationsByEvent)
+                        .collect(Collectors.toList());
+                    CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0])).join();
+                } else {
+                    eventIds.forEach(RegistrationService::getRegistrationsByEvent);
+                }
+            }
+        };
+        if (rounds == 1) {
+            // warm-up pass, not reported
+            body.run();
+            return null;
+        }
+        return BenchmarkSupport.time(name, operations, body);
+    }
+
+    private static boolean checkTimeoutCancelsQuery(int sleepSeconds) throws InterruptedException {
+        long start = System.nanoTime();
+        CompletableFuture<Optional<Boolean>> sleeping = AsyncServices.supply(() ->
+            DatabaseConnection.executeWithConnection(conn -> {
+                try (PreparedStatement stmt = conn.prepareStatement("SELECT pg_sleep(?)")) {
+                    stmt.setInt(1, sleepSeconds);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        return rs.next();
+                    }
+                }
+            }));
+        sleeping.orTimeout(200, TimeUnit.MILLISECONDS);
+        try {
+            sleeping.join();
+            System.out.println("query finished before the timeout");
+            return false;
+        } catch (CompletionException e) {
+            if (!(e.getCause() instanceof TimeoutException)) {
+                throw e;
+            }
+        }
+        // The connection only goes back to the pool once the backend has actually stopped the query
+        while (DatabaseConnection.getPoolStats().map(stats -> stats.active).orElse(0) > 0) {
+            if (System.nanoTime() - start > TimeUnit.SECONDS.toNanos(sleepSeconds)) {
+                System.out.println("connection still busy after " + sleepSeconds + " s");
+                return false;
+            }
+            Thread.sleep(5);
+        }
+        System.out.printf("timed out, server-side query cancelled and connection released after %.1f ms%n",
+            (System.nanoTime() - start) / 1_000_000.0);
+        return true;
+    }
+}
@@ -0,0 +1,53 @@
+import java.util.*;
+
+public class BatchWriteBenchmark {
+
+    public static void main(String[] args) {
+        int rows = BenchmarkSupport.intOption(args, "rows", 2000);
+
+        int eventId = BenchmarkSupport.seedEvent("Batch benchmark", rows * 2);
+
+        List<Integer> participantIds = new ArrayList<>();
+        try {
+            System.out.println("=== Participants (" + rows + " rows per path) ===");
+            BenchmarkSupport.Result singleParticipants = BenchmarkSupport.time("createParticipant x" + rows, rows, () -> {
+                for (int i = 0; i < rows; i++) {
+                    ParticipantService.createParticipant("Single", "Bench" + i, BenchmarkSupport.email("single", i),
+                        null, "Benchmark University", "STUDENT").ifPresent(participantIds::add);
+                }
+            });
+            List<ParticipantService.NewParticipant> newParticipants = BenchmarkSupport.newParticipants("batch", rows);
+            BenchmarkSupport.Result batchParticipants = BenchmarkSupport.time("createParticipants(list)", rows, () ->
+                ParticipantService.createParticipants(newParticipants)
+                    .ifPresent(result -> participantIds.addAll(result.generatedIds())));
+            BenchmarkSupport.speedup(singleParticipants, batchParticipants);
+
+            System.out.println("\n=== Registrations ===");
+            List<Integer> singleIds = new ArrayList<>();
+            List<Integer> firstHalf = participantIds.subList(0, participantIds.size() / 2);
+            List<Integer> secondHalf = participantIds.subList(participantIds.size() / 2, participantIds.size());
+            BenchmarkSupport.Result singleRegistrations = BenchmarkSupport.time("createRegistration x" + firstHalf.size(), firstHalf.size(), () ->
+                firstHalf.forEach(participantId ->
+                    RegistrationService.createRegistration(eventId, participantId, null).ifPresent(singleIds::add)));
+            List<RegistrationService.NewRegistration> newRegistrations = new ArrayList<>();
+            secondHalf.forEach(participantId -> newRegistrations.add(new RegistrationService.NewRegistration(eventId, participantId, null)));
+            List<Integer> batchIds = new ArrayList<>();
+            BenchmarkSupport.Result batchRegistrations = BenchmarkSupport.time("createRegistrations(list)", secondHalf.size(), () ->
+                RegistrationService.createRegistrations(newRegistrations)
+                    .ifPresent(result -> batchIds.addAll(result.generatedIds())));
+            BenchmarkSupport.speedup(singleRegistrations, batchRegistrations);
+
+            System.out.println("\n=== Payment status updates ===");
+            BenchmarkSupport.Result singleUpdates = BenchmarkSupport.time("updatePaymentStatus x" + singleIds.size(), singleIds.size(), () ->
+                singleIds.forEach(registrationId -> RegistrationService.updatePaymentStatus(registrationId, "PAID")));
+            Map<Integer, String> updates = new LinkedHashMap<>();
+            batchIds.forEach(registrationId -> updates.put(registrationId, "PAID"));
+            BenchmarkSupport.Result batchUpdates = BenchmarkSupport.time("updatePaymentStatuses(map)", updates.size(), () ->
+                RegistrationService.updatePaymentStatuses(updates));
+            BenchmarkSupport.speedup(singleUpdates, batchUpdates);
+        } finally {
+            BenchmarkSupport.cleanUp(eventId, participantIds);
+            DatabaseConnection.shutdown();
+        }
+    }
+}
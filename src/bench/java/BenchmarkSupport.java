@@ -0,0 +1,146 @@
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.IntConsumer;
+
+public class BenchmarkSupport {
+    // tags every row a harness seeds, so runs never collide with leftovers from earlier ones
+    public static final String RUN_ID = Long.toString(System.currentTimeMillis(), 36);
+
+    public static class Result {
+        public final String name;
+        public final long operations;
+        public final long elapsedNanos;
+
+        public Result(String name, long operations, long elapsedNanos) {
+            this.name = name;
+            this.operations = operations;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public double operationsPerSecond() {
+            return operations * 1_000_000_000.0 / Math.max(elapsedNanos, 1);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-45s %10d ops %10.1f ms %12.1f ops/s",
+                name, operations, elapsedNanos / 1_000_000.0, operationsPerSecond());
+        }
+    }
+
+    public static class LatencyResult {
+        public final String name;
+        public final long[] sortedNanos;
+
+        public LatencyResult(String name, long[] sortedNanos) {
+            this.name = name;
+            this.sortedNanos = sortedNanos;
+        }
+
+        public double percentileMillis(double percentile) {
+            if (sortedNanos.length == 0) {
+                return 0.0;
+            }
+            int index = (int) Math.ceil(percentile / 100.0 * sortedNanos.length) - 1;
+            return sortedNanos[Math.max(0, Math.min(index, sortedNanos.length - 1))] / 1_000_000.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-45s %8d samples  p50=%8.3f ms  p95=%8.3f ms  p99=%8.3f ms  max=%8.3f ms",
+                name, sortedNanos.length, percentileMillis(50), percentileMillis(95), percentileMillis(99), percentileMillis(100));
+        }
+    }
+
+    public static LatencyResult latency(String name, int warmups, int samples, IntConsumer operation) {
+        for (int i = 0; i < warmups; i++) {
+            operation.accept(i);
+        }
+        long[] nanos = new long[samples];
+        for (int i = 0; i < samples; i++) {
+            long start = System.nanoTime();
+            operation.accept(i);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        LatencyResult result = new LatencyResult(name, nanos);
+        System.out.println(result);
+        return result;
+    }
+
+    public static Result time(String name, long operations, Runnable body) {
+        long start = System.nanoTime();
+        body.run();
+        Result result = new Result(name, operations, System.nanoTime() - start);
+        System.out.println(result);
+        return result;
+    }
+
+    public static int intOption(String[] args, String name, int defaultValue) {
+        return option(args, name).map(Integer::parseInt).orElse(defaultValue);
+    }
+
+    public static Optional<String> option(String[] args, String name) {
+        String prefix = "--" + name + "=";
+        return Arrays.stream(args)
+            .filter(arg -> arg.startsWith(prefix))
+            .map(arg -> arg.substring(prefix.length()))
+            .findFirst();
+    }
+
+    public static void speedup(Result baseline, Result candidate) {
+        System.out.printf("%-45s %10.1fx%n", candidate.name + " vs " + baseline.name,
+            candidate.operationsPerSecond() / baseline.operationsPerSecond());
+    }
+
+    public static int seedEvent(String name, int seats) {
+        return EventService.createEvent(name + " " + RUN_ID, "Temporary benchmark event",
+                LocalDate.now().plusYears(1), LocalDate.now().plusYears(1), null,
+                seats, BigDecimal.TEN, 1, 1)
+            .orElseThrow(() -> new IllegalStateException("Unable to create benchmark event"));
+    }
+
+    public static String email(String prefix, int i) {
+        return prefix + "-" + RUN_ID + "-" + i + "@bench.local";
+    }
+
+    public static List<ParticipantService.NewParticipant> newParticipants(String prefix, int count) {
+        return newParticipants(prefix, count, (i, email) -> new ParticipantService.NewParticipant("Bench", prefix + " " + i,
+            email, null, "Benchmark University", "STUDENT"));
+    }
+
+    public static List<ParticipantService.NewParticipant> newParticipants(String prefix, int count,
+            BiFunction<Integer, String, ParticipantService.NewParticipant> participant) {
+        List<ParticipantService.NewParticipant> participants = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            participants.add(participant.apply(i, email(prefix, i)));
+        }
+        return participants;
+    }
+
+    public static List<Integer> seedParticipants(String prefix, int count) {
+        return seedParticipants(newParticipants(prefix, count));
+    }
+
+    public static List<Integer> seedParticipants(List<ParticipantService.NewParticipant> participants) {
+        return ParticipantService.createParticipants(participants)
+            .map(result -> new ArrayList<>(result.generatedIds()))
+            .orElseGet(ArrayList::new);
+    }
+
+    public static List<Integer> seedRegistrations(int eventId, List<Integer> participantIds, String notes) {
+        List<RegistrationService.NewRegistration> registrations = new ArrayList<>();
+        participantIds.forEach(participantId -> registrations.add(new RegistrationService.NewRegistration(eventId, participantId, notes)));
+        return RegistrationService.createRegistrations(registrations)
+            .map(result -> new ArrayList<>(result.generatedIds()))
+            .orElseGet(ArrayList::new);
+    }
+
+    // deleting the participants and the event also removes their registrations (ON DELETE CASCADE)
+    public static void cleanUp(int eventId, List<Integer> participantIds) {
+        participantIds.forEach(ParticipantService::deleteParticipant);
+        EventService.deleteEvent(eventId);
+    }
+}
@@ -0,0 +1,147 @@
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.BooleanSupplier;
+
+/*
+ * Plays "another node": writes go through a plain JDBC connection that bypasses the services, so
+ * this process only learns about them through LISTEN/NOTIFY. Checks that cached events and
+ * participants, the registration index and the event date index all catch up, that a burst of
+ * single-row transactions is applied in a few coalesced batches, and that a killed listener
+ * connection reconnects and refreshes everything it may have missed.
+ *
+ *   ./bench.sh CacheInvalidationCheck --burst=500
+ */
+public class CacheInvalidationCheck {
+    private static final long WAIT_MILLIS = 5000;
+
+    public static void main(String[] args) throws Exception {
+        int burst = BenchmarkSupport.intOption(args, "burst", 500);
+        Properties props = DatabaseConnection.loadDatabaseProperties()
+            .orElseThrow(() -> new IllegalStateException("No database configuration"));
+        CacheInvalidationListener.Config defaults = CacheInvalidationListener.Config.fromProperties(props);
+        CacheInvalidationListener.start(new CacheInvalidationListener.Config(defaults.url, defaults.username,
+            defaults.password, defaults.coalesceMillis, 500, defaults.keepaliveMillis, defaults.maxIds));
+        RegistrationService.enableIndex();
+        EventService.enableDateIndex();
+        String run = Long.toString(System.nanoTime(), 36);
+
+        boolean passed = true;
+        try (Connection other = DriverManager.getConnection(defaults.url, defaults.username, defaults.password)) {
+            waitFor(() -> CacheInvalidationListener.getStats().map(stats -> stats.connected).orElse(false));
+            LocalDate start = LocalDate.now().plusYears(3);
+            int eventId = insert(other, "INSERT INTO events (event_name, start_date, end_date, max_participants) " +
+                "VALUES ('Invalidation check " + run + "', '" + start + "', '" + start + "', 10) RETURNING event_id");
+            int participantId = insert(other, "INSERT INTO participants (first_name, last_name, email) " +
+                "VALUES ('Cache', 'Check', 'invalidation-" + run + "@bench.local') RETURNING participant_id");
+            try {
+                System.out.println("=== Targeted invalidation ===");
+                passed &= check(waitFor(() -> EventService.getDateIndex().flatMap(index -> index.get(eventId)).isPresent()),
+                    "event inserted elsewhere appears in the date index");
+                EventService.getEventById(eventId);
+                ParticipantService.getParticipantById(participantId);
+
+                long sent = System.nanoTime();
+                update(other, "UPDATE events SET event_name = 'Renamed " + run + "' WHERE event_id = " + eventId);
+                passed &= check(waitFor(() -> EventService.getEventById(eventId)
+                    .map(event -> event.eventName.equals("Renamed " + run)).orElse(false)), "cached event renamed");
+                System.out.printf("     propagated in %.1f ms%n", (System.nanoTime() - sent) / 1e6);
+
+                update(other, "UPDATE participants SET institution = 'Elsewhere " + run + "' WHERE participant_id = " + participantId);
+                passed &= check(waitFor(() -> ParticipantService.getParticipantById(participantId)
+                    .map(participant -> ("Elsewhere " + run).equals(participant.institution)).orElse(false)),
+                    "cached participant updated");
+
+                LocalDate moved = start.plusDays(40);
+                update(other, "UPDATE events SET start_date = '" + moved + "', end_date = '" + moved.plusDays(2) +
+                    "' WHERE event_id = " + eventId);
+                passed &= check(waitFor(() -> EventService.getEventsOverlapping(moved.plusDays(1), moved.plusDays(1)).stream()
+                    .anyMatch(event -> event.eventId == eventId)), "date index follows moved event");
+
+                int registrationId = insert(other, "INSERT INTO registrations (event_id, participant_id) VALUES (" +
+                    eventId + ", " + participantId + ") RETURNING registration_id");
+                passed &= check(waitFor(() -> RegistrationService.countRegistrationsForEvent(eventId) == 1),
+                    "registration index counts the new registration");
+                update(other, "UPDATE registrations SET status = 'CANCELLED' WHERE registration_id = " + registrationId);
+                passed &= check(waitFor(() -> RegistrationService.countRegistrationsForEvent(eventId) == 0),
+                    "registration index sees the cancellation");
+
+                System.out.println("\n=== Burst of " + burst + " single-row transactions ===");
+                CacheInvalidationListener.InvalidationStats before = CacheInvalidationListener.getStats().orElseThrow();
+                try (PreparedStatement stmt = other.prepareStatement("UPDATE participants SET phone = ? WHERE participant_id = ?")) {
+                    for (int i = 0; i < burst; i++) {
+                        stmt.setString(1, Integer.toString(i));
+                        stmt.setInt(2, participantId);
+                        stmt.executeUpdate();
+                    }
+                }
+                passed &= check(waitFor(() -> ParticipantService.getParticipantById(participantId)
+                    .map(participant -> Integer.toString(burst - 1).equals(participant.phone)).orElse(false)),
+                    "last write of the burst visible");
+                Thread.sleep(200);
+                CacheInvalidationListener.InvalidationStats after = CacheInvalidationListener.getStats().orElseThrow();
+                long notifications = after.notifications - before.notifications;
+                long batches = after.batches - before.batches;
+                System.out.printf("     %d notifications applied in %d batches%n", notifications, batches);
+                passed &= check(notifications == burst && batches < burst / 10, "burst coalesced");
+
+                System.out.println("\n=== Lost listener connection ===");
+                update(other, "SELECT pg_terminate_backend(pid) FROM pg_stat_activity WHERE application_name = 'cache-invalidation'");
+                waitFor(() -> !CacheInvalidationListener.getStats().orElseThrow().connected);
+                update(other, "UPDATE events SET event_name = 'Missed " + run + "' WHERE event_id = " + eventId);
+                passed &= check(waitFor(() -> CacheInvalidationListener.getStats().orElseThrow().reconnects == 1),
+                    "listener reconnected");
+                passed &= check(EventService.getEventById(eventId).map(event -> event.eventName.equals("Missed " + run)).orElse(false),
+                    "change made while disconnected picked up by the full refresh");
+                System.out.println("     " + CacheInvalidationListener.getStats().orElseThrow());
+            } finally {
+                update(other, "DELETE FROM events WHERE event_id = " + eventId);
+                update(other, "DELETE FROM participants WHERE participant_id = " + participantId);
+            }
+            passed &= check(waitFor(() -> EventService.getDateIndex().flatMap(index -> index.get(eventId)).isEmpty()
+                    && RegistrationService.getIndex().map(index -> index.getByEvent(eventId).isEmpty()).orElse(false)),
+                "deleted rows leave both indexes");
+        } finally {
+            CacheInvalidationListener.stop();
+            DatabaseConnection.shutdown();
+        }
+        System.out.println(passed ? "\nPASS" : "\nFAIL");
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+
+    private static int insert(Connection conn, String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private static void update(Connection conn, String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+
+    private static boolean waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + WAIT_MILLIS * 1_000_000L;
+        while (System.nanoTime() < deadline) {
+            if (condition.getAsBoolean()) {
+                return true;
+            }
+            Thread.sleep(5);
+        }
+        return condition.getAsBoolean();
+    }
+
+    private static boolean check(boolean condition, String description) {
+        System.out.println((condition ? "ok   " : "FAIL ") + description);
+        return condition;
+    }
+}
@@ -0,0 +1,110 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+
+public class ExportBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int attendees = BenchmarkSupport.intOption(args, "attendees", 20000);
+        Path dir = Files.createTempDirectory("export-bench");
+
+        int eventId = BenchmarkSupport.seedEvent("Export benchmark", attendees);
+        List<Integer> participantIds = new ArrayList<>();
+        try {
+            System.out.println("=== Seeding " + attendees + " attendees ===");
+            // quotes, commas, newlines and non-ASCII text exercise the CSV and JSON escaping
+            participantIds.addAll(BenchmarkSupport.seedParticipants(BenchmarkSupport.newParticipants("export", attendees,
+                (i, email) -> new ParticipantService.NewParticipant("Attendee", "Export, \"Bench\" " + i,
+                    email, "+1 555 0100", "Universit\u00e4t Z\u00fcrich", "STUDENT"))));
+            BenchmarkSupport.seedRegistrations(eventId, participantIds, "line one\nline two");
+
+            System.out.println("\n=== Roster of event " + eventId + " ===");
+            // warm-up so the JIT and the statement cache are in steady state for every variant
+            ExportService.exportEventRoster(eventId, dir.resolve("warmup.csv"), null);
+            ExportService.exportEventRoster(eventId, dir.resolve("warmup.json.gz"), null);
+            for (String name : List.of("roster.csv", "roster.csv.gz", "roster.json", "roster.json.gz")) {
+                Path file = dir.resolve(name);
+                ExportService.ExportResult result = measure(name, () -> ExportService.exportEventRoster(eventId, file, null).orElseThrow());
+                check(file, result.rows, attendees);
+            }
+            measureNaive(eventId, dir.resolve("naive.csv"), attendees);
+
+            System.out.println("\n=== Participants table ===");
+            Path participantsFile = dir.resolve("participants.csv.gz");
+            measure("participants.csv.gz", () -> ExportService.exportParticipants(participantsFile, null).orElseThrow());
+        } finally {
+            BenchmarkSupport.cleanUp(eventId, participantIds);
+            try (var files = Files.list(dir)) {
+                files.forEach(file -> file.toFile().delete());
+            }
+            Files.deleteIfExists(dir);
+            DatabaseConnection.shutdown();
+        }
+    }
+
+    private static ExportService.ExportResult measure(String name, Supplier<ExportService.ExportResult> export) {
+        long allocatedBefore = allocatedBytes();
+        ExportService.ExportResult result = export.get();
+        long allocated = allocatedBytes() - allocatedBefore;
+        System.out.printf("%-22s %8d rows %7d ms %10.0f rows/s %7.2f MB/s %10d bytes on disk %8.0f B allocated/row%n",
+            name, result.rows, result.elapsedMillis, result.rowsPerSecond(), result.megabytesPerSecond(),
+            result.fileBytes, allocated / (double) Math.max(1, result.rows));
+        return result;
+    }
+
+    // The pre-export way: load the whole roster as objects, then format a line per registration
+    private static void measureNaive(int eventId, Path file, int attendees) throws IOException {
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        List<RegistrationService.Registration> roster = RegistrationService.getRegistrationsByEvent(eventId);
+        long bytes = 0;
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (RegistrationService.Registration registration : roster) {
+                String line = registration.toString() + "\n";
+                writer.write(line);
+                bytes += line.length();
+            }
+        }
+        long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        long allocated = allocatedBytes() - allocatedBefore;
+        System.out.printf("%-22s %8d rows %7d ms %10.0f rows/s %7.2f MB/s %10d bytes on disk %8.0f B allocated/row%n",
+            "list + toString()", roster.size(), elapsedMillis, roster.size() * 1000.0 / elapsedMillis,
+            bytes / 1_048_576.0 * 1000.0 / elapsedMillis, Files.size(file), allocated / (double) Math.max(1, roster.size()));
+        if (roster.size() != attendees) {
+            throw new IllegalStateException("Expected " + attendees + " registrations, loaded " + roster.size());
+        }
+    }
+
+    // Re-reads the file: JSON must parse to one object per row, CSV must have a header plus one record per row
+    private static void check(Path file, long rows, int attendees) throws IOException {
+        if (rows != attendees) {
+            throw new IllegalStateException(file + ": expected " + attendees + " rows, wrote " + rows);
+        }
+        String content;
+        try (InputStream in = file.toString().endsWith(".gz")
+                ? new GZIPInputStream(Files.newInputStream(file)) : Files.newInputStream(file)) {
+            content = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        long parsed;
+        if (file.toString().contains(".json")) {
+            parsed = ((List<?>) Json.parse(content)).size();
+        } else {
+            // every record has exactly one embedded newline inside its quoted notes
+            parsed = content.lines().count() / 2;
+        }
+        if (parsed != attendees) {
+            throw new IllegalStateException(file + ": expected " + attendees + " records, parsed " + parsed);
+        }
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+}
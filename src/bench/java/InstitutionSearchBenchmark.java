@@ -0,0 +1,77 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.*;
+
+public class InstitutionSearchBenchmark {
+    private static final String EMAIL_DOMAIN = "@search-bench.local";
+    private static final String[] PREFIXES = { "State", "National", "Federal", "Technical", "Polytechnic", "Catholic", "Royal", "Metropolitan" };
+    private static final String[] KINDS = { "University", "Institute of Technology", "College", "Research Institute", "School of Medicine" };
+    private static final String[] PLACES = { "Amsterdam", "Berlin", "Campinas", "Delft", "Edinburgh", "Florence", "Geneva", "Helsinki",
+        "Istanbul", "Jakarta", "Kyoto", "Lisbon", "Montreal", "Nairobi", "Oslo", "Porto", "Quebec", "Recife", "Seoul", "Toronto" };
+
+    public static void main(String[] args) throws IOException {
+        int participants = BenchmarkSupport.intOption(args, "participants", 500_000);
+        int queries = BenchmarkSupport.intOption(args, "queries", 2_000);
+        int baselineQueries = BenchmarkSupport.intOption(args, "baselineQueries", 5);
+
+        Path csv = Files.createTempFile("institution-search", ".csv");
+        Path errors = Files.createTempFile("institution-search", ".errors.csv");
+        try {
+            System.out.println("Seeding " + participants + " participants...");
+            writeParticipants(csv, participants);
+            BulkImportService.importParticipants(csv, errors, null)
+                .ifPresentOrElse(System.out::println, () -> { throw new IllegalStateException("Seeding failed"); });
+            DatabaseConnection.executeWithConnection(conn -> {
+                try (Statement stmt = conn.createStatement()) {
+                    return stmt.execute("ANALYZE participants");
+                }
+            });
+
+            Random random = new Random(42);
+            List<String> keystrokes = new ArrayList<>();
+            for (int i = 0; i < queries; i++) {
+                String institution = institutionName(random.nextInt(participants));
+                int start = random.nextInt(institution.length() - 3);
+                keystrokes.add(institution.substring(start, start + 3 + random.nextInt(Math.min(8, institution.length() - start - 3) + 1)));
+            }
+
+            System.out.println("\n=== Type-ahead latency at " + participants + " participants ===");
+            BenchmarkSupport.latency("searchParticipantsByInstitution (trigram)", 100, queries, i ->
+                ParticipantService.searchParticipantsByInstitution(keystrokes.get(i), 20));
+            BenchmarkSupport.latency("getAllParticipants + contains (previous)", 1, baselineQueries, i -> {
+                String needle = keystrokes.get(i).toLowerCase();
+                ParticipantService.getAllParticipants().stream()
+                    .filter(participant -> participant.institution != null && participant.institution.toLowerCase().contains(needle))
+                    .count();
+            });
+        } finally {
+            DatabaseConnection.executeWithConnection(conn -> {
+                try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM participants WHERE email LIKE ?")) {
+                    stmt.setString(1, "%" + EMAIL_DOMAIN);
+                    return stmt.executeUpdate();
+                }
+            });
+            Files.deleteIfExists(csv);
+            Files.deleteIfExists(errors);
+            DatabaseConnection.shutdown();
+        }
+    }
+
+    private static String institutionName(int seed) {
+        return PREFIXES[seed % PREFIXES.length] + " " + KINDS[(seed / 7) % KINDS.length] + " of " + PLACES[(seed / 31) % PLACES.length];
+    }
+
+    private static void writeParticipants(Path csv, int count) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+            writer.write("first_name,last_name,email,phone,institution,participant_type\n");
+            for (int i = 0; i < count; i++) {
+                writer.write("Bench,Participant" + i + ",p" + i + EMAIL_DOMAIN + ",," + institutionName(i) + ",STUDENT\n");
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * A webhook burst of payment-status updates over a fixed set of registrations, applied once per call
+ * (updatePaymentStatus) and once through the write-behind queue. Every registration belongs to one
+ * thread, so its last submitted status is well defined and is checked against the table afterwards.
+ * Also checks backpressure on a tiny queue and that stop() writes what is still queued.
+ *
+ *   ./bench.sh PaymentQueueBenchmark --registrations=2000 --updates=20000 --threads=16
+ */
+public class PaymentQueueBenchmark {
+    private static final String[] STATUSES = { "PENDING", "PAID", "REFUNDED" };
+
+    public static void main(String[] args) throws Exception {
+        int registrations = BenchmarkSupport.intOption(args, "registrations", 2000);
+        int updates = BenchmarkSupport.intOption(args, "updates", 20000);
+        int threads = BenchmarkSupport.intOption(args, "threads", 16);
+
+        int eventId = BenchmarkSupport.seedEvent("Payment queue benchmark", registrations);
+        List<Integer> participantIds = new ArrayList<>();
+        boolean passed = true;
+        try {
+            participantIds.addAll(BenchmarkSupport.seedParticipants("payment", registrations));
+            int[] ids = BenchmarkSupport.seedRegistrations(eventId, participantIds, null).stream().mapToInt(Integer::intValue).toArray();
+
+            System.out.println("=== " + updates + " updates over " + ids.length + " registrations, " + threads + " threads ===");
+            Map<Integer, String> expected = burst("updatePaymentStatus (one transaction each)", ids, updates, threads, 1,
+                RegistrationService::updatePaymentStatus);
+            passed &= check(matches(eventId, expected), "table holds the last status of every registration");
+
+            PaymentStatusQueue.start(new PaymentStatusQueue.Config(10000, 500, 200, 1000));
+            expected = burst("submitPaymentStatus (write-behind queue)", ids, updates, threads, 2,
+                RegistrationService::submitPaymentStatus);
+            PaymentStatusQueue.QueueStats stats = PaymentStatusQueue.getActive().orElseThrow().stats();
+            System.out.println(stats);
+            System.out.printf("submit-to-written p50/p99: %.1f/%.1f ms%n",
+                stats.queuedNanos.percentile(50) / 1e6, stats.queuedNanos.percentile(99) / 1e6);
+            PaymentStatusQueue.stop();
+            passed &= check(matches(eventId, expected), "table holds the last status of every registration");
+            passed &= check(stats.written + stats.coalesced == updates, "every update written or coalesced");
+
+            System.out.println("\n=== Backpressure and shutdown flush (capacity 10) ===");
+            PaymentStatusQueue.start(new PaymentStatusQueue.Config(10, 1000, 60_000, 50));
+            PaymentStatusQueue queue = PaymentStatusQueue.getActive().orElseThrow();
+            Map<Integer, String> queued = new HashMap<>();
+            for (int i = 0; i < 10; i++) {
+                queue.submit(ids[i], "REFUNDED");
+                queued.put(ids[i], "REFUNDED");
+            }
+            passed &= check(queue.submit(ids[0], "PAID"), "update to a queued registration coalesces while full");
+            queued.put(ids[0], "PAID");
+            long start = System.nanoTime();
+            passed &= check(!queue.submit(ids[10], "PAID"), "new registration refused while full");
+            System.out.printf("     refused after %.0f ms%n", (System.nanoTime() - start) / 1e6);
+            PaymentStatusQueue.stop();
+            Map<Integer, String> current = statuses(eventId);
+            passed &= check(queued.entrySet().stream().allMatch(entry -> entry.getValue().equals(current.get(entry.getKey()))),
+                "stop() wrote the queued changes");
+        } finally {
+            PaymentStatusQueue.stop();
+            BenchmarkSupport.cleanUp(eventId, participantIds);
+            DatabaseConnection.shutdown();
+        }
+        System.out.println(passed ? "\nPASS" : "\nFAIL");
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Update {
+        boolean apply(int registrationId, String paymentStatus);
+    }
+
+    // Thread t owns the registrations with index % threads == t and records what it sent last
+    private static Map<Integer, String> burst(String name, int[] ids, int updates, int threads, long seed, Update update)
+            throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<Map<Integer, String>>> results = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            results.add(pool.submit(() -> {
+                Random random = new Random(seed * 31 + thread);
+                Map<Integer, String> last = new HashMap<>();
+                int owned = (ids.length - thread + threads - 1) / threads;
+                for (int i = thread; i < updates; i += threads) {
+                    int id = ids[thread + random.nextInt(owned) * threads];
+                    String status = STATUSES[random.nextInt(STATUSES.length)];
+                    if (!update.apply(id, status)) {
+                        throw new IllegalStateException("Update of registration " + id + " refused");
+                    }
+                    last.put(id, status);
+                }
+                return last;
+            }));
+        }
+        Map<Integer, String> expected = new HashMap<>();
+        for (Future<Map<Integer, String>> result : results) {
+            expected.putAll(result.get());
+        }
+        long submitted = System.nanoTime();
+        PaymentStatusQueue.getActive().ifPresent(queue -> queue.flush(1, TimeUnit.MINUTES));
+        long end = System.nanoTime();
+        pool.shutdown();
+        System.out.printf("%-45s %10.1f updates/s accepted, %10.1f updates/s written (%.0f ms until durable)%n", name,
+            updates * 1e9 / (submitted - start), updates * 1e9 / (end - start), (end - start) / 1e6);
+        return expected;
+    }
+
+    private static Map<Integer, String> statuses(int eventId) {
+        Map<Integer, String> statuses = new HashMap<>();
+        RegistrationService.getRegistrationsByEvent(eventId).forEach(r -> statuses.put(r.registrationId, r.paymentStatus));
+        return statuses;
+    }
+
+    private static boolean matches(int eventId, Map<Integer, String> expected) {
+        Map<Integer, String> current = statuses(eventId);
+        return expected.entrySet().stream().allMatch(entry -> entry.getValue().equals(current.get(entry.getKey())));
+    }
+
+    private static boolean check(boolean condition, String description) {
+        System.out.println((condition ? "ok   " : "FAIL ") + description);
+        return condition;
+    }
+}
@@ -0,0 +1,156 @@
+import java.lang.management.ManagementFactory;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Supplier;
+
+/*
+ * Heap per row for the registrations table held as a List<Registration> versus RegistrationColumns,
+ * on a seeded table of the requested size. Checks that the registration summary, the per-event
+ * revenue counts and a date-range count come out identical, and that the columns stay under the
+ * 24 bytes/row target. Scan times are in the JMH suite RegistrationColumnsBenchmarks.
+ *
+ *   ./bench.sh RegistrationColumnsCheck --registrations=1000000
+ */
+public class RegistrationColumnsCheck {
+    private static final String NAME_PREFIX = "Columns bench ";
+    private static final String EMAIL_DOMAIN = "@columns-bench.local";
+    private static final double TARGET_BYTES_PER_ROW = 24;
+
+    public static void main(String[] args) {
+        int registrations = BenchmarkSupport.intOption(args, "registrations", 1_000_000);
+        int events = Math.max(1, registrations / 5000);
+        int participants = (registrations + events - 1) / events;
+
+        boolean passed = true;
+        try {
+            System.out.println("Seeding " + registrations + " registrations (" + events + " events x " + participants + " participants)...");
+            seed(events, participants, registrations);
+
+            System.out.println("\n=== Heap per row ===");
+            List<RegistrationService.Registration> list = retained("List<Registration>", RegistrationService::getAllRegistrations,
+                List::size);
+            RegistrationColumns columns = retained("RegistrationColumns", () -> RegistrationService.loadColumns().orElseThrow(),
+                RegistrationColumns::size);
+            double columnBytesPerRow = columns.columnBytes() / (double) columns.size();
+            System.out.printf("%-24s %8.1f bytes/row in the arrays themselves%n", "", columnBytesPerRow);
+            passed &= check(lastBytesPerRow <= TARGET_BYTES_PER_ROW, "columns within " + TARGET_BYTES_PER_ROW + " bytes/row");
+
+            System.out.println("\n=== Results agree ===");
+            List<EventService.Event> allEvents = EventService.getAllEvents();
+            ReportEngine.RegistrationSummary fromList = ReportEngine.summarizeRegistrations(list);
+            ReportEngine.RegistrationSummary fromColumns = ReportEngine.summarizeRegistrations(columns);
+            passed &= check(fromList.totalRegistrations == fromColumns.totalRegistrations
+                    && fromList.registrationsByStatus.equals(fromColumns.registrationsByStatus)
+                    && fromList.registrationsByPaymentStatus.equals(fromColumns.registrationsByPaymentStatus),
+                "registration summary");
+            RevenueService.RevenueReport revenueFromList = RevenueService.generateRevenueReport(allEvents, list);
+            RevenueService.RevenueReport revenueFromColumns = RevenueService.generateRevenueReport(allEvents, columns);
+            passed &= check(revenueFromList.eventRevenues.size() == revenueFromColumns.eventRevenues.size()
+                    && revenueFromList.totalPaidRevenue.compareTo(revenueFromColumns.totalPaidRevenue) == 0
+                    && revenueFromList.totalPotentialRevenue.compareTo(revenueFromColumns.totalPotentialRevenue) == 0,
+                "revenue per event");
+            LocalDateTime to = LocalDateTime.now();
+            LocalDateTime from = to.minusDays(7);
+            long recentInList = list.stream()
+                .filter(registration -> !registration.registrationDate.isBefore(from) && registration.registrationDate.isBefore(to))
+                .count();
+            passed &= check(recentInList == columns.countRegisteredBetween(from, to), "registrations in the last week");
+            RegistrationService.Registration first = list.get(0);
+            int row = 0;
+            while (columns.registrationId(row) != first.registrationId) {
+                row++;
+            }
+            RegistrationService.Registration rebuilt = columns.toRegistration(row);
+            passed &= check(rebuilt.eventId == first.eventId && rebuilt.registrationDate.equals(first.registrationDate)
+                    && rebuilt.status.equals(first.status) && Objects.equals(rebuilt.notes, first.notes),
+                "row rebuilt from columns, notes loaded lazily");
+        } finally {
+            DatabaseConnection.executeWithConnection(conn -> {
+                try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM events WHERE event_name LIKE ?")) {
+                    stmt.setString(1, NAME_PREFIX + "%");
+                    stmt.executeUpdate();
+                }
+                try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM participants WHERE email LIKE ?")) {
+                    stmt.setString(1, "%" + EMAIL_DOMAIN);
+                    stmt.executeUpdate();
+                }
+                return null;
+            });
+            DatabaseConnection.shutdown();
+        }
+        System.out.println(passed ? "\nPASS" : "\nFAIL");
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+
+    // Every event gets the same block of participants; statuses, payments and dates vary by row
+    private static void seed(int events, int participants, int registrations) {
+        DatabaseConnection.executeWithConnection(conn -> {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "INSERT INTO events (event_name, start_date, end_date, max_participants, registration_fee) " +
+                    "SELECT ? || i, current_date + 30, current_date + 31, ?, 25 FROM generate_series(1, ?) AS i")) {
+                stmt.setString(1, NAME_PREFIX);
+                stmt.setInt(2, participants);
+                stmt.setInt(3, events);
+                stmt.executeUpdate();
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "INSERT INTO participants (first_name, last_name, email) " +
+                    "SELECT 'Columns', 'Bench ' || i, 'p' || i || ? FROM generate_series(1, ?) AS i")) {
+                stmt.setString(1, EMAIL_DOMAIN);
+                stmt.setInt(2, participants);
+                stmt.executeUpdate();
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "INSERT INTO registrations (event_id, participant_id, registration_date, status, payment_status, notes) " +
+                    "SELECT e.event_id, p.participant_id, now() - (n % 60) * interval '1 day' - (n % 86400) * interval '1 second', " +
+                    "(ARRAY['PENDING', 'CONFIRMED', 'CONFIRMED', 'CANCELLED'])[n % 4 + 1], " +
+                    "(ARRAY['PENDING', 'PAID', 'PAID', 'REFUNDED', 'PAID'])[n % 5 + 1], " +
+                    "CASE WHEN n % 10 = 0 THEN 'note ' || n END " +
+                    "FROM (SELECT e.event_id, p.participant_id, row_number() OVER () AS n " +
+                    "      FROM events e CROSS JOIN participants p " +
+                    "      WHERE e.event_name LIKE ? AND p.email LIKE ? LIMIT ?) x " +
+                    "JOIN events e USING (event_id) JOIN participants p USING (participant_id)")) {
+                stmt.setString(1, NAME_PREFIX + "%");
+                stmt.setString(2, "%" + EMAIL_DOMAIN);
+                stmt.setInt(3, registrations);
+                stmt.executeUpdate();
+            }
+            conn.commit();
+            conn.setAutoCommit(true);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("ANALYZE registrations");
+            }
+            return null;
+        });
+    }
+
+    private static double lastBytesPerRow;
+
+    // Heap still reachable after the load, per row, measured across full collections
+    private static <T> T retained(String name, Supplier<T> load, java.util.function.ToIntFunction<T> size) {
+        long before = usedAfterGc();
+        T value = load.get();
+        long after = usedAfterGc();
+        int rows = size.applyAsInt(value);
+        lastBytesPerRow = (after - before) / (double) Math.max(1, rows);
+        System.out.printf("%-24s %8d rows %8.1f MB %8.1f bytes/row%n", name, rows, (after - before) / 1_048_576.0, lastBytesPerRow);
+        return value;
+    }
+
+    private static long usedAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static boolean check(boolean condition, String description) {
+        System.out.println((condition ? "ok   " : "FAIL ") + description);
+        return condition;
+    }
+}
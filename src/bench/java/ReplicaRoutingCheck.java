@@ -0,0 +1,117 @@
+import java.util.*;
+
+/*
+ * Exercises read/write splitting against a primary (db.url) and one or more replicas:
+ * where reads land under each balancing policy, whether a read straight after a write sees it
+ * with and without read-your-writes, and that reads survive an unreachable replica.
+ *
+ *   ./bench.sh ReplicaRoutingCheck --replicas=jdbc:postgresql://localhost:5434/academic_events_db
+ *
+ * Two independent instances (no streaming replication) are enough for the routing and fallback
+ * checks; the read-your-writes check then simply reports every read as served by the primary.
+ */
+public class ReplicaRoutingCheck {
+    private static final String DEAD_REPLICA = "jdbc:postgresql://localhost:1/unreachable?connectTimeout=1";
+
+    public static void main(String[] args) {
+        String replicas = BenchmarkSupport.option(args, "replicas").orElseGet(() -> DatabaseConnection.loadDatabaseProperties()
+            .map(props -> props.getProperty("db.replica.urls", "")).orElse(""));
+        int reads = BenchmarkSupport.intOption(args, "reads", 500);
+        int writes = BenchmarkSupport.intOption(args, "writes", 50);
+        if (replicas.isBlank()) {
+            System.err.println("Pass --replicas=<jdbc url>[,<jdbc url>...] or set db.replica.urls");
+            System.exit(2);
+        }
+
+        boolean passed = true;
+        for (String balancing : List.of("round-robin", "least-loaded")) {
+            configure(replicas, balancing, false);
+            System.out.println("=== Routing, " + balancing + " (" + reads + " reads) ===");
+            BenchmarkSupport.time("getAllEvents", reads, () -> {
+                for (int i = 0; i < reads; i++) {
+                    EventService.getAllEvents();
+                }
+            });
+            ReplicaRouter.RouterStats stats = printStats();
+            long replicaReads = stats.replicas.stream().mapToLong(replica -> replica.reads).sum();
+            passed &= check(replicaReads == reads, "every read served by a replica");
+        }
+
+        configure(replicas, "round-robin", false);
+        System.out.println("\n=== Read after write, readYourWrites=false (" + writes + " writes) ===");
+        int stale = readAfterWrite(writes);
+        System.out.println("reads that missed the preceding write: " + stale + " (replication lag, allowed here)");
+        printStats();
+
+        configure(replicas, "round-robin", true);
+        System.out.println("\n=== Read after write, readYourWrites=true (" + writes + " writes) ===");
+        stale = readAfterWrite(writes);
+        printStats();
+        passed &= check(stale == 0, "every read saw the preceding write");
+
+        configure(replicas + "," + DEAD_REPLICA, "round-robin", false);
+        System.out.println("\n=== Fallback with an unreachable replica (" + reads + " reads) ===");
+        int empty = 0;
+        for (int i = 0; i < reads; i++) {
+            if (EventService.getAllEvents().isEmpty()) {
+                empty++;
+            }
+        }
+        ReplicaRouter.RouterStats stats = printStats();
+        passed &= check(empty == 0, "no read came back empty");
+        passed &= check(stats.replicas.stream().anyMatch(replica -> replica.url.equals(DEAD_REPLICA) && !replica.available),
+            "unreachable replica taken out of rotation");
+
+        DatabaseConnection.shutdown();
+        System.out.println(passed ? "\nPASS" : "\nFAIL");
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+
+    private static void configure(String replicas, String balancing, boolean readYourWrites) {
+        DatabaseConnection.shutdown();
+        System.setProperty("db.replica.urls", replicas);
+        System.setProperty("db.replica.balancing", balancing);
+        System.setProperty("db.replica.readYourWrites", Boolean.toString(readYourWrites));
+        DatabaseConnection.getPool();
+    }
+
+    // Each write gets a unique institution, so the filtered read either finds it or not
+    private static int readAfterWrite(int writes) {
+        String run = Long.toString(System.nanoTime(), 36);
+        int stale = 0;
+        List<Integer> created = new ArrayList<>();
+        try {
+            for (int i = 0; i < writes; i++) {
+                String institution = "replica-check-" + run + "-" + i;
+                Optional<Integer> id = ParticipantService.createParticipant("Replica", "Check",
+                    institution + "@example.org", null, institution, "STUDENT");
+                if (id.isEmpty()) {
+                    throw new IllegalStateException("Could not create participant on the primary");
+                }
+                created.add(id.get());
+                if (ParticipantService.getParticipantsByInstitution(institution).isEmpty()) {
+                    stale++;
+                }
+            }
+        } finally {
+            created.forEach(ParticipantService::deleteParticipant);
+        }
+        return stale;
+    }
+
+    private static ReplicaRouter.RouterStats printStats() {
+        ReplicaRouter.RouterStats stats = DatabaseConnection.getReplicaStats()
+            .orElseThrow(() -> new IllegalStateException("Replica routing is not active"));
+        stats.replicas.forEach(replica -> System.out.printf("  %-70s %-5s reads=%6d failures=%3d%n",
+            replica.url, replica.available ? "up" : "down", replica.reads, replica.failures));
+        System.out.printf("  primary reads=%d (replica behind the last write: %d)%n", stats.primaryReads, stats.staleFallbacks);
+        return stats;
+    }
+
+    private static boolean check(boolean condition, String description) {
+        System.out.println((condition ? "ok   " : "FAIL ") + description);
+        return condition;
+    }
+}
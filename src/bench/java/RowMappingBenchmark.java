@@ -0,0 +1,68 @@
+import java.sql.*;
+import java.util.*;
+
+/*
+ * Statement cache comparison: point lookups through the pool with and without cached prepared
+ * statements. The mapping cost itself is measured by RowMappingBenchmarks in the JMH module.
+ */
+public class RowMappingBenchmark {
+    public static void main(String[] args) throws SQLException {
+        int rows = BenchmarkSupport.intOption(args, "rows", 20_000);
+        int lookups = BenchmarkSupport.intOption(args, "lookups", 5_000);
+
+        List<Integer> participantIds = BenchmarkSupport.seedParticipants("mapping", rows);
+        if (participantIds.isEmpty()) {
+            throw new IllegalStateException("Seeding failed");
+        }
+
+        try {
+            System.out.println("=== Point lookups through the pool (" + lookups + " borrows) ===");
+            Properties props = DatabaseConnection.loadDatabaseProperties()
+                .orElseThrow(() -> new IllegalStateException("application.properties not found"));
+            BenchmarkSupport.Result uncached = lookups(props, "0", participantIds, lookups);
+            BenchmarkSupport.Result cached = lookups(props, "64", participantIds, lookups);
+            BenchmarkSupport.speedup(uncached, cached);
+        } finally {
+            DatabaseConnection.executeWithConnection(conn -> {
+                try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM participants WHERE email LIKE ?")) {
+                    stmt.setString(1, "mapping-" + BenchmarkSupport.RUN_ID + "-%");
+                    return stmt.executeUpdate();
+                }
+            });
+            DatabaseConnection.shutdown();
+        }
+    }
+
+    private static BenchmarkSupport.Result lookups(Properties base, String statementCacheSize,
+                                                   List<Integer> participantIds, int lookups) {
+        Properties props = new Properties();
+        props.putAll(base);
+        props.setProperty("db.pool.statementCacheSize", statementCacheSize);
+        ConnectionPool pool = new ConnectionPool(ConnectionPool.PoolConfig.fromProperties(props));
+        pool.prewarm();
+        Random random = new Random(7);
+        try {
+            Runnable lookup = () -> {
+                try (Connection conn = pool.borrow().orElseThrow();
+                     PreparedStatement stmt = conn.prepareStatement("SELECT * FROM participants WHERE participant_id = ?")) {
+                    stmt.setInt(1, participantIds.get(random.nextInt(participantIds.size())));
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        rs.next();
+                    }
+                } catch (SQLException e) {
+                    throw new RuntimeException(e);
+                }
+            };
+            for (int i = 0; i < 500; i++) {
+                lookup.run();
+            }
+            return BenchmarkSupport.time("lookup, statementCacheSize=" + statementCacheSize, lookups, () -> {
+                for (int i = 0; i < lookups; i++) {
+                    lookup.run();
+                }
+            });
+        } finally {
+            pool.close();
+        }
+    }
+}
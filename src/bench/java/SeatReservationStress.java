@@ -0,0 +1,63 @@
+import java.util.*;
+import java.util.concurrent.*;
+
+public class SeatReservationStress {
+
+    public static void main(String[] args) throws InterruptedException {
+        int requests = BenchmarkSupport.intOption(args, "requests", 1000);
+        int seats = BenchmarkSupport.intOption(args, "seats", 25);
+        int threads = BenchmarkSupport.intOption(args, "threads", 64);
+
+        int eventId = BenchmarkSupport.seedEvent("Seat stress", seats);
+
+        List<Integer> participantIds = new ArrayList<>();
+        boolean passed = false;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            participantIds.addAll(BenchmarkSupport.seedParticipants("seat", requests));
+            if (participantIds.size() != requests) {
+                throw new IllegalStateException("Created " + participantIds.size() + " of " + requests + " participants");
+            }
+
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<RegistrationService.ReservationResult>> futures = new ArrayList<>();
+            for (int participantId : participantIds) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return RegistrationService.reserveSeat(eventId, participantId, null);
+                }));
+            }
+
+            long started = System.nanoTime();
+            start.countDown();
+            Map<RegistrationService.ReservationOutcome, Integer> outcomes = new EnumMap<>(RegistrationService.ReservationOutcome.class);
+            for (Future<RegistrationService.ReservationResult> future : futures) {
+                try {
+                    outcomes.merge(future.get().outcome, 1, Integer::sum);
+                } catch (ExecutionException e) {
+                    outcomes.merge(RegistrationService.ReservationOutcome.FAILED, 1, Integer::sum);
+                }
+            }
+            long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+            long stored = RegistrationService.countRegistrations(RegistrationService.filter().event(eventId).status("CONFIRMED"));
+            int confirmed = outcomes.getOrDefault(RegistrationService.ReservationOutcome.CONFIRMED, 0);
+            int full = outcomes.getOrDefault(RegistrationService.ReservationOutcome.FULL, 0);
+
+            System.out.println("=== Seat reservation stress (" + requests + " requests, " + seats + " seats, " + threads + " threads) ===");
+            outcomes.forEach((outcome, count) -> System.out.printf("%-20s %d%n", outcome, count));
+            System.out.printf("%-20s %d%n", "stored CONFIRMED", stored);
+            System.out.printf("%-20s %d ms%n", "elapsed", elapsedMillis);
+
+            int expected = Math.min(seats, requests);
+            passed = confirmed == expected && stored == expected && confirmed + full == requests;
+            System.out.println(passed ? "PASS: exactly " + expected + " seats confirmed"
+                : "FAIL: expected " + expected + " confirmations and " + (requests - expected) + " FULL results");
+        } finally {
+            executor.shutdownNow();
+            BenchmarkSupport.cleanUp(eventId, participantIds);
+            DatabaseConnection.shutdown();
+        }
+        System.exit(passed ? 0 : 1);
+    }
+}
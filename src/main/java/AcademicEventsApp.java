@@ -1,18 +1,28 @@
 import java.math.BigDecimal;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 public class AcademicEventsApp {
     private static final Scanner scanner = new Scanner(System.in);
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final int PAGE_SIZE = 20;
     
     public static void main(String[] args) {
+        if (Arrays.asList(args).contains("--server")) {
+            ApiServer.main(args);
+            return;
+        }
+        
         System.out.println("=== Academic Events Management System ===");
         System.out.println("Functional and Declarative");
         System.out.println();
@@ -22,6 +32,19 @@ public class AcademicEventsApp {
             return;
         }
         
+        if (RegistrationService.enableIndexIfConfigured()) {
+            System.out.println("[+] In-memory registration index loaded.");
+        }
+        if (EventService.enableDateIndexIfConfigured()) {
+            System.out.println("[+] In-memory event date index loaded.");
+        }
+        if (CacheInvalidationListener.startIfConfigured()) {
+            System.out.println("[+] Listening for cache invalidations from other nodes.");
+        }
+        if (PaymentStatusQueue.startIfConfigured()) {
+            System.out.println("[+] Payment status updates are queued and written in batches.");
+        }
+        
         runApplicationLoop();
     }
     
@@ -54,6 +77,9 @@ public class AcademicEventsApp {
                 case 4 -> handleReports();
                 case 5 -> {
                     System.out.println("Thank you for using Academic Events Management System!");
+                    PaymentStatusQueue.stop();
+                    CacheInvalidationListener.stop();
+                    DatabaseConnection.shutdown();
                     running = false;
                 }
                 default -> System.out.println("Invalid choice. Please try again.");
@@ -98,10 +124,12 @@ public class AcademicEventsApp {
         System.out.println("1. View All Participants");
         System.out.println("2. Search Participant by Email");
         System.out.println("3. View Participants by Type");
-        System.out.println("4. Create New Participant");
-        System.out.println("5. Update Participant");
-        System.out.println("6. Delete Participant");
-        System.out.println("7. Back to Main Menu");
+        System.out.println("4. Search Participants by Institution");
+        System.out.println("5. Create New Participant");
+        System.out.println("6. Update Participant");
+        System.out.println("7. Delete Participant");
+        System.out.println("8. Bulk Import Participants (CSV)");
+        System.out.println("9. Back to Main Menu");
         
         int choice = getIntInput("Enter your choice: ");
         
@@ -109,10 +137,12 @@ public class AcademicEventsApp {
             case 1 -> viewAllParticipants();
             case 2 -> searchParticipantByEmail();
             case 3 -> viewParticipantsByType();
-            case 4 -> createNewParticipant();
-            case 5 -> updateParticipant();
-            case 6 -> deleteParticipant();
-            case 7 -> { /* Return to main menu */ }
+            case 4 -> searchParticipantsByInstitution();
+            case 5 -> createNewParticipant();
+            case 6 -> updateParticipant();
+            case 7 -> deleteParticipant();
+            case 8 -> bulkImportParticipants();
+            case 9 -> { /* Return to main menu */ }
             default -> System.out.println("Invalid choice.");
         }
     }
@@ -126,7 +156,8 @@ public class AcademicEventsApp {
         System.out.println("5. Update Registration Status");
         System.out.println("6. Update Payment Status");
         System.out.println("7. Cancel Registration");
-        System.out.println("8. Back to Main Menu");
+        System.out.println("8. Bulk Import Registrations (CSV)");
+        System.out.println("9. Back to Main Menu");
         
         int choice = getIntInput("Enter your choice: ");
         
@@ -138,7 +169,8 @@ public class AcademicEventsApp {
             case 5 -> updateRegistrationStatus();
             case 6 -> updatePaymentStatus();
             case 7 -> cancelRegistration();
-            case 8 -> { /* Return to main menu */ }
+            case 8 -> bulkImportRegistrations();
+            case 9 -> { /* Return to main menu */ }
             default -> System.out.println("Invalid choice.");
         }
     }
@@ -149,7 +181,13 @@ public class AcademicEventsApp {
         System.out.println("2. Participant Summary Report");
         System.out.println("3. Registration Summary Report");
         System.out.println("4. Revenue Report");
-        System.out.println("5. Back to Main Menu");
+        System.out.println("5. Full Dashboard");
+        System.out.println("6. Connection Pool Status");
+        System.out.println("7. Cache Statistics");
+        System.out.println("8. Verify Registration Counters");
+        System.out.println("9. Diagnostics");
+        System.out.println("10. Export Data (CSV/JSON)");
+        System.out.println("11. Back to Main Menu");
         
         int choice = getIntInput("Enter your choice: ");
         
@@ -158,20 +196,20 @@ public class AcademicEventsApp {
             case 2 -> generateParticipantSummaryReport();
             case 3 -> generateRegistrationSummaryReport();
             case 4 -> generateRevenueReport();
-            case 5 -> { /* Return to main menu */ }
+            case 5 -> generateFullDashboard();
+            case 6 -> showConnectionPoolStatus();
+            case 7 -> showCacheStatistics();
+            case 8 -> verifyRegistrationStats();
+            case 9 -> showDiagnostics();
+            case 10 -> exportData();
+            case 11 -> { /* Return to main menu */ }
             default -> System.out.println("Invalid choice.");
         }
     }
     
     public static void viewAllEvents() {
         System.out.println("\n=== All Events ===");
-        List<EventService.Event> events = EventService.getAllEvents();
-        
-        if (events.isEmpty()) {
-            System.out.println("No events found.");
-        } else {
-            events.forEach(System.out::println);
-        }
+        browsePages("No events found.", EventService::getEventsAfter, EventService::getEventsBefore);
     }
     
     public static void viewUpcomingEvents() {
@@ -242,13 +280,7 @@ public class AcademicEventsApp {
     
     public static void viewAllParticipants() {
         System.out.println("\n=== All Participants ===");
-        List<ParticipantService.Participant> participants = ParticipantService.getAllParticipants();
-        
-        if (participants.isEmpty()) {
-            System.out.println("No participants found.");
-        } else {
-            participants.forEach(System.out::println);
-        }
+        browsePages("No participants found.", ParticipantService::getParticipantsAfter, ParticipantService::getParticipantsBefore);
     }
     
     public static void searchParticipantByEmail() {
@@ -277,6 +309,19 @@ public class AcademicEventsApp {
         }
     }
     
+    public static void searchParticipantsByInstitution() {
+        System.out.println("\n=== Search Participants by Institution ===");
+        
+        String query = getStringInput("Institution contains: ");
+        List<ParticipantService.Participant> participants = ParticipantService.searchParticipantsByInstitution(query, PAGE_SIZE);
+        
+        if (participants.isEmpty()) {
+            System.out.println("No participants found for institution: " + query);
+        } else {
+            participants.forEach(System.out::println);
+        }
+    }
+    
     public static void createNewParticipant() {
         System.out.println("\n=== Create New Participant ===");
         
@@ -333,23 +378,32 @@ public class AcademicEventsApp {
         }
     }
     
+    public static void bulkImportParticipants() {
+        System.out.println("\n=== Bulk Import Participants ===");
+        System.out.println("Expected CSV header: first_name,last_name,email,phone,institution,participant_type");
+        
+        Path csvFile = Path.of(getStringInput("CSV file path: "));
+        Path errorFile = Path.of(getStringInput("Error file path: "));
+        
+        printImportResult(BulkImportService.importParticipants(csvFile, errorFile, AcademicEventsApp::printImportProgress), errorFile);
+    }
+    
     public static void viewAllRegistrations() {
         System.out.println("\n=== All Registrations ===");
-        List<RegistrationService.Registration> registrations = RegistrationService.getAllRegistrations();
-        
-        if (registrations.isEmpty()) {
-            System.out.println("No registrations found.");
-        } else {
-            registrations.forEach(System.out::println);
-        }
+        browsePages("No registrations found.", RegistrationService::getRegistrationsAfter, RegistrationService::getRegistrationsBefore);
     }
     
     public static void viewRegistrationsByEvent() {
         System.out.println("\n=== Registrations by Event ===");
         
         int eventId = getIntInput("Event ID: ");
-        List<RegistrationService.Registration> registrations = RegistrationService.getRegistrationsByEvent(eventId);
+        CompletableFuture<Optional<EventService.Event>> event = AsyncEventService.getEventById(eventId);
+        CompletableFuture<List<RegistrationService.Registration>> pending = AsyncRegistrationService.getRegistrationsByEvent(eventId);
         
+        event.join().ifPresent(found -> 
+            System.out.println("Event: " + found.eventName + " (max participants: " + found.maxParticipants + ")")
+        );
+        List<RegistrationService.Registration> registrations = pending.join();
         if (registrations.isEmpty()) {
             System.out.println("No registrations found for event ID: " + eventId);
         } else {
@@ -362,8 +416,13 @@ public class AcademicEventsApp {
         System.out.println("\n=== Registrations by Participant ===");
         
         int participantId = getIntInput("Participant ID: ");
-        List<RegistrationService.Registration> registrations = RegistrationService.getRegistrationsByParticipant(participantId);
+        CompletableFuture<Optional<ParticipantService.Participant>> participant = AsyncParticipantService.getParticipantById(participantId);
+        CompletableFuture<List<RegistrationService.Registration>> pending = AsyncRegistrationService.getRegistrationsByParticipant(participantId);
         
+        participant.join().ifPresent(found -> 
+            System.out.println("Participant: " + found.firstName + " " + found.lastName + " <" + found.email + ">")
+        );
+        List<RegistrationService.Registration> registrations = pending.join();
         if (registrations.isEmpty()) {
             System.out.println("No registrations found for participant ID: " + participantId);
         } else {
@@ -379,16 +438,54 @@ public class AcademicEventsApp {
         int participantId = getIntInput("Participant ID: ");
         String notes = getStringInput("Notes (optional): ");
         
-        long currentRegistrations = RegistrationService.countRegistrationsForEvent(eventId);
-        System.out.println("Current registrations for this event: " + currentRegistrations);
+        EventService.getEventById(eventId).ifPresent(event -> 
+            System.out.println("Event: " + event.eventName + " (max participants: " + event.maxParticipants + ")")
+        );
         
-        Optional<Integer> registrationId = RegistrationService.createRegistration(eventId, participantId, notes);
+        RegistrationService.ReservationResult result = RegistrationService.reserveSeat(eventId, participantId, notes);
+        
+        switch (result.outcome) {
+            case CONFIRMED -> System.out.println("Registration created successfully with ID: " + result.registrationId + 
+                " (" + result.confirmedRegistrations + " of " + 
+                (result.maxParticipants != null ? result.maxParticipants : "unlimited") + " seats taken)");
+            case FULL -> System.out.println("Event is full: " + result.confirmedRegistrations + " of " + 
+                result.maxParticipants + " seats are already taken.");
+            case ALREADY_REGISTERED -> System.out.println("Participant is already registered for this event.");
+            case EVENT_NOT_FOUND -> System.out.println("Event not found: " + eventId);
+            case PARTICIPANT_NOT_FOUND -> System.out.println("Participant not found: " + participantId);
+            default -> System.out.println("Failed to create registration.");
+        }
+    }
+    
+    public static void bulkImportRegistrations() {
+        System.out.println("\n=== Bulk Import Registrations ===");
+        System.out.println("Expected CSV header: event_id,participant_email,status,payment_status,notes");
         
-        if (registrationId.isPresent()) {
-            System.out.println("Registration created successfully with ID: " + registrationId.get());
-        } else {
-            System.out.println("Failed to create registration. Check if participant is already registered for this event.");
+        Path csvFile = Path.of(getStringInput("CSV file path: "));
+        Path errorFile = Path.of(getStringInput("Error file path: "));
+        
+        printImportResult(BulkImportService.importRegistrations(csvFile, errorFile, AcademicEventsApp::printImportProgress), errorFile);
+    }
+    
+    public static void printImportProgress(long rowsRead, long bytesRead, long elapsedNanos) {
+        double seconds = Math.max(elapsedNanos, 1) / 1_000_000_000.0;
+        System.out.printf("... %d rows streamed (%.0f rows/s, %.2f MB/s)%n",
+            rowsRead, rowsRead / seconds, bytesRead / 1_048_576.0 / seconds);
+    }
+    
+    public static void printImportResult(Optional<BulkImportService.ImportResult> result, Path errorFile) {
+        if (result.isEmpty()) {
+            System.out.println("Import failed. No rows were written.");
+            return;
         }
+        
+        BulkImportService.ImportResult importResult = result.get();
+        System.out.println("Rows read: " + importResult.rowsRead);
+        System.out.println("Inserted: " + importResult.inserted);
+        System.out.println("Updated: " + importResult.updated);
+        System.out.println("Rejected: " + importResult.rejected + (importResult.rejected > 0 ? " (see " + errorFile + ")" : ""));
+        System.out.printf("Elapsed: %d ms (%.0f rows/s, %.2f MB/s)%n",
+            importResult.elapsedMillis, importResult.rowsPerSecond(), importResult.megabytesPerSecond());
     }
     
     public static void updateRegistrationStatus() {
@@ -397,7 +494,16 @@ public class AcademicEventsApp {
         int registrationId = getIntInput("Registration ID: ");
         String status = getStringInput("New Status (PENDING/CONFIRMED/CANCELLED): ");
         
-        if (RegistrationService.updateRegistrationStatus(registrationId, status)) {
+        if ("CONFIRMED".equals(status)) {
+            RegistrationService.ReservationResult result = RegistrationService.confirmRegistration(registrationId);
+            switch (result.outcome) {
+                case CONFIRMED -> System.out.println("Registration status updated successfully.");
+                case FULL -> System.out.println("Event is full: " + result.confirmedRegistrations + " of " + 
+                    result.maxParticipants + " seats are already taken.");
+                case REGISTRATION_NOT_FOUND -> System.out.println("Registration not found: " + registrationId);
+                default -> System.out.println("Failed to update registration status.");
+            }
+        } else if (RegistrationService.updateRegistrationStatus(registrationId, status)) {
             System.out.println("Registration status updated successfully.");
         } else {
             System.out.println("Failed to update registration status.");
@@ -435,111 +541,299 @@ public class AcademicEventsApp {
     }
     
     public static void generateEventSummaryReport() {
-        System.out.println("\n=== Event Summary Report ===");
+        printEventSummary(ReportEngine.summarizeEvents(EventService.getAllEvents()));
+    }
+    
+    public static void generateParticipantSummaryReport() {
+        printParticipantSummary(ReportEngine.summarizeParticipants(ParticipantService.getAllParticipants()));
+    }
+    
+    public static void generateRegistrationSummaryReport() {
+        Optional<ReportEngine.RegistrationSummary> summary = ReportEngine.loadRegistrationSummary();
         
-        List<EventService.Event> allEvents = EventService.getAllEvents();
-        List<EventService.Event> upcomingEvents = EventService.getUpcomingEvents();
+        if (summary.isEmpty()) {
+            System.out.println("\n=== Registration Summary Report ===");
+            System.out.println("Unable to generate registration summary.");
+            return;
+        }
         
-        System.out.println("Total Events: " + allEvents.size());
-        System.out.println("Upcoming Events: " + upcomingEvents.size());
+        printRegistrationSummary(summary.get());
+    }
+    
+    public static void generateRevenueReport() {
+        Optional<RevenueService.RevenueReport> report = RevenueService.generateRevenueReport();
         
-        allEvents.stream()
-            .collect(java.util.stream.Collectors.groupingBy(event -> event.status))
-            .forEach((status, events) -> 
-                System.out.println("Events with status '" + status + "': " + events.size())
-            );
+        if (report.isEmpty()) {
+            System.out.println("\n=== Revenue Report ===");
+            System.out.println("Unable to generate revenue report.");
+            return;
+        }
+        
+        printRevenueReport(report.get());
+    }
+    
+    public static void generateFullDashboard() {
+        Optional<ReportEngine.Dashboard> dashboard = ReportEngine.generateDashboard();
+        
+        if (dashboard.isEmpty()) {
+            System.out.println("\n=== Full Dashboard ===");
+            System.out.println("Unable to load a consistent snapshot for the dashboard.");
+            return;
+        }
+        
+        printEventSummary(dashboard.get().eventSummary);
+        printParticipantSummary(dashboard.get().participantSummary);
+        printRegistrationSummary(dashboard.get().registrationSummary);
+        printRevenueReport(dashboard.get().revenueReport);
+    }
+    
+    public static void printEventSummary(ReportEngine.EventSummary summary) {
+        System.out.println("\n=== Event Summary Report ===");
         
-        if (!upcomingEvents.isEmpty()) {
+        System.out.println("Total Events: " + summary.totalEvents);
+        System.out.println("Upcoming Events: " + summary.upcomingEvents.size());
+        
+        summary.eventsByStatus.forEach((status, count) -> 
+            System.out.println("Events with status '" + status + "': " + count)
+        );
+        
+        if (!summary.upcomingEvents.isEmpty()) {
             System.out.println("\nUpcoming Events:");
-            upcomingEvents.forEach(event -> 
+            summary.upcomingEvents.forEach(event -> 
                 System.out.println("- " + event.eventName + " (" + event.startDate + ")")
             );
         }
     }
     
-    public static void generateParticipantSummaryReport() {
+    public static void printParticipantSummary(ReportEngine.ParticipantSummary summary) {
         System.out.println("\n=== Participant Summary Report ===");
         
-        List<ParticipantService.Participant> allParticipants = ParticipantService.getAllParticipants();
-        System.out.println("Total Participants: " + allParticipants.size());
+        System.out.println("Total Participants: " + summary.totalParticipants);
         
-        allParticipants.stream()
-            .collect(java.util.stream.Collectors.groupingBy(participant -> participant.participantType))
-            .forEach((type, participants) -> 
-                System.out.println("Participants of type '" + type + "': " + participants.size())
-            );
+        summary.participantsByType.forEach((type, count) -> 
+            System.out.println("Participants of type '" + type + "': " + count)
+        );
         
-        allParticipants.stream()
-            .filter(participant -> participant.institution != null && !participant.institution.isEmpty())
-            .collect(java.util.stream.Collectors.groupingBy(participant -> participant.institution))
-            .entrySet().stream()
-            .sorted((entry1, entry2) -> Integer.compare(entry2.getValue().size(), entry1.getValue().size()))
-            .limit(5)
-            .forEach(entry -> 
-                System.out.println("Institution '" + entry.getKey() + "': " + entry.getValue().size() + " participants")
-            );
+        summary.topInstitutions.forEach((institution, count) -> 
+            System.out.println("Institution '" + institution + "': " + count + " participants")
+        );
     }
     
-    public static void generateRegistrationSummaryReport() {
+    public static void printRegistrationSummary(ReportEngine.RegistrationSummary summary) {
         System.out.println("\n=== Registration Summary Report ===");
         
-        List<RegistrationService.Registration> allRegistrations = RegistrationService.getAllRegistrations();
-        List<RegistrationService.Registration> confirmedRegistrations = RegistrationService.getConfirmedRegistrations();
-        
-        System.out.println("Total Registrations: " + allRegistrations.size());
-        System.out.println("Confirmed Registrations: " + confirmedRegistrations.size());
+        System.out.println("Total Registrations: " + summary.totalRegistrations);
+        System.out.println("Confirmed Registrations: " + summary.confirmedRegistrations);
         
-        allRegistrations.stream()
-            .collect(java.util.stream.Collectors.groupingBy(registration -> registration.status))
-            .forEach((status, registrations) -> 
-                System.out.println("Registrations with status '" + status + "': " + registrations.size())
-            );
+        summary.registrationsByStatus.forEach((status, count) -> 
+            System.out.println("Registrations with status '" + status + "': " + count)
+        );
         
-        allRegistrations.stream()
-            .collect(java.util.stream.Collectors.groupingBy(registration -> registration.paymentStatus))
-            .forEach((paymentStatus, registrations) -> 
-                System.out.println("Registrations with payment status '" + paymentStatus + "': " + registrations.size())
-            );
+        summary.registrationsByPaymentStatus.forEach((paymentStatus, count) -> 
+            System.out.println("Registrations with payment status '" + paymentStatus + "': " + count)
+        );
     }
     
-    public static void generateRevenueReport() {
+    public static void printRevenueReport(RevenueService.RevenueReport report) {
         System.out.println("\n=== Revenue Report ===");
         
-        List<EventService.Event> allEvents = EventService.getAllEvents();
-        List<RegistrationService.Registration> allRegistrations = RegistrationService.getAllRegistrations();
+        System.out.println("Total Potential Revenue: $" + report.totalPotentialRevenue);
+        System.out.println("Revenue from Paid Registrations: $" + report.totalPaidRevenue);
         
-        BigDecimal totalPotentialRevenue = allEvents.stream()
-            .map(event -> {
-                long registrations = RegistrationService.countRegistrationsForEvent(event.eventId);
-                return event.registrationFee.multiply(BigDecimal.valueOf(registrations));
-            })
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        System.out.println("Total Potential Revenue: $" + totalPotentialRevenue);
-        
-        BigDecimal paidRevenue = allRegistrations.stream()
-            .filter(registration -> "PAID".equals(registration.paymentStatus))
-            .map(registration -> {
-                return allEvents.stream()
-                    .filter(event -> event.eventId == registration.eventId)
-                    .findFirst()
-                    .map(event -> event.registrationFee)
-                    .orElse(BigDecimal.ZERO);
-            })
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        System.out.println("\nRevenue by Event:");
+        report.eventRevenues.forEach(revenue -> 
+            System.out.println("- " + revenue.eventName + ": $" + revenue.paidRevenue)
+        );
+    }
+    
+    public static void showConnectionPoolStatus() {
+        System.out.println("\n=== Connection Pool Status ===");
         
-        System.out.println("Revenue from Paid Registrations: $" + paidRevenue);
+        DatabaseConnection.getPoolStats()
+            .ifPresentOrElse(stats -> {
+                System.out.println("Active Connections: " + stats.active);
+                System.out.println("Idle Connections: " + stats.idle);
+                System.out.println("Waiting Callers: " + stats.waiting);
+                System.out.println("Open Connections: " + stats.total + " / " + stats.maxSize);
+                System.out.println("Connections Acquired: " + stats.acquired);
+                System.out.println("Acquire Timeouts: " + stats.timeouts);
+                System.out.printf("Average Acquire Time: %.3f ms%n", stats.averageAcquireMillis);
+            }, () -> System.out.println("Connection pool is not initialized."));
+    }
+    
+    public static void showDiagnostics() {
+        System.out.println("\n=== Diagnostics ===");
         
-        System.out.println("\nRevenue by Event:");
-        allEvents.forEach(event -> {
-            long paidRegistrations = allRegistrations.stream()
-                .filter(registration -> registration.eventId == event.eventId)
-                .filter(registration -> "PAID".equals(registration.paymentStatus))
-                .count();
-            
-            BigDecimal eventRevenue = event.registrationFee.multiply(BigDecimal.valueOf(paidRegistrations));
-            System.out.println("- " + event.eventName + ": $" + eventRevenue);
+        if (!QueryMetrics.isEnabled()) {
+            System.out.println("Query metrics are disabled (metrics.enabled=false).");
+            return;
+        }
+        List<QueryMetrics.Operation> operations = QueryMetrics.getOperations();
+        if (operations.isEmpty()) {
+            System.out.println("No database operations recorded yet.");
+            return;
+        }
+        
+        System.out.printf("%-48s %8s %26s %26s %18s %7s%n", "Operation", "Calls",
+            "Acquire p50/p95/p99 (ms)", "Execute p50/p95/p99 (ms)", "Rows p50/p95/p99", "Errors");
+        operations.forEach(operation -> System.out.printf("%-48s %8d %8.3f %8.3f %8.3f %8.3f %8.3f %8.3f %6d %5d %5d %7d%n",
+            operation.name, operation.executeNanos.count(),
+            operation.acquireNanos.percentile(50) / 1e6, operation.acquireNanos.percentile(95) / 1e6,
+            operation.acquireNanos.percentile(99) / 1e6,
+            operation.executeNanos.percentile(50) / 1e6, operation.executeNanos.percentile(95) / 1e6,
+            operation.executeNanos.percentile(99) / 1e6,
+            operation.rows.percentile(50), operation.rows.percentile(95), operation.rows.percentile(99),
+            operation.errors() + operation.acquireFailures()));
+        
+        operations.stream()
+            .filter(operation -> operation.errors() + operation.acquireFailures() > 0)
+            .forEach(operation -> System.out.println("Errors in " + operation.name + ": " + operation.errorsBySqlState() +
+                (operation.acquireFailures() > 0 ? " acquire failures=" + operation.acquireFailures() : "")));
+        
+        DatabaseConnection.getSlowQueryStats().ifPresent(stats -> System.out.printf(
+            "Slow queries logged: %d (dropped %d, plan capture failures %d)%n",
+            stats.logged, stats.dropped, stats.explainFailures));
+        DatabaseConnection.getReplicaStats().ifPresent(stats -> {
+            stats.replicas.forEach(replica -> System.out.printf("Replica %s: %s, %d reads, %d failed borrows%n",
+                replica.url, replica.available ? "up" : "down", replica.reads, replica.failures));
+            System.out.printf("Reads on the primary: %d (replicas behind the last write: %d)%n",
+                stats.primaryReads, stats.staleFallbacks);
         });
+        CacheInvalidationListener.getStats().ifPresent(stats -> System.out.printf(
+            "Cache invalidation: %s, %d notifications in %d batches, %d rows refreshed, %d full refreshes, %d reconnects%n",
+            stats.connected ? "listening" : "disconnected", stats.notifications, stats.batches,
+            stats.refreshedRows, stats.fullRefreshes, stats.reconnects));
+        PaymentStatusQueue.getActive().map(PaymentStatusQueue::stats).ifPresent(stats -> System.out.printf(
+            "Payment status queue: %d pending, %d submitted (%d coalesced, %d rejected), %d written in %d batches " +
+                "(size p50/p99 %d/%d), flush p50/p99 %.2f/%.2f ms, %d failed flushes%n",
+            stats.pending, stats.submitted, stats.coalesced, stats.rejected, stats.written, stats.batchSizes.count(),
+            stats.batchSizes.percentile(50), stats.batchSizes.percentile(99),
+            stats.flushNanos.percentile(50) / 1e6, stats.flushNanos.percentile(99) / 1e6, stats.failedFlushes));
+        
+        String file = getStringInput("\nWrite a Prometheus text dump to file (blank to skip): ");
+        if (!file.isBlank()) {
+            try {
+                java.nio.file.Files.writeString(Path.of(file), QueryMetrics.toPrometheusText());
+                System.out.println("Metrics written to " + file);
+            } catch (java.io.IOException e) {
+                System.out.println("Could not write metrics: " + e.getMessage());
+            }
+        }
+    }
+    
+    public static void exportData() {
+        System.out.println("\n=== Export Data ===");
+        System.out.println("1. Events");
+        System.out.println("2. Participants");
+        System.out.println("3. Registrations");
+        System.out.println("4. Event Roster");
+        System.out.println("5. Event Summary Report");
+        System.out.println("6. Participant Summary Report");
+        System.out.println("7. Registration Summary Report");
+        System.out.println("8. Revenue Report");
+        
+        int choice = getIntInput("Enter your choice: ");
+        if (choice < 1 || choice > 8) {
+            System.out.println("Invalid choice.");
+            return;
+        }
+        int eventId = choice == 4 ? getIntInput("Event ID: ") : 0;
+        Path file = Path.of(getStringInput("Output file (.csv or .json, add .gz to compress): "));
+        
+        Optional<ExportService.ExportResult> result = switch (choice) {
+            case 1 -> ExportService.exportEvents(file, AcademicEventsApp::printImportProgress);
+            case 2 -> ExportService.exportParticipants(file, AcademicEventsApp::printImportProgress);
+            case 3 -> ExportService.exportRegistrations(file, AcademicEventsApp::printImportProgress);
+            case 4 -> ExportService.exportEventRoster(eventId, file, AcademicEventsApp::printImportProgress);
+            case 5 -> ExportService.exportReport(ExportService.Report.EVENT_SUMMARY, file);
+            case 6 -> ExportService.exportReport(ExportService.Report.PARTICIPANT_SUMMARY, file);
+            case 7 -> ExportService.exportReport(ExportService.Report.REGISTRATION_SUMMARY, file);
+            default -> ExportService.exportReport(ExportService.Report.REVENUE, file);
+        };
+        
+        if (result.isEmpty()) {
+            System.out.println("Export failed.");
+            return;
+        }
+        ExportService.ExportResult exported = result.get();
+        System.out.println("Rows written: " + exported.rows + " to " + exported.file + " (" + exported.fileBytes + " bytes)");
+        System.out.printf("Elapsed: %d ms (%.0f rows/s, %.2f MB/s)%n",
+            exported.elapsedMillis, exported.rowsPerSecond(), exported.megabytesPerSecond());
+    }
+    
+    public static void showCacheStatistics() {
+        System.out.println("\n=== Cache Statistics ===");
+        
+        List<EntityCache.CacheStats> caches = new java.util.ArrayList<>();
+        caches.add(EventService.getCacheStats());
+        caches.addAll(ParticipantService.getCacheStats());
+        
+        caches.forEach(stats -> System.out.printf(
+            "%-18s size=%d/%d  hits=%d  misses=%d  hit ratio=%.1f%%  evictions=%d  expirations=%d  invalidations=%d%n",
+            stats.name, stats.size, stats.maxEntries, stats.hits, stats.misses, stats.hitRatio() * 100,
+            stats.evictions, stats.expirations, stats.invalidations));
+    }
+    
+    public static void verifyRegistrationStats() {
+        System.out.println("\n=== Verify Registration Counters ===");
+        
+        Optional<List<RegistrationStatsService.Drift>> drifts = RegistrationStatsService.verify();
+        
+        if (drifts.isEmpty()) {
+            System.out.println("Unable to verify registration counters.");
+            return;
+        }
+        
+        if (drifts.get().isEmpty()) {
+            System.out.println("All event registration counters match the registrations table.");
+            return;
+        }
+        
+        System.out.println(drifts.get().size() + " event(s) have drifted counters:");
+        drifts.get().forEach(System.out::println);
+        
+        String confirm = getStringInput("Rebuild all counters now? (yes/no): ");
+        if ("yes".equalsIgnoreCase(confirm)) {
+            RegistrationStatsService.rebuild().ifPresentOrElse(
+                rebuilt -> System.out.println("Rebuilt counters for " + rebuilt + " event(s)."),
+                () -> System.out.println("Failed to rebuild registration counters."));
+        }
+    }
+    
+    public static <T> void browsePages(String emptyMessage, BiFunction<T, Integer, Page<T>> after, 
+                                       BiFunction<T, Integer, Page<T>> before) {
+        Page<T> page = after.apply(null, PAGE_SIZE);
+        
+        if (page.isEmpty()) {
+            System.out.println(emptyMessage);
+            return;
+        }
+        
+        while (true) {
+            page.items.forEach(System.out::println);
+            
+            if (!page.hasNext && !page.hasPrevious) {
+                return;
+            }
+            
+            String choice = getStringInput((page.hasPrevious ? "[p]revious  " : "") + 
+                (page.hasNext ? "[n]ext  " : "") + "[q]uit: ").toLowerCase();
+            
+            Page<T> requested;
+            if ("n".equals(choice) && page.hasNext) {
+                requested = after.apply(page.last(), PAGE_SIZE);
+            } else if ("p".equals(choice) && page.hasPrevious) {
+                requested = before.apply(page.first(), PAGE_SIZE);
+            } else {
+                return;
+            }
+            
+            if (requested.isEmpty()) {
+                System.out.println("No more results.");
+                return;
+            }
+            page = requested;
+        }
     }
     
     public static String getStringInput(String prompt) {
@@ -0,0 +1,757 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+ * Non-interactive JSON front end for the services. Each request runs on its own (virtual, where
+ * the runtime has them) thread, so slow clients cost nothing, but only server.maxConcurrentQueries
+ * of them may be inside the service layer at once: the rest queue on a fair semaphore for up to
+ * server.queueTimeoutMillis and are then turned away with 503 + Retry-After instead of piling up
+ * on the connection pool.
+ */
+public class ApiServer {
+
+    public static class ServerConfig {
+        public final int port;
+        public final int backlog;
+        public final int maxConcurrentQueries;
+        public final long queueTimeoutMillis;
+        public final int defaultPageSize;
+        public final int maxPageSize;
+
+        public ServerConfig(int port, int backlog, int maxConcurrentQueries, long queueTimeoutMillis,
+                            int defaultPageSize, int maxPageSize) {
+            this.port = port;
+            this.backlog = backlog;
+            this.maxConcurrentQueries = maxConcurrentQueries;
+            this.queueTimeoutMillis = queueTimeoutMillis;
+            this.defaultPageSize = defaultPageSize;
+            this.maxPageSize = maxPageSize;
+        }
+
+        public static ServerConfig fromProperties(Properties props) {
+            int poolSize = Integer.parseInt(props.getProperty("db.pool.maxSize", "10"));
+            return new ServerConfig(
+                Integer.parseInt(props.getProperty("server.port", "8080")),
+                Integer.parseInt(props.getProperty("server.backlog", "1024")),
+                Integer.parseInt(props.getProperty("server.maxConcurrentQueries", String.valueOf(poolSize))),
+                Long.parseLong(props.getProperty("server.queueTimeoutMillis", "2000")),
+                Integer.parseInt(props.getProperty("server.defaultPageSize", "50")),
+                Integer.parseInt(props.getProperty("server.maxPageSize", "500"))
+            );
+        }
+    }
+
+    public static class ServerStats {
+        public final long requests;
+        public final long rejected;
+        public final long errors;
+        public final int queriesInFlight;
+        public final int maxConcurrentQueries;
+        public final boolean virtualThreads;
+
+        public ServerStats(long requests, long rejected, long errors, int queriesInFlight,
+                           int maxConcurrentQueries, boolean virtualThreads) {
+            this.requests = requests;
+            this.rejected = rejected;
+            this.errors = errors;
+            this.queriesInFlight = queriesInFlight;
+            this.maxConcurrentQueries = maxConcurrentQueries;
+            this.virtualThreads = virtualThreads;
+        }
+    }
+
+    static class ApiException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        final int status;
+
+        ApiException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    static class Request {
+        final Matcher path;
+        final Map<String, String> query;
+        final String body;
+
+        Request(Matcher path, Map<String, String> query, String body) {
+            this.path = path;
+            this.query = query;
+            this.body = body;
+        }
+
+        int pathId() {
+            try {
+                return Integer.parseInt(path.group(1));
+            } catch (NumberFormatException e) {
+                throw new ApiException(404, "Not found");
+            }
+        }
+
+        Optional<String> query(String name) {
+            return Optional.ofNullable(query.get(name)).filter(value -> !value.isEmpty());
+        }
+
+        Optional<Integer> queryInt(String name) {
+            return query(name).map(value -> {
+                try {
+                    return Integer.parseInt(value);
+                } catch (NumberFormatException e) {
+                    throw new ApiException(400, "Query parameter '" + name + "' must be an integer");
+                }
+            });
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> json() {
+            if (body.isBlank()) {
+                throw new ApiException(400, "A JSON object body is required");
+            }
+            Object parsed = Json.parse(body);
+            if (!(parsed instanceof Map)) {
+                throw new ApiException(400, "A JSON object body is required");
+            }
+            return (Map<String, Object>) parsed;
+        }
+    }
+
+    static class Response {
+        final int status;
+        final Object body;
+
+        Response(int status, Object body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        static Response ok(Object body) {
+            return new Response(200, body);
+        }
+
+        static Response created(Object body) {
+            return new Response(201, body);
+        }
+    }
+
+    @FunctionalInterface
+    interface Handler {
+        Response handle(Request request);
+    }
+
+    private static class Route {
+        final String method;
+        final Pattern pattern;
+        final boolean usesDatabase;
+        final Handler handler;
+
+        Route(String method, String pattern, boolean usesDatabase, Handler handler) {
+            this.method = method;
+            this.pattern = Pattern.compile(pattern);
+            this.usesDatabase = usesDatabase;
+            this.handler = handler;
+        }
+    }
+
+    private static final String ID = "/([^/]+)";
+
+    static {
+        // The JDK server writes headers and body separately; with Nagle on, every keep-alive response
+        // then waits out the client's delayed ACK (~40 ms). Read once, when the first server is created.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final ServerConfig config;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Semaphore queryPermits;
+    private final List<Route> routes = new ArrayList<>();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+
+    public ApiServer(ServerConfig config) throws IOException {
+        this.config = config;
+        this.queryPermits = new Semaphore(config.maxConcurrentQueries, true);
+        this.executor = VirtualThreads.newThreadPerTaskExecutor("api");
+        this.server = HttpServer.create(new InetSocketAddress(config.port), config.backlog);
+        this.server.setExecutor(executor);
+        this.server.createContext("/api/", this::dispatch);
+        this.server.createContext("/metrics", this::metrics);
+        registerRoutes();
+    }
+
+    public static void main(String[] args) {
+        Optional<Properties> props = DatabaseConnection.loadDatabaseProperties();
+        if (props.isEmpty() || DatabaseConnection.createConnection().map(ApiServer::release).isEmpty()) {
+            System.err.println("Unable to connect to database. Please check your configuration.");
+            return;
+        }
+        RegistrationService.enableIndexIfConfigured();
+        EventService.enableDateIndexIfConfigured();
+        CacheInvalidationListener.startIfConfigured();
+        PaymentStatusQueue.startIfConfigured();
+        try {
+            ApiServer server = new ApiServer(ServerConfig.fromProperties(props.get()));
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                server.stop(1);
+                PaymentStatusQueue.stop();
+                CacheInvalidationListener.stop();
+                DatabaseConnection.shutdown();
+            }));
+            server.start();
+        } catch (IOException e) {
+            System.err.println("Error starting API server: " + e.getMessage());
+        }
+    }
+
+    private static boolean release(java.sql.Connection conn) {
+        try {
+            conn.close();
+            return true;
+        } catch (java.sql.SQLException e) {
+            return false;
+        }
+    }
+
+    public void start() {
+        server.start();
+        System.out.println("[+] API server listening on port " + server.getAddress().getPort() + " (" +
+            (VirtualThreads.isAvailable() ? "virtual threads" : "platform threads") + ", " +
+            config.maxConcurrentQueries + " concurrent queries)");
+    }
+
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public ServerStats stats() {
+        return new ServerStats(requests.get(), rejected.get(), errors.get(),
+            config.maxConcurrentQueries - queryPermits.availablePermits(), config.maxConcurrentQueries,
+            VirtualThreads.isAvailable());
+    }
+
+    private void registerRoutes() {
+        route("GET", "/api/health", false, request -> Response.ok(health()));
+
+        route("GET", "/api/events", true, this::listEvents);
+        route("POST", "/api/events", true, ApiServer::createEvent);
+        route("GET", "/api/events" + ID, true, request ->
+            Response.ok(found(EventService.getEventById(request.pathId()), "Event")));
+        route("PATCH", "/api/events" + ID, true, ApiServer::updateEvent);
+        route("DELETE", "/api/events" + ID, true, request ->
+            deleted(EventService.deleteEvent(request.pathId()), "Event"));
+        route("GET", "/api/events" + ID + "/registrations", true, request ->
+            Response.ok(RegistrationService.getRegistrationsByEvent(request.pathId())));
+        route("GET", "/api/events" + ID + "/stats", true, request ->
+            Response.ok(found(RegistrationStatsService.getStats(request.pathId()), "Event")));
+
+        route("GET", "/api/participants", true, this::listParticipants);
+        route("POST", "/api/participants", true, ApiServer::createParticipant);
+        route("GET", "/api/participants" + ID, true, request ->
+            Response.ok(found(ParticipantService.getParticipantById(request.pathId()), "Participant")));
+        route("PATCH", "/api/participants" + ID, true, ApiServer::updateParticipant);
+        route("DELETE", "/api/participants" + ID, true, request ->
+            deleted(ParticipantService.deleteParticipant(request.pathId()), "Participant"));
+        route("GET", "/api/participants" + ID + "/registrations", true, request ->
+            Response.ok(RegistrationService.getRegistrationsByParticipant(request.pathId())));
+
+        route("GET", "/api/registrations", true, this::listRegistrations);
+        route("POST", "/api/registrations", true, ApiServer::createRegistration);
+        route("GET", "/api/registrations" + ID, true, request ->
+            Response.ok(found(RegistrationService.getRegistrationById(request.pathId()), "Registration")));
+        route("PATCH", "/api/registrations" + ID, true, ApiServer::updateRegistration);
+        route("DELETE", "/api/registrations" + ID, true, request ->
+            deleted(RegistrationService.deleteRegistration(request.pathId()), "Registration"));
+        // with the payment queue on, webhook calls only touch memory and skip the query permit
+        route("PUT", "/api/registrations" + ID + "/payment-status", PaymentStatusQueue.getActive().isEmpty(),
+            ApiServer::submitPaymentStatus);
+
+        route("GET", "/api/reports/events", true, request ->
+            Response.ok(ReportEngine.summarizeEvents(EventService.getAllEvents())));
+        route("GET", "/api/reports/participants", true, request ->
+            Response.ok(ReportEngine.summarizeParticipants(ParticipantService.getAllParticipants())));
+        route("GET", "/api/reports/registrations", true, request ->
+            Response.ok(available(ReportEngine.loadRegistrationSummary(), "Registration summary")));
+        route("GET", "/api/reports/revenue", true, request ->
+            Response.ok(available(RevenueService.generateRevenueReport(), "Revenue report")));
+        route("GET", "/api/reports/dashboard", true, request ->
+            Response.ok(available(ReportEngine.generateDashboard(), "Dashboard")));
+    }
+
+    private void route(String method, String pattern, boolean usesDatabase, Handler handler) {
+        routes.add(new Route(method, pattern, usesDatabase, handler));
+    }
+
+    private void dispatch(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        try (exchange) {
+            Response response;
+            try {
+                response = handle(exchange);
+            } catch (ApiException e) {
+                response = new Response(e.status, error(e.getMessage()));
+            } catch (IllegalArgumentException | DateTimeException | ArithmeticException e) {
+                response = new Response(400, error(e.getMessage()));
+            } catch (RuntimeException e) {
+                System.err.println("API request " + exchange.getRequestMethod() + " " +
+                    exchange.getRequestURI() + " failed: " + e);
+                response = new Response(500, error("Internal server error"));
+            }
+            if (response.status == 503) {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+            }
+            if (response.status >= 500 && response.status != 503) {
+                errors.incrementAndGet();
+            }
+            send(exchange, response);
+        }
+    }
+
+    // Prometheus scrape endpoint (text exposition format 0.0.4)
+    private void metrics(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        try (exchange) {
+            byte[] body = QueryMetrics.toPrometheusText().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    private Response handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        if (path.length() > 1 && path.endsWith("/")) {
+            path = path.substring(0, path.length() - 1);
+        }
+        boolean pathMatched = false;
+        for (Route route : routes) {
+            Matcher matcher = route.pattern.matcher(path);
+            if (!matcher.matches()) {
+                continue;
+            }
+            pathMatched = true;
+            if (!route.method.equals(exchange.getRequestMethod())) {
+                continue;
+            }
+            Request request = new Request(matcher, parseQuery(exchange.getRequestURI().getRawQuery()), readBody(exchange));
+            return route.usesDatabase ? withQueryPermit(() -> route.handler.handle(request)) : route.handler.handle(request);
+        }
+        return pathMatched ? new Response(405, error("Method not allowed")) : new Response(404, error("Not found"));
+    }
+
+    private Response withQueryPermit(Supplier<Response> work) {
+        try {
+            if (!queryPermits.tryAcquire(config.queueTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                rejected.incrementAndGet();
+                return new Response(503, error("Server busy, retry later"));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Response(503, error("Server shutting down"));
+        }
+        try {
+            return work.get();
+        } finally {
+            queryPermits.release();
+        }
+    }
+
+    private static void send(HttpExchange exchange, Response response) throws IOException {
+        byte[] body = Json.write(response.body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(response.status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = equals < 0 ? pair : pair.substring(0, equals);
+            String value = equals < 0 ? "" : pair.substring(equals + 1);
+            query.putIfAbsent(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return query;
+    }
+
+    private Map<String, Object> health() {
+        Map<String, Object> health = new LinkedHashMap<>();
+        health.put("status", "UP");
+        health.put("server", stats());
+        health.put("pool", DatabaseConnection.getPoolStats());
+        return health;
+    }
+
+    // --- events
+
+    private Response listEvents(Request request) {
+        Optional<String> from = request.query("from");
+        Optional<String> to = request.query("to");
+        if (from.isPresent() || to.isPresent()) {
+            return Response.ok(EventService.getEventsByDateRange(
+                from.map(LocalDate::parse).orElse(null), to.map(LocalDate::parse).orElse(null)));
+        }
+        if (request.query("upcoming").filter("true"::equals).isPresent()) {
+            return Response.ok(EventService.getUpcomingEvents());
+        }
+        Optional<Integer> category = request.queryInt("category");
+        if (category.isPresent()) {
+            return Response.ok(EventService.getEventsByCategory(category.get()));
+        }
+        EventService.Event cursor = request.queryInt("after")
+            .map(id -> found(EventService.getEventById(id), "Cursor event"))
+            .orElse(null);
+        Page<EventService.Event> page = EventService.getEventsAfter(cursor, pageSize(request));
+        return Response.ok(page(page, page.isEmpty() ? 0 : page.last().eventId));
+    }
+
+    private static Response createEvent(Request request) {
+        Map<String, Object> body = request.json();
+        String status = optionalString(body, "status");
+        if (status != null && !EventService.EVENT_STATUSES.contains(status)) {
+            throw new ApiException(400, "Invalid event status: " + status);
+        }
+        int eventId = EventService.createEvent(
+            requiredString(body, "eventName"),
+            optionalString(body, "description"),
+            requiredDate(body, "startDate"),
+            requiredDate(body, "endDate"),
+            optionalDate(body, "registrationDeadline"),
+            requiredInt(body, "maxParticipants"),
+            Optional.ofNullable(decimal(body, "registrationFee")).orElse(BigDecimal.ZERO),
+            requiredInt(body, "categoryId"),
+            requiredInt(body, "locationId")
+        ).orElseThrow(() -> new ApiException(422, "Event could not be created; check dates, category and location"));
+        if (status != null && !"ACTIVE".equals(status)) {
+            EventService.updateEventStatus(eventId, status);
+        }
+        return Response.created(found(EventService.getEventById(eventId), "Event"));
+    }
+
+    private static Response updateEvent(Request request) {
+        int eventId = request.pathId();
+        String status = requiredString(request.json(), "status");
+        if (!EventService.EVENT_STATUSES.contains(status)) {
+            throw new ApiException(400, "Invalid event status: " + status);
+        }
+        if (!EventService.updateEventStatus(eventId, status)) {
+            throw new ApiException(404, "Event not found");
+        }
+        return Response.ok(found(EventService.getEventById(eventId), "Event"));
+    }
+
+    // --- participants
+
+    private Response listParticipants(Request request) {
+        Optional<String> email = request.query("email");
+        if (email.isPresent()) {
+            return Response.ok(ParticipantService.getParticipantByEmail(email.get()).map(List::of).orElse(List.of()));
+        }
+        Optional<String> type = request.query("type");
+        if (type.isPresent()) {
+            return Response.ok(ParticipantService.getParticipantsByType(type.get()));
+        }
+        Optional<String> institution = request.query("institution");
+        if (institution.isPresent()) {
+            return Response.ok(ParticipantService.getParticipantsByInstitution(institution.get()));
+        }
+        Optional<String> search = request.query("search");
+        if (search.isPresent()) {
+            return Response.ok(ParticipantService.searchParticipantsByInstitution(search.get(), pageSize(request)));
+        }
+        ParticipantService.Participant cursor = request.queryInt("after")
+            .map(id -> found(ParticipantService.getParticipantById(id), "Cursor participant"))
+            .orElse(null);
+        Page<ParticipantService.Participant> page = ParticipantService.getParticipantsAfter(cursor, pageSize(request));
+        return Response.ok(page(page, page.isEmpty() ? 0 : page.last().participantId));
+    }
+
+    private static Response createParticipant(Request request) {
+        Map<String, Object> body = request.json();
+        String participantType = Optional.ofNullable(optionalString(body, "participantType")).orElse("STUDENT");
+        if (!ParticipantService.PARTICIPANT_TYPES.contains(participantType)) {
+            throw new ApiException(400, "Invalid participant type: " + participantType);
+        }
+        String email = requiredString(body, "email");
+        if (ParticipantService.getParticipantByEmail(email).isPresent()) {
+            throw new ApiException(409, "Email already registered: " + email);
+        }
+        int participantId = ParticipantService.createParticipant(
+            requiredString(body, "firstName"),
+            requiredString(body, "lastName"),
+            email,
+            optionalString(body, "phone"),
+            optionalString(body, "institution"),
+            participantType
+        ).orElseThrow(() -> ParticipantService.getParticipantByEmail(email).isPresent()
+            // a concurrent request took the email between the check above and the insert
+            ? new ApiException(409, "Email already registered: " + email)
+            : new ApiException(422, "Participant could not be created"));
+        return Response.created(found(ParticipantService.getParticipantById(participantId), "Participant"));
+    }
+
+    // PATCH semantics: fields missing from the body keep their current value
+    private static Response updateParticipant(Request request) {
+        int participantId = request.pathId();
+        Map<String, Object> body = request.json();
+        ParticipantService.Participant current = found(ParticipantService.getParticipantById(participantId), "Participant");
+        String participantType = body.containsKey("participantType")
+            ? requiredString(body, "participantType") : current.participantType;
+        if (!ParticipantService.PARTICIPANT_TYPES.contains(participantType)) {
+            throw new ApiException(400, "Invalid participant type: " + participantType);
+        }
+        boolean updated = ParticipantService.updateParticipant(participantId,
+            body.containsKey("firstName") ? requiredString(body, "firstName") : current.firstName,
+            body.containsKey("lastName") ? requiredString(body, "lastName") : current.lastName,
+            body.containsKey("email") ? requiredString(body, "email") : current.email,
+            body.containsKey("phone") ? optionalString(body, "phone") : current.phone,
+            body.containsKey("institution") ? optionalString(body, "institution") : current.institution,
+            participantType);
+        if (!updated) {
+            throw new ApiException(409, "Participant could not be updated; the email may already be in use");
+        }
+        return Response.ok(found(ParticipantService.getParticipantById(participantId), "Participant"));
+    }
+
+    // --- registrations
+
+    private Response listRegistrations(Request request) {
+        RegistrationService.RegistrationFilter filter = RegistrationService.filter();
+        boolean filtered = false;
+        Optional<Integer> eventId = request.queryInt("event");
+        if (eventId.isPresent()) {
+            filter.event(eventId.get());
+            filtered = true;
+        }
+        Optional<Integer> participantId = request.queryInt("participant");
+        if (participantId.isPresent()) {
+            filter.participant(participantId.get());
+            filtered = true;
+        }
+        Optional<String> status = request.query("status");
+        if (status.isPresent()) {
+            filter.status(status.get());
+            filtered = true;
+        }
+        Optional<String> paymentStatus = request.query("paymentStatus");
+        if (paymentStatus.isPresent()) {
+            filter.paymentStatus(paymentStatus.get());
+            filtered = true;
+        }
+        if (filtered) {
+            return Response.ok(RegistrationService.findRegistrations(filter));
+        }
+        RegistrationService.Registration cursor = request.queryInt("after")
+            .map(id -> found(RegistrationService.getRegistrationById(id), "Cursor registration"))
+            .orElse(null);
+        Page<RegistrationService.Registration> page = RegistrationService.getRegistrationsAfter(cursor, pageSize(request));
+        return Response.ok(page(page, page.isEmpty() ? 0 : page.last().registrationId));
+    }
+
+    private static Response createRegistration(Request request) {
+        Map<String, Object> body = request.json();
+        RegistrationService.ReservationResult result = RegistrationService.reserveSeat(
+            requiredInt(body, "eventId"), requiredInt(body, "participantId"), optionalString(body, "notes"));
+        switch (result.outcome) {
+            case CONFIRMED:
+                return Response.created(result);
+            case EVENT_NOT_FOUND:
+            case PARTICIPANT_NOT_FOUND:
+                return new Response(404, result);
+            case FAILED:
+                return new Response(500, result);
+            default:
+                return new Response(409, result);
+        }
+    }
+
+    private static Response updateRegistration(Request request) {
+        int registrationId = request.pathId();
+        Map<String, Object> body = request.json();
+        String status = optionalString(body, "status");
+        String paymentStatus = optionalString(body, "paymentStatus");
+        if (status == null && paymentStatus == null) {
+            throw new ApiException(400, "Provide 'status' and/or 'paymentStatus'");
+        }
+        if (status != null && !RegistrationService.REGISTRATION_STATUSES.contains(status)) {
+            throw new ApiException(400, "Invalid registration status: " + status);
+        }
+        if (paymentStatus != null && !RegistrationService.PAYMENT_STATUSES.contains(paymentStatus)) {
+            throw new ApiException(400, "Invalid payment status: " + paymentStatus);
+        }
+        boolean statusUpdated = false;
+        if ("CONFIRMED".equals(status)) {
+            RegistrationService.ReservationResult result = RegistrationService.confirmRegistration(registrationId);
+            switch (result.outcome) {
+                case CONFIRMED:
+                    statusUpdated = true;
+                    break;
+                case REGISTRATION_NOT_FOUND:
+                    throw new ApiException(404, "Registration not found");
+                case FULL:
+                    return new Response(409, result);
+                default:
+                    return new Response(500, result);
+            }
+        }
+        if (status != null && !"CONFIRMED".equals(status)) {
+            if (!RegistrationService.updateRegistrationStatus(registrationId, status)) {
+                throw new ApiException(404, "Registration not found");
+            }
+            statusUpdated = true;
+        }
+        if (paymentStatus != null && !RegistrationService.updatePaymentStatus(registrationId, paymentStatus)) {
+            if (!statusUpdated) {
+                throw new ApiException(404, "Registration not found");
+            }
+            // the status write has already committed, so report what was applied rather than a 404
+            Map<String, Object> partial = new LinkedHashMap<>();
+            partial.put("error", "Status updated but payment status could not be updated");
+            partial.put("registration", RegistrationService.getRegistrationById(registrationId).orElse(null));
+            return new Response(500, partial);
+        }
+        return Response.ok(found(RegistrationService.getRegistrationById(registrationId), "Registration"));
+    }
+
+    // Payment provider webhooks: 202 once queued, 503 when the queue stays full; 200/404 without the queue
+    private static Response submitPaymentStatus(Request request) {
+        int registrationId = request.pathId();
+        String paymentStatus = requiredString(request.json(), "paymentStatus");
+        if (!RegistrationService.PAYMENT_STATUSES.contains(paymentStatus)) {
+            throw new ApiException(400, "Invalid payment status: " + paymentStatus);
+        }
+        boolean queued = PaymentStatusQueue.getActive().isPresent();
+        if (!RegistrationService.submitPaymentStatus(registrationId, paymentStatus)) {
+            throw queued ? new ApiException(503, "Payment status queue is full") : new ApiException(404, "Registration not found");
+        }
+        return new Response(queued ? 202 : 200, Map.of("registrationId", registrationId, "paymentStatus", paymentStatus));
+    }
+
+    // --- helpers
+
+    private int pageSize(Request request) {
+        int limit = request.queryInt("limit").orElse(config.defaultPageSize);
+        if (limit < 1 || limit > config.maxPageSize) {
+            throw new ApiException(400, "limit must be between 1 and " + config.maxPageSize);
+        }
+        return limit;
+    }
+
+    private static Map<String, Object> page(Page<?> page, int lastId) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("items", page.items);
+        body.put("hasNext", page.hasNext);
+        body.put("next", page.hasNext ? lastId : null);
+        return body;
+    }
+
+    private static <T> T found(Optional<T> value, String what) {
+        return value.orElseThrow(() -> new ApiException(404, what + " not found"));
+    }
+
+    // Report loaders return empty only when the database call itself failed
+    private static <T> T available(Optional<T> value, String what) {
+        return value.orElseThrow(() -> new ApiException(503, what + " unavailable"));
+    }
+
+    private static Response deleted(boolean deleted, String what) {
+        if (!deleted) {
+            throw new ApiException(404, what + " not found");
+        }
+        return new Response(200, Map.of("deleted", true));
+    }
+
+    private static Map<String, Object> error(String message) {
+        return Map.of("error", message == null ? "Bad request" : message);
+    }
+
+    private static String optionalString(Map<String, Object> body, String name) {
+        Object value = body.get(name);
+        if (value != null && !(value instanceof String)) {
+            throw new ApiException(400, "Field '" + name + "' must be a string");
+        }
+        return (String) value;
+    }
+
+    private static String requiredString(Map<String, Object> body, String name) {
+        String value = optionalString(body, name);
+        if (value == null || value.isBlank()) {
+            throw new ApiException(400, "Field '" + name + "' is required");
+        }
+        return value;
+    }
+
+    private static int requiredInt(Map<String, Object> body, String name) {
+        BigDecimal value = decimal(body, name);
+        if (value == null) {
+            throw new ApiException(400, "Field '" + name + "' is required");
+        }
+        try {
+            return value.intValueExact();
+        } catch (ArithmeticException e) {
+            throw new ApiException(400, "Field '" + name + "' must be an integer");
+        }
+    }
+
+    private static BigDecimal decimal(Map<String, Object> body, String name) {
+        Object value = body.get(name);
+        if (value != null && !(value instanceof BigDecimal)) {
+            throw new ApiException(400, "Field '" + name + "' must be a number");
+        }
+        return (BigDecimal) value;
+    }
+
+    private static LocalDate optionalDate(Map<String, Object> body, String name) {
+        String value = optionalString(body, name);
+        try {
+            return value == null ? null : LocalDate.parse(value);
+        } catch (DateTimeException e) {
+            throw new ApiException(400, "Field '" + name + "' must be a date (yyyy-MM-dd)");
+        }
+    }
+
+    private static LocalDate requiredDate(Map<String, Object> body, String name) {
+        requiredString(body, name);
+        return optionalDate(body, name);
+    }
+}
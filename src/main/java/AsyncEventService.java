@@ -0,0 +1,57 @@
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+public class AsyncEventService {
+
+    public static CompletableFuture<List<EventService.Event>> getAllEvents() {
+        return AsyncServices.supply(EventService::getAllEvents);
+    }
+
+    public static CompletableFuture<Long> forEachEvent(Consumer<EventService.Event> consumer) {
+        return AsyncServices.supply(() -> EventService.forEachEvent(consumer));
+    }
+
+    public static CompletableFuture<Page<EventService.Event>> getEventsAfter(EventService.Event cursor, int pageSize) {
+        return AsyncServices.supply(() -> EventService.getEventsAfter(cursor, pageSize));
+    }
+
+    public static CompletableFuture<Page<EventService.Event>> getEventsBefore(EventService.Event cursor, int pageSize) {
+        return AsyncServices.supply(() -> EventService.getEventsBefore(cursor, pageSize));
+    }
+
+    public static CompletableFuture<Optional<EventService.Event>> getEventById(int eventId) {
+        return AsyncServices.supply(() -> EventService.getEventById(eventId));
+    }
+
+    public static CompletableFuture<List<EventService.Event>> getEventsByCategory(int categoryId) {
+        return AsyncServices.supply(() -> EventService.getEventsByCategory(categoryId));
+    }
+
+    public static CompletableFuture<List<EventService.Event>> getUpcomingEvents() {
+        return AsyncServices.supply(EventService::getUpcomingEvents);
+    }
+
+    public static CompletableFuture<List<EventService.Event>> getEventsByDateRange(LocalDate startDate, LocalDate endDate) {
+        return AsyncServices.supply(() -> EventService.getEventsByDateRange(startDate, endDate));
+    }
+
+    public static CompletableFuture<Optional<Integer>> createEvent(String eventName, String description, LocalDate startDate,
+                                                                   LocalDate endDate, LocalDate registrationDeadline,
+                                                                   int maxParticipants, BigDecimal registrationFee,
+                                                                   int categoryId, int locationId) {
+        return AsyncServices.supply(() -> EventService.createEvent(eventName, description, startDate, endDate,
+            registrationDeadline, maxParticipants, registrationFee, categoryId, locationId));
+    }
+
+    public static CompletableFuture<Boolean> updateEventStatus(int eventId, String status) {
+        return AsyncServices.supply(() -> EventService.updateEventStatus(eventId, status));
+    }
+
+    public static CompletableFuture<Boolean> deleteEvent(int eventId) {
+        return AsyncServices.supply(() -> EventService.deleteEvent(eventId));
+    }
+}
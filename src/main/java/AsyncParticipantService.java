@@ -0,0 +1,65 @@
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+public class AsyncParticipantService {
+
+    public static CompletableFuture<List<ParticipantService.Participant>> getAllParticipants() {
+        return AsyncServices.supply(ParticipantService::getAllParticipants);
+    }
+
+    public static CompletableFuture<Long> forEachParticipant(Consumer<ParticipantService.Participant> consumer) {
+        return AsyncServices.supply(() -> ParticipantService.forEachParticipant(consumer));
+    }
+
+    public static CompletableFuture<Page<ParticipantService.Participant>> getParticipantsAfter(ParticipantService.Participant cursor,
+                                                                                              int pageSize) {
+        return AsyncServices.supply(() -> ParticipantService.getParticipantsAfter(cursor, pageSize));
+    }
+
+    public static CompletableFuture<Page<ParticipantService.Participant>> getParticipantsBefore(ParticipantService.Participant cursor,
+                                                                                               int pageSize) {
+        return AsyncServices.supply(() -> ParticipantService.getParticipantsBefore(cursor, pageSize));
+    }
+
+    public static CompletableFuture<Optional<ParticipantService.Participant>> getParticipantById(int participantId) {
+        return AsyncServices.supply(() -> ParticipantService.getParticipantById(participantId));
+    }
+
+    public static CompletableFuture<Optional<ParticipantService.Participant>> getParticipantByEmail(String email) {
+        return AsyncServices.supply(() -> ParticipantService.getParticipantByEmail(email));
+    }
+
+    public static CompletableFuture<List<ParticipantService.Participant>> getParticipantsByType(String participantType) {
+        return AsyncServices.supply(() -> ParticipantService.getParticipantsByType(participantType));
+    }
+
+    public static CompletableFuture<List<ParticipantService.Participant>> getParticipantsByInstitution(String institution) {
+        return AsyncServices.supply(() -> ParticipantService.getParticipantsByInstitution(institution));
+    }
+
+    public static CompletableFuture<List<ParticipantService.Participant>> searchParticipantsByInstitution(String query, int limit) {
+        return AsyncServices.supply(() -> ParticipantService.searchParticipantsByInstitution(query, limit));
+    }
+
+    public static CompletableFuture<Optional<Integer>> createParticipant(String firstName, String lastName, String email,
+                                                                         String phone, String institution, String participantType) {
+        return AsyncServices.supply(() -> ParticipantService.createParticipant(firstName, lastName, email,
+            phone, institution, participantType));
+    }
+
+    public static CompletableFuture<Optional<BatchResult>> createParticipants(List<ParticipantService.NewParticipant> participants) {
+        return AsyncServices.supply(() -> ParticipantService.createParticipants(participants));
+    }
+
+    public static CompletableFuture<Boolean> updateParticipant(int participantId, String firstName, String lastName,
+                                                               String email, String phone, String institution, String participantType) {
+        return AsyncServices.supply(() -> ParticipantService.updateParticipant(participantId, firstName, lastName,
+            email, phone, institution, participantType));
+    }
+
+    public static CompletableFuture<Boolean> deleteParticipant(int participantId) {
+        return AsyncServices.supply(() -> ParticipantService.deleteParticipant(participantId));
+    }
+}
@@ -0,0 +1,99 @@
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+public class AsyncRegistrationService {
+
+    public static CompletableFuture<List<RegistrationService.Registration>> getAllRegistrations() {
+        return AsyncServices.supply(RegistrationService::getAllRegistrations);
+    }
+
+    public static CompletableFuture<List<RegistrationService.Registration>> findRegistrations(RegistrationService.RegistrationFilter filter) {
+        return AsyncServices.supply(() -> RegistrationService.findRegistrations(filter));
+    }
+
+    public static CompletableFuture<Long> forEachRegistration(RegistrationService.RegistrationFilter filter,
+                                                              Consumer<RegistrationService.Registration> consumer) {
+        return AsyncServices.supply(() -> RegistrationService.forEachRegistration(filter, consumer));
+    }
+
+    public static CompletableFuture<Page<RegistrationService.Registration>> getRegistrationsAfter(RegistrationService.Registration cursor,
+                                                                                                 int pageSize) {
+        return AsyncServices.supply(() -> RegistrationService.getRegistrationsAfter(cursor, pageSize));
+    }
+
+    public static CompletableFuture<Page<RegistrationService.Registration>> getRegistrationsBefore(RegistrationService.Registration cursor,
+                                                                                                  int pageSize) {
+        return AsyncServices.supply(() -> RegistrationService.getRegistrationsBefore(cursor, pageSize));
+    }
+
+    public static CompletableFuture<Long> countRegistrations(RegistrationService.RegistrationFilter filter) {
+        return AsyncServices.supply(() -> RegistrationService.countRegistrations(filter));
+    }
+
+    public static CompletableFuture<Optional<RegistrationService.Registration>> getRegistrationById(int registrationId) {
+        return AsyncServices.supply(() -> RegistrationService.getRegistrationById(registrationId));
+    }
+
+    public static CompletableFuture<List<RegistrationService.Registration>> getRegistrationsByEvent(int eventId) {
+        return AsyncServices.supply(() -> RegistrationService.getRegistrationsByEvent(eventId));
+    }
+
+    public static CompletableFuture<List<RegistrationService.Registration>> getRegistrationsByParticipant(int participantId) {
+        return AsyncServices.supply(() -> RegistrationService.getRegistrationsByParticipant(participantId));
+    }
+
+    public static CompletableFuture<List<RegistrationService.Registration>> getConfirmedRegistrations() {
+        return AsyncServices.supply(RegistrationService::getConfirmedRegistrations);
+    }
+
+    public static CompletableFuture<Long> countRegistrationsForEvent(int eventId) {
+        return AsyncServices.supply(() -> RegistrationService.countRegistrationsForEvent(eventId));
+    }
+
+    public static CompletableFuture<Optional<Integer>> createRegistration(int eventId, int participantId, String notes) {
+        return AsyncServices.supply(() -> RegistrationService.createRegistration(eventId, participantId, notes));
+    }
+
+    public static CompletableFuture<RegistrationService.ReservationResult> reserveSeat(int eventId, int participantId, String notes) {
+        return AsyncServices.supply(() -> RegistrationService.reserveSeat(eventId, participantId, notes));
+    }
+
+    public static CompletableFuture<RegistrationService.ReservationResult> confirmRegistration(int registrationId) {
+        return AsyncServices.supply(() -> RegistrationService.confirmRegistration(registrationId));
+    }
+
+    public static CompletableFuture<Optional<BatchResult>> createRegistrations(List<RegistrationService.NewRegistration> registrations) {
+        return AsyncServices.supply(() -> RegistrationService.createRegistrations(registrations));
+    }
+
+    public static CompletableFuture<Optional<BatchResult>> updateRegistrationStatuses(Map<Integer, String> statuses) {
+        return AsyncServices.supply(() -> RegistrationService.updateRegistrationStatuses(statuses));
+    }
+
+    public static CompletableFuture<Optional<BatchResult>> updatePaymentStatuses(Map<Integer, String> paymentStatuses) {
+        return AsyncServices.supply(() -> RegistrationService.updatePaymentStatuses(paymentStatuses));
+    }
+
+    public static CompletableFuture<Boolean> updateRegistrationStatus(int registrationId, String status) {
+        return AsyncServices.supply(() -> RegistrationService.updateRegistrationStatus(registrationId, status));
+    }
+
+    public static CompletableFuture<Boolean> updatePaymentStatus(int registrationId, String paymentStatus) {
+        return AsyncServices.supply(() -> RegistrationService.updatePaymentStatus(registrationId, paymentStatus));
+    }
+
+    public static CompletableFuture<Boolean> submitPaymentStatus(int registrationId, String paymentStatus) {
+        return AsyncServices.supply(() -> RegistrationService.submitPaymentStatus(registrationId, paymentStatus));
+    }
+
+    public static CompletableFuture<Boolean> cancelRegistration(int registrationId) {
+        return AsyncServices.supply(() -> RegistrationService.cancelRegistration(registrationId));
+    }
+
+    public static CompletableFuture<Boolean> deleteRegistration(int registrationId) {
+        return AsyncServices.supply(() -> RegistrationService.deleteRegistration(registrationId));
+    }
+}
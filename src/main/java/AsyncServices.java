@@ -0,0 +1,91 @@
+import java.util.Properties;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/*
+ * Runs blocking service calls on the async executor and hands back a CompletableFuture. Cancelling
+ * the returned future, or letting it time out (async.timeoutMillis, or orTimeout on the returned
+ * future itself), cancels the statements the call is running. Timeouts applied to a dependent
+ * stage (thenApply(...).orTimeout(...)) only abandon the result; they do not reach the database.
+ */
+public class AsyncServices {
+
+    private static final class Defaults {
+        static final Properties PROPS = DatabaseConnection.loadDatabaseProperties().orElseGet(Properties::new);
+        static final long TIMEOUT_MILLIS = Long.parseLong(PROPS.getProperty("async.timeoutMillis", "0"));
+    }
+
+    private static volatile Executor executor;
+
+    public static Executor getExecutor() {
+        Executor current = executor;
+        if (current != null) {
+            return current;
+        }
+        synchronized (AsyncServices.class) {
+            if (executor == null) {
+                executor = createExecutor(Defaults.PROPS);
+            }
+            return executor;
+        }
+    }
+
+    // For callers that want the work on their own pool (a bounded batch pool, a test executor, ...)
+    public static synchronized void setExecutor(Executor custom) {
+        executor = custom;
+    }
+
+    // async.threads=0 (the default) means one virtual thread per call where the runtime supports it
+    private static Executor createExecutor(Properties props) {
+        int threads = Integer.parseInt(props.getProperty("async.threads", "0"));
+        if (threads <= 0) {
+            return VirtualThreads.newThreadPerTaskExecutor("async-service");
+        }
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "async-service-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static <T> CompletableFuture<T> supply(Supplier<T> call) {
+        return supply(call, Defaults.TIMEOUT_MILLIS);
+    }
+
+    public static <T> CompletableFuture<T> supply(Supplier<T> call, long timeoutMillis) {
+        QueryCancellation cancellation = new QueryCancellation();
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.whenComplete((result, error) -> {
+            if (error != null) {
+                cancellation.cancel();
+            }
+        });
+        try {
+            getExecutor().execute(() -> {
+                if (future.isDone()) {
+                    return;
+                }
+                try {
+                    future.complete(cancellation.run(call));
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        if (timeoutMillis > 0) {
+            future.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+        return future;
+    }
+
+    public static CompletableFuture<Void> run(Runnable call) {
+        return supply(() -> {
+            call.run();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,121 @@
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.*;
+import java.util.stream.Collectors;
+
+public class BatchResult {
+    static final int CHUNK_SIZE = 500;
+
+    public enum Outcome { CREATED, UPDATED, SKIPPED, NOT_FOUND, INVALID }
+
+    public static class RowResult {
+        public final int index;
+        public final Outcome outcome;
+        public final Integer id;
+        public final String message;
+
+        public RowResult(int index, Outcome outcome, Integer id, String message) {
+            this.index = index;
+            this.outcome = outcome;
+            this.id = id;
+            this.message = message;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("RowResult{index=%d, outcome=%s, id=%s%s}",
+                index, outcome, id, message != null ? ", message='" + message + "'" : "");
+        }
+    }
+
+    public final List<RowResult> rows;
+
+    public BatchResult(List<RowResult> rows) {
+        this.rows = Collections.unmodifiableList(rows);
+    }
+
+    public long count(Outcome outcome) {
+        return rows.stream().filter(row -> row.outcome == outcome).count();
+    }
+
+    public List<Integer> generatedIds() {
+        return rows.stream()
+            .filter(row -> row.outcome == Outcome.CREATED)
+            .map(row -> row.id)
+            .collect(Collectors.toList());
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.stream(Outcome.values())
+            .filter(outcome -> count(outcome) > 0)
+            .map(outcome -> outcome + "=" + count(outcome))
+            .collect(Collectors.joining(", ", "BatchResult{rows=" + rows.size() + (rows.isEmpty() ? "" : ", "), "}"));
+    }
+
+    static String values(int rows, String tuple) {
+        return String.join(", ", Collections.nCopies(rows, tuple));
+    }
+
+    @FunctionalInterface
+    interface ChunkWriter {
+        void write(List<Integer> chunk) throws SQLException;
+    }
+
+    // Each chunk runs under its own savepoint. A chunk the database rejects is rolled back and split in
+    // halves until the failing rows are isolated: only those become INVALID, with their own message, and
+    // every other row is still written. Connection failures still end the batch (the rollback throws).
+    static void writeInChunks(Connection conn, List<Integer> rows, Builder result, ChunkWriter writer) throws SQLException {
+        for (int from = 0; from < rows.size(); from += CHUNK_SIZE) {
+            writeIsolatingFailures(conn, rows.subList(from, Math.min(from + CHUNK_SIZE, rows.size())), result, writer);
+        }
+    }
+
+    private static void writeIsolatingFailures(Connection conn, List<Integer> chunk, Builder result, ChunkWriter writer)
+            throws SQLException {
+        Savepoint savepoint = conn.setSavepoint();
+        try {
+            writer.write(chunk);
+            conn.releaseSavepoint(savepoint);
+        } catch (SQLException e) {
+            conn.rollback(savepoint);
+            conn.releaseSavepoint(savepoint);
+            if (chunk.size() == 1) {
+                result.set(chunk.get(0), Outcome.INVALID, null, e.getMessage());
+                return;
+            }
+            int half = chunk.size() / 2;
+            writeIsolatingFailures(conn, chunk.subList(0, half), result, writer);
+            writeIsolatingFailures(conn, chunk.subList(half, chunk.size()), result, writer);
+        }
+    }
+
+    static class Builder {
+        private final RowResult[] results;
+
+        Builder(int size) {
+            this.results = new RowResult[size];
+        }
+
+        boolean isDecided(int index) {
+            return results[index] != null;
+        }
+
+        void set(int index, Outcome outcome, Integer id, String message) {
+            results[index] = new RowResult(index, outcome, id, message);
+        }
+
+        void setRemaining(Outcome outcome, String message) {
+            for (int i = 0; i < results.length; i++) {
+                if (results[i] == null) {
+                    set(i, outcome, null, message);
+                }
+            }
+        }
+
+        BatchResult build() {
+            return new BatchResult(Arrays.asList(results));
+        }
+    }
+}
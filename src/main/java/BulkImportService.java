@@ -0,0 +1,260 @@
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.*;
+import java.util.List;
+import java.util.Optional;
+
+public class BulkImportService {
+    private static final long PROGRESS_INTERVAL_ROWS = 50_000;
+
+    @FunctionalInterface
+    public interface ProgressListener {
+        void onProgress(long rowsRead, long bytesRead, long elapsedNanos);
+    }
+
+    public static class ImportResult {
+        public final long rowsRead;
+        public final long inserted;
+        public final long updated;
+        public final long rejected;
+        public final long bytesRead;
+        public final long elapsedMillis;
+
+        public ImportResult(long rowsRead, long inserted, long updated, long rejected, long bytesRead, long elapsedMillis) {
+            this.rowsRead = rowsRead;
+            this.inserted = inserted;
+            this.updated = updated;
+            this.rejected = rejected;
+            this.bytesRead = bytesRead;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public double rowsPerSecond() {
+            return elapsedMillis == 0 ? rowsRead : rowsRead * 1000.0 / elapsedMillis;
+        }
+
+        public double megabytesPerSecond() {
+            return elapsedMillis == 0 ? 0.0 : bytesRead / 1_048_576.0 * 1000.0 / elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("ImportResult{read=%d, inserted=%d, updated=%d, rejected=%d, elapsed=%dms, %.0f rows/s, %.2f MB/s}",
+                rowsRead, inserted, updated, rejected, elapsedMillis, rowsPerSecond(), megabytesPerSecond());
+        }
+    }
+
+    /*
+     * Expected header: first_name,last_name,email,phone,institution,participant_type
+     * Existing participants are matched by email and updated in place.
+     */
+    public static Optional<ImportResult> importParticipants(Path csvFile, Path errorFile, ProgressListener listener) {
+        try {
+            return importParticipantRows(csvFile, errorFile, listener);
+        } finally {
+            ParticipantService.invalidateCache();
+        }
+    }
+
+    private static Optional<ImportResult> importParticipantRows(Path csvFile, Path errorFile, ProgressListener listener) {
+        List<String> rejectRules = List.of(
+            "UPDATE participant_import SET reject_reason = 'missing required field' " +
+                "WHERE coalesce(trim(first_name), '') = '' OR coalesce(trim(last_name), '') = '' OR coalesce(trim(email), '') = ''",
+            "UPDATE participant_import SET reject_reason = 'value too long' WHERE reject_reason IS NULL " +
+                "AND (length(first_name) > 100 OR length(last_name) > 100 OR length(email) > 200 " +
+                "OR length(phone) > 20 OR length(institution) > 200)",
+            "UPDATE participant_import SET reject_reason = 'invalid participant_type' WHERE reject_reason IS NULL " +
+                "AND coalesce(nullif(upper(trim(participant_type)), ''), 'STUDENT') NOT IN ('STUDENT', 'PROFESSOR', 'RESEARCHER', 'OTHER')",
+            "UPDATE participant_import p SET reject_reason = 'duplicate email in file' " +
+                "FROM (SELECT line_no, row_number() OVER (PARTITION BY trim(email) ORDER BY line_no) AS occurrence " +
+                "FROM participant_import WHERE reject_reason IS NULL) d " +
+                "WHERE d.line_no = p.line_no AND d.occurrence > 1"
+        );
+        String merge = "WITH merged AS (" +
+                "INSERT INTO participants (first_name, last_name, email, phone, institution, participant_type) " +
+                "SELECT trim(first_name), trim(last_name), trim(email), nullif(trim(phone), ''), nullif(trim(institution), ''), " +
+                "coalesce(nullif(upper(trim(participant_type)), ''), 'STUDENT') " +
+                "FROM participant_import WHERE reject_reason IS NULL ORDER BY line_no " +
+                "ON CONFLICT (email) DO UPDATE SET first_name = EXCLUDED.first_name, last_name = EXCLUDED.last_name, " +
+                "phone = EXCLUDED.phone, institution = EXCLUDED.institution, participant_type = EXCLUDED.participant_type " +
+                "RETURNING (xmax = 0) AS inserted) " +
+            "SELECT count(*) FILTER (WHERE inserted), count(*) FILTER (WHERE NOT inserted) FROM merged";
+
+        return runImport(csvFile, errorFile, listener, "participant_import",
+            "CREATE TEMP TABLE participant_import (line_no BIGSERIAL, first_name TEXT, last_name TEXT, email TEXT, " +
+                "phone TEXT, institution TEXT, participant_type TEXT, reject_reason TEXT) ON COMMIT DROP",
+            "COPY participant_import (first_name, last_name, email, phone, institution, participant_type) " +
+                "FROM STDIN WITH (FORMAT csv, HEADER true)",
+            rejectRules, merge,
+            "COPY (SELECT line_no, first_name, last_name, email, phone, institution, participant_type, reject_reason " +
+                "FROM participant_import WHERE reject_reason IS NOT NULL ORDER BY line_no) TO STDOUT WITH (FORMAT csv, HEADER true)");
+    }
+
+    /*
+     * Expected header: event_id,participant_email,status,payment_status,notes
+     * Participants are resolved by email; an existing (event, participant) registration is updated in place.
+     */
+    public static Optional<ImportResult> importRegistrations(Path csvFile, Path errorFile, ProgressListener listener) {
+        try {
+            return importRegistrationRows(csvFile, errorFile, listener);
+        } finally {
+            if (RegistrationService.getIndex().isPresent() && !RegistrationService.enableIndex()) {
+                System.err.println("Registration index disabled: rebuild after import failed");
+                RegistrationService.disableIndex();
+            }
+        }
+    }
+
+    private static Optional<ImportResult> importRegistrationRows(Path csvFile, Path errorFile, ProgressListener listener) {
+        List<String> rejectRules = List.of(
+            "UPDATE registration_import SET event_ref = trim(event_id)::int WHERE trim(event_id) ~ '^[0-9]{1,9}$'",
+            "UPDATE registration_import SET reject_reason = 'invalid event_id' WHERE event_ref IS NULL",
+            "UPDATE registration_import r SET reject_reason = 'unknown event' WHERE reject_reason IS NULL " +
+                "AND NOT EXISTS (SELECT 1 FROM events e WHERE e.event_id = r.event_ref)",
+            "UPDATE registration_import r SET participant_id = p.participant_id FROM participants p " +
+                "WHERE r.reject_reason IS NULL AND p.email = trim(r.participant_email)",
+            "UPDATE registration_import SET reject_reason = 'unknown participant email' " +
+                "WHERE reject_reason IS NULL AND participant_id IS NULL",
+            "UPDATE registration_import SET reject_reason = 'invalid status' WHERE reject_reason IS NULL " +
+                "AND coalesce(nullif(upper(trim(status)), ''), 'CONFIRMED') NOT IN ('PENDING', 'CONFIRMED', 'CANCELLED')",
+            "UPDATE registration_import SET reject_reason = 'invalid payment_status' WHERE reject_reason IS NULL " +
+                "AND coalesce(nullif(upper(trim(payment_status)), ''), 'PENDING') NOT IN ('PENDING', 'PAID', 'REFUNDED')",
+            "UPDATE registration_import r SET reject_reason = 'duplicate registration in file' " +
+                "FROM (SELECT line_no, row_number() OVER (PARTITION BY event_ref, participant_id ORDER BY line_no) AS occurrence " +
+                "FROM registration_import WHERE reject_reason IS NULL) d " +
+                "WHERE d.line_no = r.line_no AND d.occurrence > 1",
+            // Rows taking a seat are admitted in file order while the event has room, counting seats the file itself
+            // releases; the events stay locked until commit like in RegistrationService.reserveSeat.
+            "SELECT event_id FROM events WHERE event_id IN (SELECT event_ref FROM registration_import WHERE reject_reason IS NULL) " +
+                "ORDER BY event_id FOR NO KEY UPDATE",
+            "UPDATE registration_import r SET reject_reason = 'event is full' FROM (" +
+                "SELECT i.line_no, row_number() OVER (PARTITION BY i.event_ref ORDER BY i.line_no) AS seat, " +
+                "e.max_participants - " + RegistrationService.CONFIRMED_SEATS_SQL + " + coalesce(f.released, 0) AS free " +
+                "FROM registration_import i JOIN events e ON e.event_id = i.event_ref " +
+                "LEFT JOIN registrations x ON x.event_id = i.event_ref AND x.participant_id = i.participant_id " +
+                "LEFT JOIN (SELECT i2.event_ref, count(*) AS released FROM registration_import i2 JOIN registrations x2 " +
+                "ON x2.event_id = i2.event_ref AND x2.participant_id = i2.participant_id WHERE i2.reject_reason IS NULL " +
+                "AND x2.status = 'CONFIRMED' AND coalesce(nullif(upper(trim(i2.status)), ''), 'CONFIRMED') <> 'CONFIRMED' " +
+                "GROUP BY i2.event_ref) f ON f.event_ref = i.event_ref " +
+                "WHERE i.reject_reason IS NULL AND e.max_participants IS NOT NULL " +
+                "AND coalesce(nullif(upper(trim(i.status)), ''), 'CONFIRMED') = 'CONFIRMED' " +
+                "AND x.status IS DISTINCT FROM 'CONFIRMED') s " +
+                "WHERE s.line_no = r.line_no AND s.seat > s.free"
+        );
+        String merge = "WITH merged AS (" +
+                "INSERT INTO registrations (event_id, participant_id, status, payment_status, notes) " +
+                "SELECT event_ref, participant_id, coalesce(nullif(upper(trim(status)), ''), 'CONFIRMED'), " +
+                "coalesce(nullif(upper(trim(payment_status)), ''), 'PENDING'), nullif(notes, '') " +
+                "FROM registration_import WHERE reject_reason IS NULL ORDER BY line_no " +
+                "ON CONFLICT (event_id, participant_id) DO UPDATE SET status = EXCLUDED.status, " +
+                "payment_status = EXCLUDED.payment_status, notes = EXCLUDED.notes " +
+                "RETURNING (xmax = 0) AS inserted) " +
+            "SELECT count(*) FILTER (WHERE inserted), count(*) FILTER (WHERE NOT inserted) FROM merged";
+
+        return runImport(csvFile, errorFile, listener, "registration_import",
+            "CREATE TEMP TABLE registration_import (line_no BIGSERIAL, event_id TEXT, participant_email TEXT, " +
+                "status TEXT, payment_status TEXT, notes TEXT, event_ref INTEGER, participant_id INTEGER, reject_reason TEXT) ON COMMIT DROP",
+            "COPY registration_import (event_id, participant_email, status, payment_status, notes) " +
+                "FROM STDIN WITH (FORMAT csv, HEADER true)",
+            rejectRules, merge,
+            "COPY (SELECT line_no, event_id, participant_email, status, payment_status, notes, reject_reason " +
+                "FROM registration_import WHERE reject_reason IS NOT NULL ORDER BY line_no) TO STDOUT WITH (FORMAT csv, HEADER true)");
+    }
+
+    private static Optional<ImportResult> runImport(Path csvFile, Path errorFile, ProgressListener listener,
+                                                    String stagingTable, String createStaging, String copyIn, List<String> rejectRules,
+                                                    String merge, String copyOutRejects) {
+        long started = System.nanoTime();
+        return DatabaseConnection.executeWithConnection(conn -> {
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute(createStaging);
+            }
+
+            CopyManager copyManager = conn.unwrap(PGConnection.class).getCopyAPI();
+            long rowsRead;
+            long bytesRead;
+            try (CountingReader reader = new CountingReader(
+                    Files.newBufferedReader(csvFile, StandardCharsets.UTF_8), started, listener)) {
+                rowsRead = copyManager.copyIn(copyIn, reader);
+                bytesRead = reader.bytes;
+            } catch (IOException e) {
+                throw new SQLException("Unable to read import file " + csvFile + ": " + e.getMessage(), e);
+            }
+
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("ANALYZE " + stagingTable);
+                for (String rule : rejectRules) {
+                    stmt.execute(rule);
+                }
+            }
+
+            long inserted;
+            long updated;
+            try (PreparedStatement stmt = conn.prepareStatement(merge);
+                 ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                inserted = rs.getLong(1);
+                updated = rs.getLong(2);
+            }
+
+            long rejected;
+            try (Writer writer = Files.newBufferedWriter(errorFile, StandardCharsets.UTF_8)) {
+                rejected = copyManager.copyOut(copyOutRejects, writer);
+            } catch (IOException e) {
+                throw new SQLException("Unable to write error file " + errorFile + ": " + e.getMessage(), e);
+            }
+
+            conn.commit();
+            return new ImportResult(rowsRead, inserted, updated, rejected, bytesRead,
+                (System.nanoTime() - started) / 1_000_000);
+        });
+    }
+
+    private static class CountingReader extends FilterReader {
+        private final long started;
+        private final ProgressListener listener;
+        private long bytes;
+        private long lines;
+        private long nextReport = PROGRESS_INTERVAL_ROWS;
+
+        CountingReader(Reader in, long started, ProgressListener listener) {
+            super(in);
+            this.started = started;
+            this.listener = listener;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int c = super.read();
+            if (c >= 0) {
+                count(c);
+            }
+            return c;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            for (int i = offset; i < offset + n; i++) {
+                count(buffer[i]);
+            }
+            return n;
+        }
+
+        private void count(int c) {
+            bytes += c < 0x80 ? 1 : c < 0x800 ? 2 : 3;
+            if (c == '\n' && ++lines >= nextReport) {
+                nextReport += PROGRESS_INTERVAL_ROWS;
+                if (listener != null) {
+                    listener.onProgress(lines, bytes, System.nanoTime() - started);
+                }
+            }
+        }
+    }
+}
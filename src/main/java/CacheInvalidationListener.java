@@ -0,0 +1,295 @@
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+/*
+ * Keeps this node's caches (event and participant entity caches, the registration index and the
+ * event date index) in step with writes made by other nodes. Triggers on events, participants and
+ * registrations send one NOTIFY per statement on academic_events_changes ('e:1,2', 'p:7', 'r:*'),
+ * delivered at commit. A daemon thread LISTENs on its own connection to the primary, outside the
+ * pool, and after the first notification keeps collecting for cache.invalidation.coalesceMillis so a
+ * burst is applied once: cached rows are dropped and indexed rows re-read. '*' or more than
+ * cache.invalidation.maxIds ids for one table refreshes that table's caches in full.
+ *
+ * Notifications sent while the listener is not connected are lost, so every successful LISTEN, the
+ * first included, is followed by a full refresh. This node's own writes come back too; applying
+ * them again only costs a reload.
+ */
+public class CacheInvalidationListener {
+    public static final String CHANNEL = "academic_events_changes";
+    private static final int POLL_MILLIS = 500;
+
+    public static class Config {
+        public final String url;
+        public final String username;
+        public final String password;
+        public final long coalesceMillis;
+        public final long reconnectMillis;
+        public final long keepaliveMillis;
+        public final int maxIds;
+
+        public Config(String url, String username, String password, long coalesceMillis,
+                      long reconnectMillis, long keepaliveMillis, int maxIds) {
+            this.url = url;
+            this.username = username;
+            this.password = password;
+            this.coalesceMillis = coalesceMillis;
+            this.reconnectMillis = reconnectMillis;
+            this.keepaliveMillis = keepaliveMillis;
+            this.maxIds = maxIds;
+        }
+
+        public static Config fromProperties(Properties props) {
+            ConnectionPool.PoolConfig pool = ConnectionPool.PoolConfig.fromProperties(props);
+            return new Config(pool.url, pool.username, pool.password,
+                Long.parseLong(props.getProperty("cache.invalidation.coalesceMillis", "50")),
+                Long.parseLong(props.getProperty("cache.invalidation.reconnectMillis", "5000")),
+                Long.parseLong(props.getProperty("cache.invalidation.keepaliveMillis", "10000")),
+                Integer.parseInt(props.getProperty("cache.invalidation.maxIds", "1000")));
+        }
+    }
+
+    public static class InvalidationStats {
+        public final boolean connected;
+        public final long notifications;
+        public final long batches;
+        public final long refreshedRows;
+        public final long fullRefreshes;
+        public final long reconnects;
+
+        public InvalidationStats(boolean connected, long notifications, long batches, long refreshedRows,
+                                 long fullRefreshes, long reconnects) {
+            this.connected = connected;
+            this.notifications = notifications;
+            this.batches = batches;
+            this.refreshedRows = refreshedRows;
+            this.fullRefreshes = fullRefreshes;
+            this.reconnects = reconnects;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("InvalidationStats{connected=%s, notifications=%d, batches=%d, refreshedRows=%d, fullRefreshes=%d, reconnects=%d}",
+                connected, notifications, batches, refreshedRows, fullRefreshes, reconnects);
+        }
+    }
+
+    // Ids changed per table ('e', 'p', 'r') since the last apply; tables in everything are refreshed in full
+    private static class Changes {
+        final Map<Character, Set<Integer>> ids = new HashMap<>();
+        final Set<Character> everything = new HashSet<>();
+
+        void add(String payload, int maxIds) {
+            int colon = payload.indexOf(':');
+            char table = payload.isEmpty() ? '?' : payload.charAt(0);
+            if (colon != 1 || "epr".indexOf(table) < 0) {
+                everything.addAll(List.of('e', 'p', 'r'));
+                return;
+            }
+            if (everything.contains(table)) {
+                return;
+            }
+            String list = payload.substring(2);
+            Set<Integer> pending = ids.computeIfAbsent(table, key -> new HashSet<>());
+            try {
+                if (!list.equals("*")) {
+                    for (String id : list.split(",")) {
+                        pending.add(Integer.parseInt(id));
+                    }
+                }
+            } catch (NumberFormatException e) {
+                list = "*";
+            }
+            if (list.equals("*") || pending.size() > maxIds) {
+                ids.remove(table);
+                everything.add(table);
+            }
+        }
+
+        boolean isEmpty() {
+            return ids.isEmpty() && everything.isEmpty();
+        }
+    }
+
+    private static volatile CacheInvalidationListener running;
+
+    private final Config config;
+    private final Thread thread;
+    private volatile boolean stopped;
+    private volatile boolean connected;
+    private final LongAdder notifications = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder refreshedRows = new LongAdder();
+    private final LongAdder fullRefreshes = new LongAdder();
+    private final LongAdder reconnects = new LongAdder();
+
+    public CacheInvalidationListener(Config config) {
+        this.config = config;
+        this.thread = new Thread(this::run, "cache-invalidation");
+        this.thread.setDaemon(true);
+    }
+
+    public static boolean startIfConfigured() {
+        Optional<Properties> props = DatabaseConnection.loadDatabaseProperties();
+        boolean configured = props
+            .map(p -> Boolean.parseBoolean(p.getProperty("cache.invalidation.enabled", "false")))
+            .orElse(false);
+        if (configured) {
+            start(Config.fromProperties(props.get()));
+        }
+        return configured;
+    }
+
+    public static synchronized void start(Config config) {
+        stop();
+        CacheInvalidationListener listener = new CacheInvalidationListener(config);
+        listener.thread.start();
+        running = listener;
+    }
+
+    public static synchronized void stop() {
+        CacheInvalidationListener listener = running;
+        running = null;
+        if (listener != null) {
+            listener.stopped = true;
+            try {
+                listener.thread.join(POLL_MILLIS * 4L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public static Optional<InvalidationStats> getStats() {
+        return Optional.ofNullable(running).map(CacheInvalidationListener::stats);
+    }
+
+    public InvalidationStats stats() {
+        return new InvalidationStats(connected, notifications.sum(), batches.sum(), refreshedRows.sum(),
+            fullRefreshes.sum(), reconnects.sum());
+    }
+
+    private void run() {
+        boolean everConnected = false;
+        while (!stopped) {
+            try (Connection conn = listen()) {
+                connected = true;
+                // the indexes were built before this LISTEN, so even the first connect may have missed writes
+                refreshAll();
+                if (everConnected) {
+                    reconnects.increment();
+                }
+                everConnected = true;
+                receive(conn);
+            } catch (SQLException e) {
+                if (!stopped) {
+                    System.err.println("Cache invalidation listener disconnected: " + e.getMessage());
+                }
+            } catch (RuntimeException e) {
+                System.err.println("Cache invalidation failed: " + e.getMessage());
+            } finally {
+                connected = false;
+            }
+            pause(config.reconnectMillis);
+        }
+    }
+
+    private Connection listen() throws SQLException {
+        Properties props = new Properties();
+        props.setProperty("user", config.username);
+        props.setProperty("password", config.password);
+        props.setProperty("ApplicationName", "cache-invalidation");
+        Connection conn = DriverManager.getConnection(config.url, props);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("LISTEN " + CHANNEL);
+        } catch (SQLException e) {
+            conn.close();
+            throw e;
+        }
+        return conn;
+    }
+
+    private void receive(Connection conn) throws SQLException {
+        PGConnection pg = conn.unwrap(PGConnection.class);
+        long idleSince = System.nanoTime();
+        while (!stopped) {
+            PGNotification[] received = pg.getNotifications(POLL_MILLIS);
+            if (received == null || received.length == 0) {
+                // a half-open socket never errors on its own; an idle poll does not touch the server
+                if (System.nanoTime() - idleSince > config.keepaliveMillis * 1_000_000L) {
+                    if (!conn.isValid(5)) {
+                        throw new SQLException("Listener connection is no longer valid");
+                    }
+                    idleSince = System.nanoTime();
+                }
+                continue;
+            }
+            Changes changes = new Changes();
+            collect(received, changes);
+            long deadline = System.nanoTime() + config.coalesceMillis * 1_000_000L;
+            for (long left = config.coalesceMillis; left > 0; left = (deadline - System.nanoTime()) / 1_000_000L) {
+                collect(pg.getNotifications((int) left), changes);
+            }
+            apply(changes);
+            idleSince = System.nanoTime();
+        }
+    }
+
+    private void collect(PGNotification[] received, Changes changes) {
+        if (received == null) {
+            return;
+        }
+        for (PGNotification notification : received) {
+            if (CHANNEL.equals(notification.getName())) {
+                notifications.increment();
+                changes.add(notification.getParameter(), config.maxIds);
+            }
+        }
+    }
+
+    private void apply(Changes changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        batches.increment();
+        for (char table : changes.everything) {
+            fullRefreshes.increment();
+            switch (table) {
+                case 'e' -> EventService.refreshAllCached();
+                case 'p' -> ParticipantService.refreshAllCached();
+                default -> RegistrationService.refreshAllCached();
+            }
+        }
+        changes.ids.forEach((table, ids) -> {
+            refreshedRows.add(ids.size());
+            switch (table) {
+                case 'e' -> EventService.refreshCached(ids);
+                case 'p' -> ParticipantService.refreshCached(ids);
+                default -> RegistrationService.refreshCached(ids);
+            }
+        });
+    }
+
+    private void refreshAll() {
+        fullRefreshes.increment();
+        EventService.refreshAllCached();
+        ParticipantService.refreshAllCached();
+        RegistrationService.refreshAllCached();
+    }
+
+    private void pause(long millis) {
+        long deadline = System.nanoTime() + millis * 1_000_000L;
+        while (!stopped && System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(Math.min(POLL_MILLIS, millis));
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,472 @@
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+public class ConnectionPool {
+
+    public static class PoolConfig {
+        public final String url;
+        public final String username;
+        public final String password;
+        public final int minSize;
+        public final int maxSize;
+        public final long acquireTimeoutMillis;
+        public final long idleTimeoutMillis;
+        public final int validationTimeoutSeconds;
+        public final int statementCacheSize;
+        public final int prepareThreshold;
+
+        public PoolConfig(String url, String username, String password, int minSize, int maxSize,
+                         long acquireTimeoutMillis, long idleTimeoutMillis, int validationTimeoutSeconds,
+                         int statementCacheSize, int prepareThreshold) {
+            this.url = url;
+            this.username = username;
+            this.password = password;
+            this.minSize = Math.max(0, Math.min(minSize, maxSize));
+            this.maxSize = Math.max(1, maxSize);
+            this.acquireTimeoutMillis = acquireTimeoutMillis;
+            this.idleTimeoutMillis = idleTimeoutMillis;
+            this.validationTimeoutSeconds = validationTimeoutSeconds;
+            this.statementCacheSize = Math.max(0, statementCacheSize);
+            this.prepareThreshold = prepareThreshold;
+        }
+
+        public static PoolConfig fromProperties(Properties props) {
+            return new PoolConfig(
+                props.getProperty("db.url", "jdbc:postgresql://localhost:5432/academic_events_db"),
+                props.getProperty("db.username", "postgres"),
+                props.getProperty("db.password", "password"),
+                Integer.parseInt(props.getProperty("db.pool.minSize", "2")),
+                Integer.parseInt(props.getProperty("db.pool.maxSize", "10")),
+                Long.parseLong(props.getProperty("db.pool.acquireTimeoutMillis", "5000")),
+                Long.parseLong(props.getProperty("db.pool.idleTimeoutMillis", "300000")),
+                Integer.parseInt(props.getProperty("db.pool.validationTimeoutSeconds", "2")),
+                Integer.parseInt(props.getProperty("db.pool.statementCacheSize", "64")),
+                Integer.parseInt(props.getProperty("db.prepareThreshold", "5"))
+            );
+        }
+
+        public PoolConfig withUrl(String otherUrl) {
+            return new PoolConfig(otherUrl, username, password, minSize, maxSize, acquireTimeoutMillis,
+                idleTimeoutMillis, validationTimeoutSeconds, statementCacheSize, prepareThreshold);
+        }
+    }
+
+    public static class PoolStats {
+        public final int active;
+        public final int idle;
+        public final int waiting;
+        public final int total;
+        public final int maxSize;
+        public final long acquired;
+        public final long timeouts;
+        public final double averageAcquireMillis;
+
+        public PoolStats(int active, int idle, int waiting, int total, int maxSize,
+                        long acquired, long timeouts, double averageAcquireMillis) {
+            this.active = active;
+            this.idle = idle;
+            this.waiting = waiting;
+            this.total = total;
+            this.maxSize = maxSize;
+            this.acquired = acquired;
+            this.timeouts = timeouts;
+            this.averageAcquireMillis = averageAcquireMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("PoolStats{active=%d, idle=%d, waiting=%d, total=%d/%d, acquired=%d, timeouts=%d, avgAcquire=%.3fms}",
+                active, idle, waiting, total, maxSize, acquired, timeouts, averageAcquireMillis);
+        }
+    }
+
+    // A borrowed connection and the pool it came from, for work that needs more connections to the same server
+    public static class Lease {
+        public final Connection connection;
+        public final ConnectionPool pool;
+
+        public Lease(Connection connection, ConnectionPool pool) {
+            this.connection = connection;
+            this.pool = pool;
+        }
+    }
+
+    private static class IdleConnection {
+        final Connection physical;
+        final long idleSince;
+
+        IdleConnection(Connection physical, long idleSince) {
+            this.physical = physical;
+            this.idleSince = idleSince;
+        }
+    }
+
+    private final PoolConfig config;
+    private final Semaphore permits;
+    private final BlockingDeque<IdleConnection> idle = new LinkedBlockingDeque<>();
+    private final Map<Connection, StatementCache> statementCaches = new ConcurrentHashMap<>();
+    private final AtomicInteger total = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder acquireNanos = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder connectFailures = new LongAdder();
+    private final ScheduledExecutorService evictor;
+    private volatile boolean closed;
+    private volatile SlowQueryLog slowQueryLog;
+
+    public ConnectionPool(PoolConfig config) {
+        this.config = config;
+        this.permits = new Semaphore(config.maxSize, true);
+        this.evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "connection-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1000, config.idleTimeoutMillis / 2);
+        evictor.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    public void prewarm() {
+        while (total.get() < config.minSize) {
+            Optional<Connection> conn = openPhysical();
+            if (conn.isEmpty()) {
+                return;
+            }
+            idle.offerLast(new IdleConnection(conn.get(), System.nanoTime()));
+        }
+    }
+
+    public Optional<Connection> borrow() {
+        if (closed) {
+            return Optional.empty();
+        }
+        long start = System.nanoTime();
+        waiting.incrementAndGet();
+        try {
+            if (!permits.tryAcquire(config.acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                timeouts.increment();
+                System.err.println("Connection pool exhausted: no connection available within " +
+                    config.acquireTimeoutMillis + "ms");
+                return Optional.empty();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        } finally {
+            waiting.decrementAndGet();
+        }
+
+        Optional<Connection> physical = takeValidIdle().or(this::openPhysical);
+        if (physical.isEmpty()) {
+            permits.release();
+            return Optional.empty();
+        }
+        active.incrementAndGet();
+        acquired.increment();
+        acquireNanos.add(System.nanoTime() - start);
+        return Optional.of(wrap(physical.get()));
+    }
+
+    public Optional<Lease> lease() {
+        return borrow().map(connection -> new Lease(connection, this));
+    }
+
+    // New connections the server refused or that could not be opened; acquire timeouts are not counted
+    public long connectFailures() {
+        return connectFailures.sum();
+    }
+
+    // Statements handed out after this call are timed against the log's threshold
+    public void setSlowQueryLog(SlowQueryLog log) {
+        this.slowQueryLog = log;
+    }
+
+    public PoolStats stats() {
+        long count = acquired.sum();
+        double average = count == 0 ? 0.0 : acquireNanos.sum() / (double) count / 1_000_000.0;
+        return new PoolStats(active.get(), idle.size(), waiting.get(), total.get(), config.maxSize,
+            count, timeouts.sum(), average);
+    }
+
+    public void close() {
+        closed = true;
+        evictor.shutdownNow();
+        IdleConnection entry;
+        while ((entry = idle.pollFirst()) != null) {
+            discard(entry.physical);
+        }
+    }
+
+    private Optional<Connection> takeValidIdle() {
+        IdleConnection entry;
+        while ((entry = idle.pollFirst()) != null) {
+            try {
+                if (entry.physical.isValid(config.validationTimeoutSeconds)) {
+                    return Optional.of(entry.physical);
+                }
+            } catch (SQLException e) {
+                // fall through and discard the broken connection
+            }
+            discard(entry.physical);
+        }
+        return Optional.empty();
+    }
+
+    private Optional<Connection> openPhysical() {
+        try {
+            Properties props = new Properties();
+            props.setProperty("user", config.username);
+            props.setProperty("password", config.password);
+            props.setProperty("prepareThreshold", Integer.toString(config.prepareThreshold));
+            Connection conn = DriverManager.getConnection(config.url, props);
+            total.incrementAndGet();
+            if (config.statementCacheSize > 0) {
+                statementCaches.put(conn, new StatementCache(config.statementCacheSize));
+            }
+            return Optional.of(conn);
+        } catch (SQLException e) {
+            connectFailures.increment();
+            System.err.println("Database connection error: " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private void release(Connection physical) {
+        active.decrementAndGet();
+        StatementCache statements = statementCaches.get(physical);
+        if (statements != null) {
+            statements.checkInAll();
+        }
+        try {
+            if (closed || physical.isClosed()) {
+                discard(physical);
+                return;
+            }
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            if (physical.isReadOnly()) {
+                physical.setReadOnly(false);
+            }
+            if (physical.getTransactionIsolation() != Connection.TRANSACTION_READ_COMMITTED) {
+                physical.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+            }
+            physical.clearWarnings();
+            idle.offerFirst(new IdleConnection(physical, System.nanoTime()));
+        } catch (SQLException e) {
+            discard(physical);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void discard(Connection physical) {
+        total.decrementAndGet();
+        statementCaches.remove(physical);
+        try {
+            physical.close();
+        } catch (SQLException e) {
+            // already broken, nothing left to release
+        }
+    }
+
+    private void evictIdle() {
+        long cutoff = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(config.idleTimeoutMillis);
+        IdleConnection oldest;
+        while (total.get() > config.minSize && (oldest = idle.peekLast()) != null && oldest.idleSince < cutoff) {
+            if (idle.removeLastOccurrence(oldest)) {
+                discard(oldest.physical);
+            }
+        }
+        prewarm();
+    }
+
+    private Connection wrap(Connection physical) {
+        AtomicBoolean released = new AtomicBoolean();
+        StatementCache statements = statementCaches.get(physical);
+        QueryCancellation cancellation = QueryCancellation.current().orElse(null);
+        List<Statement> tracked = cancellation == null ? null : new ArrayList<>();
+        SlowQueryLog slowLog = slowQueryLog;
+        InvocationHandler handler = (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "prepareStatement":
+                    if (statements != null && args.length == 1 && !released.get()) {
+                        return track(timed(slowLog, statements.checkOut(physical, (String) args[0]), args),
+                            cancellation, tracked);
+                    }
+                    break;
+                case "close":
+                    if (released.compareAndSet(false, true)) {
+                        if (cancellation != null) {
+                            // waits out a running cancel(), so nothing can cancel the next borrower's statements
+                            cancellation.unregister(tracked);
+                        }
+                        release(physical);
+                    }
+                    return null;
+                case "isClosed":
+                    return released.get() || physical.isClosed();
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(physical)) {
+                        return physical.unwrap((Class<?>) args[0]);
+                    }
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled" + physical;
+                default:
+                    break;
+            }
+            if (released.get()) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            Object result = invoke(physical, method, args);
+            return result instanceof Statement ? track(timed(slowLog, (Statement) result, args), cancellation, tracked) : result;
+        };
+        return (Connection) Proxy.newProxyInstance(
+            ConnectionPool.class.getClassLoader(), new Class<?>[] { Connection.class }, handler);
+    }
+
+    // Statements created while a QueryCancellation is running become cancellable from its owner's thread
+    private static Statement track(Statement statement, QueryCancellation cancellation, List<Statement> tracked) throws SQLException {
+        if (cancellation == null) {
+            return statement;
+        }
+        try {
+            cancellation.register(statement);
+        } catch (SQLException e) {
+            statement.close();
+            throw e;
+        }
+        tracked.add(statement);
+        return statement;
+    }
+
+    // prepareStatement/prepareCall carry their SQL as the first argument; createStatement has none
+    private static Statement timed(SlowQueryLog slowLog, Statement statement, Object[] args) {
+        if (slowLog == null) {
+            return statement;
+        }
+        String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+        return slowLog.wrap(statement, sql);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /*
+     * Keeps PreparedStatements open across borrows of the same physical connection, so the driver's
+     * server-side prepared statement (and the plan behind it) survives past a single query. A statement
+     * that is already checked out is never handed out twice; the caller gets an uncached one instead.
+     */
+    private static class StatementCache {
+        private final int maxSize;
+        private final Map<String, PreparedStatement> statements;
+        private final Set<PreparedStatement> checkedOut = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        StatementCache(int maxSize) {
+            this.maxSize = maxSize;
+            this.statements = new LinkedHashMap<>(16, 0.75f, true);
+        }
+
+        synchronized PreparedStatement checkOut(Connection physical, String sql) throws SQLException {
+            PreparedStatement cached = statements.get(sql);
+            if (cached != null && checkedOut.contains(cached)) {
+                return physical.prepareStatement(sql);
+            }
+            if (cached == null || cached.isClosed()) {
+                cached = physical.prepareStatement(sql);
+                statements.put(sql, cached);
+                evictEldest();
+            }
+            checkedOut.add(cached);
+            return wrapStatement(cached);
+        }
+
+        synchronized void checkInAll() {
+            checkedOut.clear();
+        }
+
+        private synchronized void checkIn(PreparedStatement statement) {
+            if (!checkedOut.remove(statement)) {
+                return;
+            }
+            try {
+                statement.clearParameters();
+                statement.clearBatch();
+                statement.clearWarnings();
+                statement.setMaxRows(0);
+                statement.setQueryTimeout(0);
+                statement.setFetchSize(0);
+            } catch (SQLException e) {
+                statements.values().remove(statement);
+                closeQuietly(statement);
+            }
+        }
+
+        private void evictEldest() {
+            Iterator<PreparedStatement> eldest = statements.values().iterator();
+            while (statements.size() > maxSize && eldest.hasNext()) {
+                PreparedStatement statement = eldest.next();
+                if (!checkedOut.contains(statement)) {
+                    eldest.remove();
+                    closeQuietly(statement);
+                }
+            }
+        }
+
+        private PreparedStatement wrapStatement(PreparedStatement statement) {
+            AtomicBoolean returned = new AtomicBoolean();
+            InvocationHandler handler = (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "close":
+                        if (returned.compareAndSet(false, true)) {
+                            checkIn(statement);
+                        }
+                        return null;
+                    case "isClosed":
+                        return returned.get() || statement.isClosed();
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    default:
+                        break;
+                }
+                if (returned.get()) {
+                    throw new SQLException("Statement has already been closed");
+                }
+                return invoke(statement, method, args);
+            };
+            return (PreparedStatement) Proxy.newProxyInstance(
+                ConnectionPool.class.getClassLoader(), new Class<?>[] { PreparedStatement.class }, handler);
+        }
+
+        private static void closeQuietly(Statement statement) {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                // the connection is gone or the statement was already closed
+            }
+        }
+    }
+}
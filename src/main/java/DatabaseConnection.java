@@ -1,7 +1,14 @@
 import java.sql.*;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import java.io.InputStream;
 import java.io.IOException;
 
@@ -15,6 +22,7 @@ public class DatabaseConnection {
             }
             Properties props = new Properties();
             props.load(input);
+            applyOverrides(props);
             return Optional.of(props);
         } catch (IOException e) {
             System.err.println("Error loading database properties: " + e.getMessage());
@@ -22,21 +30,106 @@ public class DatabaseConnection {
         }
     }
     
-    public static Optional<Connection> createConnection() {
-        return loadDatabaseProperties()
-            .map(props -> {
-                try {
-                    String url = props.getProperty("db.url", "jdbc:postgresql://localhost:5432/academic_events_db");
-                    String username = props.getProperty("db.username", "postgres");
-                    String password = props.getProperty("db.password", "password");
-                    
-                    return DriverManager.getConnection(url, username, password);
-                } catch (SQLException e) {
-                    System.err.println("Database connection error: " + e.getMessage());
-                    return null;
+    // DB_URL / DB_USERNAME / DB_PASSWORD (as set by docker-compose), DB_REPLICA_URLS and -Ddb.* / -Devents.* / -Dserver.* / -Dasync.* / -Dmetrics.* style system properties win over the file
+    private static void applyOverrides(Properties props) {
+        Map<String, String> environment = Map.of("DB_URL", "db.url", "DB_USERNAME", "db.username", "DB_PASSWORD", "db.password",
+            "DB_REPLICA_URLS", "db.replica.urls");
+        environment.forEach((variable, key) -> {
+            String value = System.getenv(variable);
+            if (value != null && !value.isEmpty()) {
+                props.setProperty(key, value);
+            }
+        });
+        System.getProperties().stringPropertyNames().stream()
+            .filter(name -> name.startsWith("db.") || name.startsWith("cache.") || name.startsWith("registrations.")
+                || name.startsWith("events.") || name.startsWith("server.") || name.startsWith("async.") || name.startsWith("metrics."))
+            .forEach(name -> props.setProperty(name, System.getProperty(name)));
+    }
+    
+    private static volatile ConnectionPool pool;
+    private static SlowQueryLog slowQueryLog;
+    private static volatile ReplicaRouter replicaRouter;
+    
+    public static Optional<ConnectionPool> getPool() {
+        ConnectionPool current = pool;
+        if (current != null) {
+            return Optional.of(current);
+        }
+        synchronized (DatabaseConnection.class) {
+            if (pool == null) {
+                Optional<Properties> props = loadDatabaseProperties();
+                Optional<ConnectionPool.PoolConfig> config = props.map(ConnectionPool.PoolConfig::fromProperties);
+                ConnectionPool created = config.map(ConnectionPool::new).orElse(null);
+                if (created != null) {
+                    created.prewarm();
+                    attachSlowQueryLog(created);
+                    ReplicaRouter.RouterConfig routing = ReplicaRouter.RouterConfig.fromProperties(props.get());
+                    if (!routing.urls.isEmpty()) {
+                        replicaRouter = new ReplicaRouter(routing, created, config.get());
+                    }
                 }
-            })
-            .filter(conn -> conn != null);
+                pool = created;
+            }
+            return Optional.ofNullable(pool);
+        }
+    }
+    
+    // db.slowQuery.thresholdMillis=0 disables the slow query log
+    private static void attachSlowQueryLog(ConnectionPool target) {
+        SlowQueryLog.Config config = loadDatabaseProperties()
+            .map(SlowQueryLog.Config::fromProperties)
+            .filter(SlowQueryLog.Config::isEnabled)
+            .orElse(null);
+        if (config != null) {
+            slowQueryLog = new SlowQueryLog(config, target::borrow);
+            target.setSlowQueryLog(slowQueryLog);
+        }
+    }
+
+    public static Optional<SlowQueryLog.SlowQueryStats> getSlowQueryStats() {
+        return Optional.ofNullable(slowQueryLog).map(SlowQueryLog::stats);
+    }
+
+    public static Optional<Connection> createConnection() {
+        return getPool().flatMap(ConnectionPool::borrow);
+    }
+    
+    // Read-only work goes to a replica when db.replica.urls is set, otherwise to the primary pool
+    public static Optional<Connection> createReadConnection() {
+        return leaseReadConnection().map(lease -> lease.connection);
+    }
+    
+    private static Optional<ConnectionPool.Lease> leaseConnection() {
+        return getPool().flatMap(ConnectionPool::lease);
+    }
+    
+    private static Optional<ConnectionPool.Lease> leaseReadConnection() {
+        getPool();
+        ReplicaRouter router = replicaRouter;
+        return router == null ? leaseConnection() : router.leaseForRead();
+    }
+    
+    public static Optional<ReplicaRouter.RouterStats> getReplicaStats() {
+        return Optional.ofNullable(replicaRouter).map(ReplicaRouter::stats);
+    }
+    
+    public static Optional<ConnectionPool.PoolStats> getPoolStats() {
+        return Optional.ofNullable(pool).map(ConnectionPool::stats);
+    }
+    
+    public static synchronized void shutdown() {
+        if (replicaRouter != null) {
+            replicaRouter.close();
+            replicaRouter = null;
+        }
+        if (slowQueryLog != null) {
+            slowQueryLog.close();
+            slowQueryLog = null;
+        }
+        if (pool != null) {
+            pool.close();
+            pool = null;
+        }
     }
     
     @FunctionalInterface
@@ -44,16 +137,185 @@ public class DatabaseConnection {
         T execute(Connection conn) throws SQLException;
     }
     
+    // Gets the pool the connection came from as well, for work that borrows more connections to the same server
+    @FunctionalInterface
+    public interface ServerOperation<T> {
+        T execute(Connection conn, ConnectionPool server) throws SQLException;
+    }
+    
     public static <T> Optional<T> executeWithConnection(DatabaseOperation<T> operation) {
-        return createConnection()
-            .map(conn -> {
-                try (Connection connection = conn) {
-                    return operation.execute(connection);
+        return execute((conn, server) -> operation.execute(conn), false, false);
+    }
+    
+    // For operations that never write: they may run on a replica (see ReplicaRouter)
+    public static <T> Optional<T> executeReadOnly(DatabaseOperation<T> operation) {
+        return execute((conn, server) -> operation.execute(conn), true, true);
+    }
+    
+    public static <T> Optional<T> executeReadOnlyOnServer(ServerOperation<T> operation) {
+        return execute(operation, true, true);
+    }
+    
+    // Reads that fill caches and in-memory indexes: a replica may not have replayed the write or
+    // NOTIFY that triggered them yet, so they always see the primary
+    public static <T> Optional<T> executeReadOnlyOnPrimary(DatabaseOperation<T> operation) {
+        return execute((conn, server) -> operation.execute(conn), true, false);
+    }
+    
+    private static <T> Optional<T> execute(ServerOperation<T> operation, boolean readOnly, boolean replicaAllowed) {
+        QueryMetrics.Operation metrics = QueryMetrics.forCaller();
+        Optional<ConnectionPool.Lease> lease = acquire(metrics, replicaAllowed);
+        if (lease.isEmpty()) {
+            return Optional.empty();
+        }
+        QueryMetrics.Execution execution = QueryMetrics.begin(metrics);
+        String failedSqlState = null;
+        try (Connection conn = lease.get().connection) {
+            T result = operation.execute(conn, lease.get().pool);
+            ReplicaRouter router = replicaRouter;
+            if (!readOnly && router != null) {
+                router.recordWrite(conn);
+            }
+            return Optional.ofNullable(result);
+        } catch (SQLException e) {
+            failedSqlState = e.getSQLState() == null ? "unknown" : e.getSQLState();
+            // a cancelled async caller has already stopped waiting for this result
+            if (!QueryCancellation.isCurrentCancelled()) {
+                System.err.println("Database operation error: " + e.getMessage());
+            }
+            return Optional.empty();
+        } catch (RuntimeException e) {
+            failedSqlState = "runtime";
+            throw e;
+        } finally {
+            QueryMetrics.end(execution, failedSqlState);
+        }
+    }
+    
+    private static Optional<ConnectionPool.Lease> acquire(QueryMetrics.Operation metrics, boolean replicaAllowed) {
+        long start = System.nanoTime();
+        Optional<ConnectionPool.Lease> connection = replicaAllowed ? leaseReadConnection() : leaseConnection();
+        if (connection.isPresent()) {
+            QueryMetrics.acquired(metrics, System.nanoTime() - start);
+        } else {
+            QueryMetrics.acquireFailed(metrics);
+        }
+        return connection;
+    }
+    
+    @FunctionalInterface
+    public interface StatementBinder {
+        void bind(PreparedStatement stmt) throws SQLException;
+    }
+    
+    private static final class StreamingConfig {
+        static final int FETCH_SIZE = loadDatabaseProperties()
+            .map(props -> Integer.parseInt(props.getProperty("db.fetchSize", "1000")))
+            .orElse(1000);
+    }
+    
+    public static int getFetchSize() {
+        return StreamingConfig.FETCH_SIZE;
+    }
+    
+    // Empty when the query failed, so callers can tell that apart from a table with no rows
+    public static <T> OptionalLong forEachRow(String sql, StatementBinder binder, Function<ResultSet, T> mapper, Consumer<T> consumer) {
+        return forEachRow(sql, binder, mapper, consumer, true);
+    }
+    
+    // For building in-memory indexes (see executeReadOnlyOnPrimary)
+    public static <T> OptionalLong forEachRowOnPrimary(String sql, StatementBinder binder, Function<ResultSet, T> mapper, Consumer<T> consumer) {
+        return forEachRow(sql, binder, mapper, consumer, false);
+    }
+    
+    private static <T> OptionalLong forEachRow(String sql, StatementBinder binder, Function<ResultSet, T> mapper, Consumer<T> consumer,
+                                               boolean replicaAllowed) {
+        Optional<Long> result = execute((conn, server) -> {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = prepareCursor(conn, sql, binder);
+                 ResultSet rs = stmt.executeQuery()) {
+                long rows = 0;
+                while (rs.next()) {
+                    consumer.accept(mapper.apply(rs));
+                    rows++;
+                }
+                conn.commit();
+                return rows;
+            }
+        }, true, replicaAllowed);
+        return result.map(OptionalLong::of).orElse(OptionalLong.empty());
+    }
+    
+    public static <T> Stream<T> streamQuery(String sql, StatementBinder binder, Function<ResultSet, T> mapper) {
+        QueryMetrics.Operation metrics = QueryMetrics.forCaller();
+        Optional<ConnectionPool.Lease> lease = acquire(metrics, true);
+        if (lease.isEmpty()) {
+            return Stream.empty();
+        }
+        // open from here until the stream is closed, like the callback in execute()
+        QueryMetrics.Execution execution = QueryMetrics.beginDetached(metrics);
+        Connection conn = lease.get().connection;
+        PreparedStatement stmt = null;
+        ResultSet rs;
+        try {
+            conn.setAutoCommit(false);
+            stmt = prepareCursor(conn, sql, binder);
+            rs = stmt.executeQuery();
+        } catch (SQLException e) {
+            System.err.println("Database operation error: " + e.getMessage());
+            closeQuietly(stmt, conn);
+            QueryMetrics.endDetached(execution, e.getSQLState() == null ? "unknown" : e.getSQLState());
+            return Stream.empty();
+        }
+        
+        PreparedStatement statement = stmt;
+        String[] failedSqlState = new String[1];
+        Spliterator<T> rows = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                try {
+                    if (!rs.next()) {
+                        return false;
+                    }
                 } catch (SQLException e) {
-                    System.err.println("Database operation error: " + e.getMessage());
-                    return null;
+                    failedSqlState[0] = e.getSQLState() == null ? "unknown" : e.getSQLState();
+                    throw new RuntimeException("Error reading streamed rows", e);
                 }
-            })
-            .filter(result -> result != null);
+                T row = mapper.apply(rs);
+                QueryMetrics.rowMapped(execution);
+                action.accept(row);
+                return true;
+            }
+        };
+        return StreamSupport.stream(rows, false)
+            .onClose(() -> {
+                closeQuietly(rs, statement, conn);
+                QueryMetrics.endDetached(execution, failedSqlState[0]);
+            });
+    }
+    
+    private static PreparedStatement prepareCursor(Connection conn, String sql, StatementBinder binder) throws SQLException {
+        PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        try {
+            stmt.setFetchSize(getFetchSize());
+            binder.bind(stmt);
+            return stmt;
+        } catch (SQLException e) {
+            stmt.close();
+            throw e;
+        }
+    }
+    
+    private static void closeQuietly(AutoCloseable... resources) {
+        for (AutoCloseable resource : resources) {
+            if (resource == null) {
+                continue;
+            }
+            try {
+                resource.close();
+            } catch (Exception e) {
+                System.err.println("Error closing streamed query resource: " + e.getMessage());
+            }
+        }
     }
 }
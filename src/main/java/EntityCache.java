@@ -0,0 +1,157 @@
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+public class EntityCache<K, V> {
+
+    public static class CacheStats {
+        public final String name;
+        public final int size;
+        public final int maxEntries;
+        public final long hits;
+        public final long misses;
+        public final long evictions;
+        public final long expirations;
+        public final long invalidations;
+
+        public CacheStats(String name, int size, int maxEntries, long hits, long misses,
+                         long evictions, long expirations, long invalidations) {
+            this.name = name;
+            this.size = size;
+            this.maxEntries = maxEntries;
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.expirations = expirations;
+            this.invalidations = invalidations;
+        }
+
+        public double hitRatio() {
+            long requests = hits + misses;
+            return requests == 0 ? 0.0 : (double) hits / requests;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("CacheStats{name='%s', size=%d/%d, hits=%d, misses=%d, hitRatio=%.1f%%, evictions=%d, expirations=%d, invalidations=%d}",
+                name, size, maxEntries, hits, misses, hitRatio() * 100, evictions, expirations, invalidations);
+        }
+    }
+
+    private static class Entry<V> {
+        final V value;
+        final long expiresAt;
+
+        Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final String name;
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LinkedHashMap<K, Entry<V>> entries;
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public EntityCache(String name, int maxEntries, long ttl, TimeUnit unit) {
+        this.name = name;
+        this.maxEntries = maxEntries;
+        this.ttlNanos = unit.toNanos(ttl);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > EntityCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public static <K, V> EntityCache<K, V> fromProperties(String name) {
+        Properties props = DatabaseConnection.loadDatabaseProperties().orElseGet(Properties::new);
+        int maxEntries = Integer.parseInt(props.getProperty("cache." + name + ".maxEntries",
+            props.getProperty("cache.maxEntries", "10000")));
+        long ttlSeconds = Long.parseLong(props.getProperty("cache." + name + ".ttlSeconds",
+            props.getProperty("cache.ttlSeconds", "300")));
+        return new EntityCache<>(name, maxEntries, ttlSeconds, TimeUnit.SECONDS);
+    }
+
+    public Optional<V> getIfPresent(K key) {
+        Optional<V> cached = peek(key);
+        if (cached.isPresent()) {
+            hits.increment();
+        }
+        return cached;
+    }
+
+    public Optional<V> get(K key, Function<K, Optional<V>> loader) {
+        Optional<V> cached = peek(key);
+        if (cached.isPresent()) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        long loadedAt = generation.get();
+        Optional<V> loaded = loader.apply(key);
+        loaded.ifPresent(value -> putIfUnchanged(key, value, loadedAt));
+        return loaded;
+    }
+
+    private Optional<V> peek(K key) {
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry == null) {
+                return Optional.empty();
+            }
+            if (entry.expiresAt - System.nanoTime() <= 0) {
+                entries.remove(key);
+                expirations.increment();
+                return Optional.empty();
+            }
+            return Optional.of(entry.value);
+        }
+    }
+
+    public void invalidate(K key) {
+        generation.incrementAndGet();
+        synchronized (entries) {
+            if (entries.remove(key) != null) {
+                invalidations.increment();
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        synchronized (entries) {
+            invalidations.add(entries.size());
+            entries.clear();
+        }
+    }
+
+    public CacheStats stats() {
+        synchronized (entries) {
+            return new CacheStats(name, entries.size(), maxEntries, hits.sum(), misses.sum(),
+                evictions.sum(), expirations.sum(), invalidations.sum());
+        }
+    }
+
+    private void putIfUnchanged(K key, V value, long loadedAt) {
+        synchronized (entries) {
+            // a write that raced with the load may have made the value stale
+            if (generation.get() == loadedAt) {
+                entries.put(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+            }
+        }
+    }
+}
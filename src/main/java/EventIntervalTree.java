@@ -0,0 +1,251 @@
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/*
+ * Events keyed by [start_date, end_date] in an AVL tree ordered by (start, event id), where every
+ * node also carries the latest end date in its subtree. A start-date range is a bounded in-order
+ * walk, O(log n + k). Overlap queries skip every subtree whose latest end is before the range and
+ * stop at the first start after it, so only subtrees that can still hold a match are entered.
+ * Results come back in (start_date, event_id) order, the same order the SQL queries use.
+ */
+public class EventIntervalTree {
+
+    private static final class Node {
+        final EventService.Event event;
+        final long start;
+        final long end;
+        Node left;
+        Node right;
+        int height = 1;
+        long maxEnd;
+
+        Node(EventService.Event event) {
+            this.event = event;
+            this.start = event.startDate.toEpochDay();
+            this.end = event.endDate.toEpochDay();
+            this.maxEnd = end;
+        }
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, EventService.Event> byId = new HashMap<>();
+    private Node root;
+
+    public void put(EventService.Event event) {
+        lock.writeLock().lock();
+        try {
+            EventService.Event previous = byId.put(event.eventId, event);
+            if (previous != null) {
+                root = delete(root, previous.startDate.toEpochDay(), previous.eventId);
+            }
+            root = insert(root, new Node(event));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int eventId) {
+        lock.writeLock().lock();
+        try {
+            EventService.Event previous = byId.remove(eventId);
+            if (previous != null) {
+                root = delete(root, previous.startDate.toEpochDay(), eventId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Optional<EventService.Event> get(int eventId) {
+        lock.readLock().lock();
+        try {
+            return Optional.ofNullable(byId.get(eventId));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return byId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // start_date in [from, to]; either bound may be null for an open end
+    public List<EventService.Event> startingBetween(LocalDate from, LocalDate to) {
+        long low = from == null ? Long.MIN_VALUE : from.toEpochDay();
+        long high = to == null ? Long.MAX_VALUE : to.toEpochDay();
+        List<EventService.Event> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            collectStarting(root, low, high, Long.MIN_VALUE, result);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    // Events entirely inside [from, to]; either bound may be null for an open end
+    public List<EventService.Event> containedIn(LocalDate from, LocalDate to) {
+        long low = from == null ? Long.MIN_VALUE : from.toEpochDay();
+        long high = to == null ? Long.MAX_VALUE : to.toEpochDay();
+        List<EventService.Event> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            collectStarting(root, low, high, high, result);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    // Events that share at least one day with [from, to]
+    public List<EventService.Event> overlapping(LocalDate from, LocalDate to) {
+        List<EventService.Event> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            collectOverlapping(root, from.toEpochDay(), to.toEpochDay(), result);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    // In-order walk limited to starts in [low, high]; endLimit (when not MIN_VALUE) also bounds end dates
+    private static void collectStarting(Node node, long low, long high, long endLimit, List<EventService.Event> out) {
+        while (node != null) {
+            if (node.start < low) {
+                node = node.right;
+                continue;
+            }
+            if (node.start > high) {
+                node = node.left;
+                continue;
+            }
+            collectStarting(node.left, low, high, endLimit, out);
+            if (endLimit == Long.MIN_VALUE || node.end <= endLimit) {
+                out.add(node.event);
+            }
+            node = node.right;
+        }
+    }
+
+    private static void collectOverlapping(Node node, long low, long high, List<EventService.Event> out) {
+        while (node != null && node.maxEnd >= low) {
+            collectOverlapping(node.left, low, high, out);
+            if (node.start > high) {
+                return;
+            }
+            if (node.end >= low) {
+                out.add(node.event);
+            }
+            node = node.right;
+        }
+    }
+
+    private static int compare(long start, int eventId, Node node) {
+        int byStart = Long.compare(start, node.start);
+        return byStart != 0 ? byStart : Integer.compare(eventId, node.event.eventId);
+    }
+
+    private static Node insert(Node node, Node added) {
+        if (node == null) {
+            return added;
+        }
+        if (compare(added.start, added.event.eventId, node) < 0) {
+            node.left = insert(node.left, added);
+        } else {
+            node.right = insert(node.right, added);
+        }
+        return rebalance(node);
+    }
+
+    private static Node delete(Node node, long start, int eventId) {
+        if (node == null) {
+            return null;
+        }
+        int order = compare(start, eventId, node);
+        if (order < 0) {
+            node.left = delete(node.left, start, eventId);
+        } else if (order > 0) {
+            node.right = delete(node.right, start, eventId);
+        } else {
+            if (node.left == null || node.right == null) {
+                return node.left != null ? node.left : node.right;
+            }
+            Node successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            successor.right = deleteMin(node.right);
+            successor.left = node.left;
+            return rebalance(successor);
+        }
+        return rebalance(node);
+    }
+
+    private static Node deleteMin(Node node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = deleteMin(node.left);
+        return rebalance(node);
+    }
+
+    private static Node rebalance(Node node) {
+        update(node);
+        int balance = height(node.left) - height(node.right);
+        if (balance > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static void update(Node node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        long maxEnd = node.end;
+        if (node.left != null) {
+            maxEnd = Math.max(maxEnd, node.left.maxEnd);
+        }
+        if (node.right != null) {
+            maxEnd = Math.max(maxEnd, node.right.maxEnd);
+        }
+        node.maxEnd = maxEnd;
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+}
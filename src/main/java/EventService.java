@@ -1,6 +1,7 @@
 import java.sql.*;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.function.Function; 
@@ -43,53 +44,106 @@ public class EventService {
         }
     }
     
+    public static final Set<String> EVENT_STATUSES = Set.of("ACTIVE", "CANCELLED", "COMPLETED");
+    
+    private static final String[] EVENT_COLUMNS = {
+        "event_id", "event_name", "description", "start_date", "end_date", "registration_deadline",
+        "max_participants", "registration_fee", "category_id", "location_id", "status"
+    };
+    
     public static Function<ResultSet, Event> mapToEvent() {
-        return rs -> {
-            try {
-                return new Event(
-                    rs.getInt("event_id"),
-                    rs.getString("event_name"),
-                    rs.getString("description"),
-                    rs.getDate("start_date").toLocalDate(),
-                    rs.getDate("end_date").toLocalDate(),
-                    rs.getDate("registration_deadline") != null ? 
-                        rs.getDate("registration_deadline").toLocalDate() : null,
-                    rs.getInt("max_participants"),
-                    rs.getBigDecimal("registration_fee"),
-                    rs.getInt("category_id"),
-                    rs.getInt("location_id"),
-                    rs.getString("status")
-                );
-            } catch (SQLException e) {
-                throw new RuntimeException("Error mapping ResultSet to Event", e);
-            }
-        };
+        return new RowMapper<>("Event", EVENT_COLUMNS, (rs, c) -> {
+            java.sql.Date registrationDeadline = rs.getDate(c[5]);
+            return new Event(
+                rs.getInt(c[0]),
+                rs.getString(c[1]),
+                rs.getString(c[2]),
+                rs.getDate(c[3]).toLocalDate(),
+                rs.getDate(c[4]).toLocalDate(),
+                registrationDeadline != null ? registrationDeadline.toLocalDate() : null,
+                rs.getInt(c[6]),
+                rs.getBigDecimal(c[7]),
+                rs.getInt(c[8]),
+                rs.getInt(c[9]),
+                rs.getString(c[10])
+            );
+        });
     }
     
     public static List<Event> getAllEvents() {
-        return DatabaseConnection.executeWithConnection(conn -> {
+        return DatabaseConnection.executeReadOnly(conn -> {
             String sql = "SELECT * FROM events ORDER BY start_date";
             try (PreparedStatement stmt = conn.prepareStatement(sql);
                  ResultSet rs = stmt.executeQuery()) {
                 
                 List<Event> events = new ArrayList<>();
+                Function<ResultSet, Event> mapper = mapToEvent();
                 while (rs.next()) {
-                    events.add(mapToEvent().apply(rs));
+                    events.add(mapper.apply(rs));
                 }
                 return events;
             }
         }).orElse(Collections.emptyList());
     }
     
+    public static Stream<Event> streamAllEvents() {
+        return DatabaseConnection.streamQuery("SELECT * FROM events ORDER BY start_date", stmt -> { }, mapToEvent());
+    }
+    
+    public static long forEachEvent(Consumer<Event> consumer) {
+        return DatabaseConnection.forEachRow("SELECT * FROM events ORDER BY start_date", stmt -> { }, mapToEvent(), consumer)
+            .orElse(0L);
+    }
+    
+    private static final Page.Keyset EVENT_PAGES = new Page.Keyset("events", false, "start_date", "event_id");
+    
+    public static Page<Event> getEventsAfter(Event cursor, int pageSize) {
+        return EVENT_PAGES.after(cursor == null ? null : new Object[] { cursor.startDate, cursor.eventId }, pageSize, mapToEvent());
+    }
+    
+    public static Page<Event> getEventsBefore(Event cursor, int pageSize) {
+        return EVENT_PAGES.before(new Object[] { cursor.startDate, cursor.eventId }, pageSize, mapToEvent());
+    }
+    
+    private static final EntityCache<Integer, Event> EVENT_CACHE = EntityCache.fromProperties("events");
+    
+    public static Optional<Event> getEventById(int eventId) {
+        return EVENT_CACHE.get(eventId, EventService::loadEventById);
+    }
+    
+    private static Optional<Event> loadEventById(int eventId) {
+        return DatabaseConnection.executeReadOnlyOnPrimary(conn -> {
+            String sql = "SELECT * FROM events WHERE event_id = ?";
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, eventId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        return mapToEvent().apply(rs);
+                    }
+                }
+            }
+            return null;
+        });
+    }
+    
+    public static EntityCache.CacheStats getCacheStats() {
+        return EVENT_CACHE.stats();
+    }
+    
+    public static void invalidateCache() {
+        EVENT_CACHE.invalidateAll();
+    }
+    
     public static List<Event> getEventsByCategory(int categoryId) {
-        return DatabaseConnection.executeWithConnection(conn -> {
+        return DatabaseConnection.executeReadOnly(conn -> {
             String sql = "SELECT * FROM events WHERE category_id = ? ORDER BY start_date";
             try (PreparedStatement stmt = conn.prepareStatement(sql)) {
                 stmt.setInt(1, categoryId);
                 try (ResultSet rs = stmt.executeQuery()) {
                     List<Event> events = new ArrayList<>();
+                    Function<ResultSet, Event> mapper = mapToEvent();
                     while (rs.next()) {
-                        events.add(mapToEvent().apply(rs));
+                        events.add(mapper.apply(rs));
                     }
                     return events;
                 }
@@ -97,24 +151,179 @@ public class EventService {
         }).orElse(Collections.emptyList());
     }
     
+    private static volatile EventIntervalTree dateIndex;
+    // Guards publishing a rebuilt date index against concurrent changes; non-null while a rebuild is loading
+    private static final Object DATE_INDEX_LOCK = new Object();
+    private static List<Consumer<EventIntervalTree>> changesDuringBuild;
+    
+    // For cached (single-node) deployments: date queries are answered from memory until disabled.
+    // On failure the current index (if any) stays as it was and false is returned.
+    public static synchronized boolean enableDateIndex() {
+        EventIntervalTree built = new EventIntervalTree();
+        List<Consumer<EventIntervalTree>> changes = new ArrayList<>();
+        synchronized (DATE_INDEX_LOCK) {
+            changesDuringBuild = changes;
+        }
+        OptionalLong rows = OptionalLong.empty();
+        try {
+            rows = DatabaseConnection.forEachRowOnPrimary("SELECT * FROM events", stmt -> { }, mapToEvent(), built::put);
+        } finally {
+            synchronized (DATE_INDEX_LOCK) {
+                changesDuringBuild = null;
+                if (rows.isPresent()) {
+                    // writes committed after the load's snapshot are replayed in the order they happened
+                    changes.forEach(change -> change.accept(built));
+                    dateIndex = built;
+                }
+            }
+        }
+        return rows.isPresent();
+    }
+    
+    // Every change to the date index goes through here so that a rebuild in progress also sees it
+    private static void updateDateIndex(Consumer<EventIntervalTree> change) {
+        synchronized (DATE_INDEX_LOCK) {
+            if (dateIndex != null) {
+                change.accept(dateIndex);
+            }
+            if (changesDuringBuild != null) {
+                changesDuringBuild.add(change);
+            }
+        }
+    }
+    
+    public static boolean enableDateIndexIfConfigured() {
+        boolean configured = DatabaseConnection.loadDatabaseProperties()
+            .map(props -> Boolean.parseBoolean(props.getProperty("events.dateIndex.enabled", "false")))
+            .orElse(false);
+        return configured && enableDateIndex();
+    }
+    
+    public static void disableDateIndex() {
+        synchronized (DATE_INDEX_LOCK) {
+            dateIndex = null;
+        }
+    }
+    
+    public static Optional<EventIntervalTree> getDateIndex() {
+        return Optional.ofNullable(dateIndex);
+    }
+    
+    // Another node changed these events (CacheInvalidationListener). Indexed rows are re-read on the
+    // primary because a replica may not have replayed the change yet.
+    public static void refreshCached(Collection<Integer> eventIds) {
+        eventIds.forEach(EVENT_CACHE::invalidate);
+        if (dateIndex == null) {
+            return;
+        }
+        Optional<Map<Integer, Event>> current = DatabaseConnection.executeReadOnlyOnPrimary(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement("SELECT * FROM events WHERE event_id = ANY(?)")) {
+                stmt.setArray(1, conn.createArrayOf("integer", eventIds.toArray()));
+                try (ResultSet rs = stmt.executeQuery()) {
+                    Map<Integer, Event> events = new HashMap<>();
+                    Function<ResultSet, Event> mapper = mapToEvent();
+                    while (rs.next()) {
+                        Event event = mapper.apply(rs);
+                        events.put(event.eventId, event);
+                    }
+                    return events;
+                }
+            }
+        });
+        if (current.isEmpty()) {
+            System.err.println("Event date index disabled: changed events could not be reloaded");
+            disableDateIndex();
+            return;
+        }
+        Map<Integer, Event> reloaded = current.get();
+        updateDateIndex(index -> eventIds.forEach(eventId -> {
+            Event event = reloaded.get(eventId);
+            if (event != null) {
+                index.put(event);
+            } else {
+                index.remove(eventId);
+            }
+        }));
+    }
+    
+    public static void refreshAllCached() {
+        invalidateCache();
+        if (dateIndex != null && !enableDateIndex()) {
+            System.err.println("Event date index disabled: rebuild failed");
+            disableDateIndex();
+        }
+    }
+    
+    // Served by idx_events_status_date (status, start_date)
     public static List<Event> getUpcomingEvents() {
-        return getAllEvents().stream()
-            .filter(event -> event.startDate.isAfter(LocalDate.now()))
-            .filter(event -> "ACTIVE".equals(event.status))
-            .collect(Collectors.toList());
+        LocalDate today = LocalDate.now();
+        EventIntervalTree index = dateIndex;
+        if (index != null) {
+            List<Event> upcoming = index.startingBetween(today.plusDays(1), null);
+            upcoming.removeIf(event -> !"ACTIVE".equals(event.status));
+            return upcoming;
+        }
+        return queryEvents("SELECT * FROM events WHERE status = 'ACTIVE' AND start_date > ? ORDER BY start_date, event_id",
+            stmt -> stmt.setDate(1, java.sql.Date.valueOf(today)));
     }
     
+    // Events that lie entirely inside [startDate, endDate]; a null bound leaves that end open. end_date >= start_date
+    // (valid_dates), so the upper bound on start_date is implied; spelling it out turns the idx_events_date scan into a closed range.
     public static List<Event> getEventsByDateRange(LocalDate startDate, LocalDate endDate) {
-        return getAllEvents().stream()
-            .filter(event -> !event.startDate.isBefore(startDate) && !event.endDate.isAfter(endDate))
-            .collect(Collectors.toList());
+        EventIntervalTree index = dateIndex;
+        if (index != null) {
+            return index.containedIn(startDate, endDate);
+        }
+        String sql = "SELECT * FROM events WHERE true" +
+            (startDate != null ? " AND start_date >= ?" : "") +
+            (endDate != null ? " AND start_date <= ? AND end_date <= ?" : "") +
+            " ORDER BY start_date, event_id";
+        return queryEvents(sql, stmt -> {
+            int position = 1;
+            if (startDate != null) {
+                stmt.setDate(position++, java.sql.Date.valueOf(startDate));
+            }
+            if (endDate != null) {
+                stmt.setDate(position++, java.sql.Date.valueOf(endDate));
+                stmt.setDate(position++, java.sql.Date.valueOf(endDate));
+            }
+        });
+    }
+    
+    // Events running on at least one day of [startDate, endDate]
+    public static List<Event> getEventsOverlapping(LocalDate startDate, LocalDate endDate) {
+        EventIntervalTree index = dateIndex;
+        if (index != null) {
+            return index.overlapping(startDate, endDate);
+        }
+        return queryEvents("SELECT * FROM events WHERE start_date <= ? AND end_date >= ? ORDER BY start_date, event_id",
+            stmt -> {
+                stmt.setDate(1, java.sql.Date.valueOf(endDate));
+                stmt.setDate(2, java.sql.Date.valueOf(startDate));
+            });
+    }
+    
+    private static List<Event> queryEvents(String sql, DatabaseConnection.StatementBinder binder) {
+        return DatabaseConnection.executeReadOnly(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                binder.bind(stmt);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    List<Event> events = new ArrayList<>();
+                    Function<ResultSet, Event> mapper = mapToEvent();
+                    while (rs.next()) {
+                        events.add(mapper.apply(rs));
+                    }
+                    return events;
+                }
+            }
+        }).orElse(Collections.emptyList());
     }
     
     public static Optional<Integer> createEvent(String eventName, String description, LocalDate startDate, 
                                                LocalDate endDate, LocalDate registrationDeadline, 
                                                int maxParticipants, BigDecimal registrationFee, 
                                                int categoryId, int locationId) {
-        return DatabaseConnection.executeWithConnection(conn -> {
+        Optional<Integer> created = DatabaseConnection.executeWithConnection(conn -> {
             String sql = "INSERT INTO events (event_name, description, start_date, end_date, " +
                         "registration_deadline, max_participants, registration_fee, category_id, location_id) " +
                         "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) RETURNING event_id";
@@ -138,10 +347,14 @@ public class EventService {
             }
             return null;
         });
+        // status is left to its column default
+        created.ifPresent(eventId -> updateDateIndex(index -> index.put(new Event(eventId, eventName, description,
+            startDate, endDate, registrationDeadline, maxParticipants, registrationFee, categoryId, locationId, "ACTIVE"))));
+        return created;
     }
     
     public static boolean updateEventStatus(int eventId, String status) {
-        return DatabaseConnection.executeWithConnection(conn -> {
+        boolean updated = DatabaseConnection.executeWithConnection(conn -> {
             String sql = "UPDATE events SET status = ? WHERE event_id = ?";
             try (PreparedStatement stmt = conn.prepareStatement(sql)) {
                 stmt.setString(1, status);
@@ -149,15 +362,28 @@ public class EventService {
                 return stmt.executeUpdate() > 0;
             }
         }).orElse(false);
+        EVENT_CACHE.invalidate(eventId);
+        if (updated) {
+            updateDateIndex(index -> index.get(eventId).ifPresent(previous -> index.put(new Event(previous.eventId,
+                previous.eventName, previous.description, previous.startDate, previous.endDate, previous.registrationDeadline,
+                previous.maxParticipants, previous.registrationFee, previous.categoryId, previous.locationId, status))));
+        }
+        return updated;
     }
     
     public static boolean deleteEvent(int eventId) {
-        return DatabaseConnection.executeWithConnection(conn -> {
+        boolean deleted = DatabaseConnection.executeWithConnection(conn -> {
             String sql = "DELETE FROM events WHERE event_id = ?";
             try (PreparedStatement stmt = conn.prepareStatement(sql)) {
                 stmt.setInt(1, eventId);
                 return stmt.executeUpdate() > 0;
             }
         }).orElse(false);
+        EVENT_CACHE.invalidate(eventId);
+        if (deleted) {
+            RegistrationService.onEventDeleted(eventId);
+            updateDateIndex(index -> index.remove(eventId));
+        }
+        return deleted;
     }
 }
@@ -0,0 +1,568 @@
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.*;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
+
+/*
+ * Streams tables and reports to CSV or JSON files. Table exports read through a server-side cursor
+ * (db.fetchSize rows per round trip) and encode each column straight from the ResultSet into one
+ * reusable 64 KiB buffer, so memory use does not depend on the number of rows. The buffer is
+ * written to a FileChannel, or through gzip when the file name ends in .gz; a name ending in
+ * .json or .json.gz selects JSON (one array of objects), anything else CSV with a header line.
+ */
+public class ExportService {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long PROGRESS_INTERVAL_ROWS = 50_000;
+
+    private static final String EVENTS_SQL =
+        "SELECT e.event_id, e.event_name, e.description, e.start_date, e.end_date, e.registration_deadline, " +
+        "e.max_participants, e.registration_fee, c.category_name, l.location_name, e.status, e.created_at " +
+        "FROM events e LEFT JOIN categories c ON c.category_id = e.category_id " +
+        "LEFT JOIN locations l ON l.location_id = e.location_id ORDER BY e.event_id";
+    private static final String PARTICIPANTS_SQL =
+        "SELECT participant_id, first_name, last_name, email, phone, institution, participant_type, created_at " +
+        "FROM participants ORDER BY participant_id";
+    private static final String REGISTRATIONS_SQL =
+        "SELECT registration_id, event_id, participant_id, registration_date, status, payment_status, notes " +
+        "FROM registrations ORDER BY registration_id";
+    private static final String ROSTER_SQL =
+        "SELECT r.registration_id, p.participant_id, p.last_name, p.first_name, p.email, p.phone, p.institution, " +
+        "p.participant_type, r.status, r.payment_status, r.registration_date, r.notes " +
+        "FROM registrations r JOIN participants p ON p.participant_id = r.participant_id " +
+        "WHERE r.event_id = ? ORDER BY p.last_name, p.first_name, r.registration_id";
+
+    public enum Format {
+        CSV, JSON;
+
+        public static Format forFile(Path file) {
+            String name = file.getFileName().toString().toLowerCase();
+            return name.endsWith(".json") || name.endsWith(".json.gz") ? JSON : CSV;
+        }
+    }
+
+    public enum Report { EVENT_SUMMARY, PARTICIPANT_SUMMARY, REGISTRATION_SUMMARY, REVENUE }
+
+    @FunctionalInterface
+    public interface ProgressListener {
+        void onProgress(long rowsWritten, long bytesWritten, long elapsedNanos);
+    }
+
+    public static class ExportResult {
+        public final Path file;
+        public final long rows;
+        public final long bytesWritten;
+        public final long fileBytes;
+        public final long elapsedMillis;
+
+        public ExportResult(Path file, long rows, long bytesWritten, long fileBytes, long elapsedMillis) {
+            this.file = file;
+            this.rows = rows;
+            this.bytesWritten = bytesWritten;
+            this.fileBytes = fileBytes;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public double rowsPerSecond() {
+            return elapsedMillis == 0 ? rows : rows * 1000.0 / elapsedMillis;
+        }
+
+        // Encoded (uncompressed) bytes, so gzip and plain exports compare on the same work
+        public double megabytesPerSecond() {
+            return elapsedMillis == 0 ? 0.0 : bytesWritten / 1_048_576.0 * 1000.0 / elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("ExportResult{file=%s, rows=%d, encoded=%d bytes, on disk=%d bytes, elapsed=%dms, %.0f rows/s, %.2f MB/s}",
+                file, rows, bytesWritten, fileBytes, elapsedMillis, rowsPerSecond(), megabytesPerSecond());
+        }
+    }
+
+    public static Optional<ExportResult> exportEvents(Path file, ProgressListener listener) {
+        return exportQuery(file, EVENTS_SQL, stmt -> { }, listener);
+    }
+
+    public static Optional<ExportResult> exportParticipants(Path file, ProgressListener listener) {
+        return exportQuery(file, PARTICIPANTS_SQL, stmt -> { }, listener);
+    }
+
+    public static Optional<ExportResult> exportRegistrations(Path file, ProgressListener listener) {
+        return exportQuery(file, REGISTRATIONS_SQL, stmt -> { }, listener);
+    }
+
+    // Registrations of one event joined with their participants, ordered by name
+    public static Optional<ExportResult> exportEventRoster(int eventId, Path file, ProgressListener listener) {
+        return exportQuery(file, ROSTER_SQL, stmt -> stmt.setInt(1, eventId), listener);
+    }
+
+    private static Optional<ExportResult> exportQuery(Path file, String sql, DatabaseConnection.StatementBinder binder,
+                                                      ProgressListener listener) {
+        long started = System.nanoTime();
+        return DatabaseConnection.executeReadOnly(conn -> {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                stmt.setFetchSize(DatabaseConnection.getFetchSize());
+                binder.bind(stmt);
+                try (ResultSet rs = stmt.executeQuery();
+                     Encoder encoder = Encoder.open(file, columnNames(rs.getMetaData()))) {
+                    int[] kinds = columnKinds(rs.getMetaData());
+                    long rows = 0;
+                    while (rs.next()) {
+                        encoder.writeRow(rs, kinds);
+                        if (++rows % PROGRESS_INTERVAL_ROWS == 0 && listener != null) {
+                            listener.onProgress(rows, encoder.bytesWritten(), System.nanoTime() - started);
+                        }
+                    }
+                    encoder.finish();
+                    conn.commit();
+                    return result(file, rows, encoder, started);
+                } catch (IOException e) {
+                    throw new SQLException("Unable to write export file " + file + ": " + e.getMessage(), e);
+                }
+            }
+        });
+    }
+
+    public static Optional<ExportResult> exportReport(Report report, Path file) {
+        long started = System.nanoTime();
+        try {
+            switch (report) {
+                case EVENT_SUMMARY:
+                    return Optional.of(writeEventSummary(ReportEngine.summarizeEvents(EventService.getAllEvents()), file, started));
+                case PARTICIPANT_SUMMARY:
+                    return Optional.of(writeParticipantSummary(
+                        ReportEngine.summarizeParticipants(ParticipantService.getAllParticipants()), file, started));
+                case REGISTRATION_SUMMARY:
+                    Optional<ReportEngine.RegistrationSummary> registrations = ReportEngine.loadRegistrationSummary();
+                    if (registrations.isEmpty()) {
+                        return Optional.empty();
+                    }
+                    return Optional.of(writeRegistrationSummary(registrations.get(), file, started));
+                default:
+                    Optional<RevenueService.RevenueReport> revenue = RevenueService.generateRevenueReport();
+                    if (revenue.isEmpty()) {
+                        return Optional.empty();
+                    }
+                    return Optional.of(writeRevenue(revenue.get(), file, started));
+            }
+        } catch (IOException e) {
+            System.err.println("Unable to write export file " + file + ": " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    // Summaries are written as metric,key,value rows; counts are numbers, dates and names text
+    private static ExportResult writeEventSummary(ReportEngine.EventSummary summary, Path file, long started) throws IOException {
+        try (Encoder encoder = Encoder.open(file, "metric", "key", "value")) {
+            long rows = metric(encoder, "total_events", null, summary.totalEvents);
+            rows += metrics(encoder, "events_by_status", summary.eventsByStatus);
+            for (EventService.Event event : summary.upcomingEvents) {
+                encoder.beginRow();
+                encoder.text("upcoming_event");
+                encoder.text(event.eventName);
+                encoder.text(event.startDate.toString());
+                encoder.endRow();
+                rows++;
+            }
+            encoder.finish();
+            return result(file, rows, encoder, started);
+        }
+    }
+
+    private static ExportResult writeParticipantSummary(ReportEngine.ParticipantSummary summary, Path file, long started) throws IOException {
+        try (Encoder encoder = Encoder.open(file, "metric", "key", "value")) {
+            long rows = metric(encoder, "total_participants", null, summary.totalParticipants);
+            rows += metrics(encoder, "participants_by_type", summary.participantsByType);
+            rows += metrics(encoder, "top_institution", summary.topInstitutions);
+            encoder.finish();
+            return result(file, rows, encoder, started);
+        }
+    }
+
+    private static ExportResult writeRegistrationSummary(ReportEngine.RegistrationSummary summary, Path file, long started) throws IOException {
+        try (Encoder encoder = Encoder.open(file, "metric", "key", "value")) {
+            long rows = metric(encoder, "total_registrations", null, summary.totalRegistrations);
+            rows += metric(encoder, "confirmed_registrations", null, summary.confirmedRegistrations);
+            rows += metrics(encoder, "registrations_by_status", summary.registrationsByStatus);
+            rows += metrics(encoder, "registrations_by_payment_status", summary.registrationsByPaymentStatus);
+            encoder.finish();
+            return result(file, rows, encoder, started);
+        }
+    }
+
+    private static ExportResult writeRevenue(RevenueService.RevenueReport report, Path file, long started) throws IOException {
+        try (Encoder encoder = Encoder.open(file, "event_id", "event_name", "registration_fee", "confirmed_registrations",
+                "paid_registrations", "potential_revenue", "paid_revenue")) {
+            for (RevenueService.EventRevenue revenue : report.eventRevenues) {
+                encoder.beginRow();
+                encoder.number(revenue.eventId);
+                encoder.text(revenue.eventName);
+                encoder.decimal(revenue.registrationFee);
+                encoder.number(revenue.confirmedRegistrations);
+                encoder.number(revenue.paidRegistrations);
+                encoder.decimal(revenue.potentialRevenue);
+                encoder.decimal(revenue.paidRevenue);
+                encoder.endRow();
+            }
+            encoder.finish();
+            return result(file, report.eventRevenues.size(), encoder, started);
+        }
+    }
+
+    private static long metric(Encoder encoder, String metric, String key, long value) throws IOException {
+        encoder.beginRow();
+        encoder.text(metric);
+        encoder.text(key);
+        encoder.number(value);
+        encoder.endRow();
+        return 1;
+    }
+
+    private static long metrics(Encoder encoder, String metric, Map<String, Long> values) throws IOException {
+        for (Map.Entry<String, Long> entry : values.entrySet()) {
+            metric(encoder, metric, entry.getKey(), entry.getValue());
+        }
+        return values.size();
+    }
+
+    private static ExportResult result(Path file, long rows, Encoder encoder, long started) throws IOException {
+        return new ExportResult(file, rows, encoder.bytesWritten(), Files.size(file), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private static String[] columnNames(ResultSetMetaData meta) throws SQLException {
+        String[] names = new String[meta.getColumnCount()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = meta.getColumnLabel(i + 1);
+        }
+        return names;
+    }
+
+    private static int[] columnKinds(ResultSetMetaData meta) throws SQLException {
+        int[] kinds = new int[meta.getColumnCount()];
+        for (int i = 0; i < kinds.length; i++) {
+            switch (meta.getColumnType(i + 1)) {
+                case Types.SMALLINT:
+                case Types.INTEGER:
+                case Types.BIGINT:
+                    kinds[i] = Encoder.INTEGER;
+                    break;
+                case Types.NUMERIC:
+                case Types.DECIMAL:
+                case Types.REAL:
+                case Types.DOUBLE:
+                    kinds[i] = Encoder.DECIMAL;
+                    break;
+                case Types.BIT:
+                case Types.BOOLEAN:
+                    kinds[i] = Encoder.BOOLEAN;
+                    break;
+                case Types.TIMESTAMP:
+                case Types.TIMESTAMP_WITH_TIMEZONE:
+                    kinds[i] = Encoder.TIMESTAMP;
+                    break;
+                default:
+                    kinds[i] = Encoder.TEXT;
+                    break;
+            }
+        }
+        return kinds;
+    }
+
+    /*
+     * Writes UTF-8 CSV or JSON into a fixed buffer without building per-row strings: integers are
+     * formatted digit by digit, text is encoded char by char, and JSON keys are encoded once up front.
+     */
+    private static final class Encoder implements AutoCloseable {
+        static final int TEXT = 0;
+        static final int INTEGER = 1;
+        static final int DECIMAL = 2;
+        static final int BOOLEAN = 3;
+        static final int TIMESTAMP = 4;
+
+        private final Format format;
+        private final WritableByteChannel out;
+        private final ByteBuffer buffer;
+        private final byte[][] keys;
+        private final byte[] digits = new byte[20];
+        private int column;
+        private long rows;
+        private long flushed;
+
+        private Encoder(Format format, WritableByteChannel out, ByteBuffer buffer, String[] columns) throws IOException {
+            this.format = format;
+            this.out = out;
+            this.buffer = buffer;
+            this.keys = new byte[columns.length][];
+            for (int i = 0; i < columns.length; i++) {
+                keys[i] = ("\"" + columns[i] + "\":").getBytes(StandardCharsets.UTF_8);
+            }
+            if (format == Format.CSV) {
+                for (int i = 0; i < columns.length; i++) {
+                    if (i > 0) {
+                        put((byte) ',');
+                    }
+                    ascii(columns[i]);
+                }
+                put((byte) '\n');
+            } else {
+                put((byte) '[');
+            }
+        }
+
+        // A direct buffer saves the channel a copy; gzip consumes heap arrays anyway
+        static Encoder open(Path file, String... columns) throws IOException {
+            Format format = Format.forFile(file);
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            if (file.getFileName().toString().toLowerCase().endsWith(".gz")) {
+                GZIPOutputStream gzip = new GZIPOutputStream(Files.newOutputStream(file), BUFFER_SIZE);
+                return new Encoder(format, Channels.newChannel(gzip), ByteBuffer.allocate(BUFFER_SIZE), columns);
+            }
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+            return new Encoder(format, channel, ByteBuffer.allocateDirect(BUFFER_SIZE), columns);
+        }
+
+        long bytesWritten() {
+            return flushed + buffer.position();
+        }
+
+        void writeRow(ResultSet rs, int[] kinds) throws SQLException, IOException {
+            beginRow();
+            for (int i = 0; i < kinds.length; i++) {
+                int index = i + 1;
+                switch (kinds[i]) {
+                    case INTEGER: {
+                        long value = rs.getLong(index);
+                        if (rs.wasNull()) {
+                            nullValue();
+                        } else {
+                            number(value);
+                        }
+                        break;
+                    }
+                    case BOOLEAN: {
+                        boolean value = rs.getBoolean(index);
+                        if (rs.wasNull()) {
+                            nullValue();
+                        } else {
+                            separator();
+                            ascii(value ? "true" : "false");
+                        }
+                        break;
+                    }
+                    case DECIMAL:
+                        raw(rs.getString(index));
+                        break;
+                    case TIMESTAMP:
+                        timestamp(rs.getString(index));
+                        break;
+                    default:
+                        text(rs.getString(index));
+                        break;
+                }
+            }
+            endRow();
+        }
+
+        void beginRow() throws IOException {
+            if (format == Format.JSON) {
+                ascii(rows == 0 ? "\n{" : ",\n{");
+            }
+            column = 0;
+        }
+
+        void endRow() throws IOException {
+            put(format == Format.JSON ? (byte) '}' : (byte) '\n');
+            rows++;
+        }
+
+        void number(long value) throws IOException {
+            separator();
+            if (value < 0) {
+                put((byte) '-');
+            }
+            int length = 0;
+            do {
+                digits[length++] = (byte) ('0' + Math.abs(value % 10));
+                value /= 10;
+            } while (value != 0);
+            while (length > 0) {
+                put(digits[--length]);
+            }
+        }
+
+        void decimal(BigDecimal value) throws IOException {
+            raw(value == null ? null : value.toPlainString());
+        }
+
+        void text(String value) throws IOException {
+            if (value == null) {
+                nullValue();
+                return;
+            }
+            separator();
+            if (format == Format.JSON) {
+                put((byte) '"');
+                utf8(value, true);
+                put((byte) '"');
+            } else if (needsQuoting(value)) {
+                put((byte) '"');
+                utf8(value, false);
+                put((byte) '"');
+            } else {
+                utf8(value, false);
+            }
+        }
+
+        // PostgreSQL prints timestamps as "2025-08-15 09:30:00"; exports use ISO-8601 like the JSON API
+        private void timestamp(String value) throws IOException {
+            if (value == null) {
+                nullValue();
+                return;
+            }
+            separator();
+            if (format == Format.JSON) {
+                put((byte) '"');
+            }
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                put((byte) (c == ' ' ? 'T' : c));
+            }
+            if (format == Format.JSON) {
+                put((byte) '"');
+            }
+        }
+
+        // Numbers as the server printed them, unquoted in both formats
+        private void raw(String value) throws IOException {
+            if (value == null) {
+                nullValue();
+                return;
+            }
+            separator();
+            ascii(value);
+        }
+
+        private void nullValue() throws IOException {
+            separator();
+            if (format == Format.JSON) {
+                ascii("null");
+            }
+        }
+
+        private void separator() throws IOException {
+            if (format == Format.JSON) {
+                if (column > 0) {
+                    put((byte) ',');
+                }
+                byte[] key = keys[column];
+                for (byte b : key) {
+                    put(b);
+                }
+            } else if (column > 0) {
+                put((byte) ',');
+            }
+            column++;
+        }
+
+        private static boolean needsQuoting(String value) {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void utf8(String value, boolean json) throws IOException {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (buffer.remaining() < 6) {
+                    flush();
+                }
+                if (json && (c == '"' || c == '\\' || c < 0x20)) {
+                    escape(c);
+                } else if (!json && c == '"') {
+                    buffer.put((byte) '"').put((byte) '"');
+                } else if (c < 0x80) {
+                    buffer.put((byte) c);
+                } else if (c < 0x800) {
+                    buffer.put((byte) (0xC0 | c >> 6)).put((byte) (0x80 | c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int cp = Character.toCodePoint(c, value.charAt(++i));
+                    buffer.put((byte) (0xF0 | cp >> 18)).put((byte) (0x80 | cp >> 12 & 0x3F))
+                        .put((byte) (0x80 | cp >> 6 & 0x3F)).put((byte) (0x80 | cp & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    buffer.put((byte) '?');
+                } else {
+                    buffer.put((byte) (0xE0 | c >> 12)).put((byte) (0x80 | c >> 6 & 0x3F)).put((byte) (0x80 | c & 0x3F));
+                }
+            }
+        }
+
+        private void escape(char c) {
+            buffer.put((byte) '\\');
+            switch (c) {
+                case '"': buffer.put((byte) '"'); break;
+                case '\\': buffer.put((byte) '\\'); break;
+                case '\n': buffer.put((byte) 'n'); break;
+                case '\r': buffer.put((byte) 'r'); break;
+                case '\t': buffer.put((byte) 't'); break;
+                default:
+                    buffer.put((byte) 'u').put((byte) '0').put((byte) '0')
+                        .put((byte) Character.forDigit(c >> 4, 16)).put((byte) Character.forDigit(c & 0xF, 16));
+                    break;
+            }
+        }
+
+        private void ascii(String value) throws IOException {
+            for (int i = 0; i < value.length(); i++) {
+                put((byte) value.charAt(i));
+            }
+        }
+
+        private void put(byte b) throws IOException {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            buffer.put(b);
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            flushed += buffer.remaining();
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        // Closing here (not only in close()) writes the gzip trailer before the file size is read
+        void finish() throws IOException {
+            if (format == Format.JSON) {
+                ascii(rows == 0 ? "]\n" : "\n]\n");
+            }
+            flush();
+            out.close();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+import java.sql.*;
+import java.util.*;
+import java.util.function.Function;
+
+public class Page<T> {
+    public final List<T> items;
+    public final boolean hasNext;
+    public final boolean hasPrevious;
+
+    public Page(List<T> items, boolean hasNext, boolean hasPrevious) {
+        this.items = Collections.unmodifiableList(items);
+        this.hasNext = hasNext;
+        this.hasPrevious = hasPrevious;
+    }
+
+    public static <T> Page<T> empty() {
+        return new Page<>(Collections.emptyList(), false, false);
+    }
+
+    public boolean isEmpty() {
+        return items.isEmpty();
+    }
+
+    public T first() {
+        return items.get(0);
+    }
+
+    public T last() {
+        return items.get(items.size() - 1);
+    }
+
+    public static class Keyset {
+        private final String table;
+        private final List<String> keyColumns;
+        private final boolean descending;
+
+        public Keyset(String table, boolean descending, String... keyColumns) {
+            this.table = table;
+            this.descending = descending;
+            this.keyColumns = List.of(keyColumns);
+        }
+
+        public <T> Page<T> after(Object[] cursor, int pageSize, Function<ResultSet, T> mapper) {
+            return fetch(cursor, true, pageSize, mapper);
+        }
+
+        public <T> Page<T> before(Object[] cursor, int pageSize, Function<ResultSet, T> mapper) {
+            return fetch(cursor, false, pageSize, mapper);
+        }
+
+        private <T> Page<T> fetch(Object[] cursor, boolean forward, int pageSize, Function<ResultSet, T> mapper) {
+            boolean ascending = forward != descending;
+            String columns = String.join(", ", keyColumns);
+            String direction = ascending ? " ASC" : " DESC";
+            StringBuilder sql = new StringBuilder("SELECT * FROM ").append(table);
+            if (cursor != null) {
+                sql.append(" WHERE (").append(columns).append(ascending ? ") > (" : ") < (")
+                    .append(String.join(", ", Collections.nCopies(keyColumns.size(), "?"))).append(")");
+            }
+            sql.append(" ORDER BY ").append(String.join(direction + ", ", keyColumns)).append(direction)
+                .append(" LIMIT ?");
+
+            return DatabaseConnection.executeReadOnly(conn -> {
+                try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+                    int index = 1;
+                    if (cursor != null) {
+                        for (Object value : cursor) {
+                            stmt.setObject(index++, QueryCriteria.toSqlValue(value));
+                        }
+                    }
+                    stmt.setInt(index, pageSize + 1);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        List<T> items = new ArrayList<>(pageSize + 1);
+                        while (rs.next()) {
+                            items.add(mapper.apply(rs));
+                        }
+                        boolean more = items.size() > pageSize;
+                        if (more) {
+                            items.remove(pageSize);
+                        }
+                        if (!forward) {
+                            Collections.reverse(items);
+                            return new Page<>(items, cursor != null, more);
+                        }
+                        return new Page<>(items, more, cursor != null);
+                    }
+                }
+            }).orElse(Page.empty());
+        }
+    }
+}
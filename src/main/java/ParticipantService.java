@@ -1,7 +1,9 @@
 import java.sql.*;
 import java.util.*;
 import java.util.function.Function;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class ParticipantService {
     
@@ -36,41 +38,143 @@ public class ParticipantService {
         }
     }
     
+    public static class NewParticipant {
+        public final String firstName;
+        public final String lastName;
+        public final String email;
+        public final String phone;
+        public final String institution;
+        public final String participantType;
+        
+        public NewParticipant(String firstName, String lastName, String email, 
+                             String phone, String institution, String participantType) {
+            this.firstName = firstName;
+            this.lastName = lastName;
+            this.email = email;
+            this.phone = phone;
+            this.institution = institution;
+            this.participantType = participantType;
+        }
+    }
+    
+    public static final Set<String> PARTICIPANT_TYPES = Set.of("STUDENT", "PROFESSOR", "RESEARCHER", "OTHER");
+    
+    private static final String[] PARTICIPANT_COLUMNS = {
+        "participant_id", "first_name", "last_name", "email", "phone", "institution", "participant_type"
+    };
+    
     public static Function<ResultSet, Participant> mapToParticipant() {
-        return rs -> {
-            try {
-                return new Participant(
-                    rs.getInt("participant_id"),
-                    rs.getString("first_name"),
-                    rs.getString("last_name"),
-                    rs.getString("email"),
-                    rs.getString("phone"),
-                    rs.getString("institution"),
-                    rs.getString("participant_type")
-                );
-            } catch (SQLException e) {
-                throw new RuntimeException("Error mapping ResultSet to Participant", e);
-            }
-        };
+        return new RowMapper<>("Participant", PARTICIPANT_COLUMNS, (rs, c) -> new Participant(
+            rs.getInt(c[0]),
+            rs.getString(c[1]),
+            rs.getString(c[2]),
+            rs.getString(c[3]),
+            rs.getString(c[4]),
+            rs.getString(c[5]),
+            rs.getString(c[6])
+        ));
     }
     
     public static List<Participant> getAllParticipants() {
-        return DatabaseConnection.executeWithConnection(conn -> {
+        return DatabaseConnection.executeReadOnly(conn -> {
             String sql = "SELECT * FROM participants ORDER BY last_name, first_name";
             try (PreparedStatement stmt = conn.prepareStatement(sql);
                  ResultSet rs = stmt.executeQuery()) {
                 
                 List<Participant> participants = new ArrayList<>();
+                Function<ResultSet, Participant> mapper = mapToParticipant();
                 while (rs.next()) {
-                    participants.add(mapToParticipant().apply(rs));
+                    participants.add(mapper.apply(rs));
                 }
                 return participants;
             }
         }).orElse(Collections.emptyList());
     }
     
+    public static Stream<Participant> streamAllParticipants() {
+        return DatabaseConnection.streamQuery("SELECT * FROM participants ORDER BY last_name, first_name", stmt -> { }, mapToParticipant());
+    }
+    
+    public static long forEachParticipant(Consumer<Participant> consumer) {
+        return DatabaseConnection.forEachRow("SELECT * FROM participants ORDER BY last_name, first_name", stmt -> { }, mapToParticipant(), consumer)
+            .orElse(0L);
+    }
+    
+    private static final Page.Keyset PARTICIPANT_PAGES = new Page.Keyset("participants", false, "last_name", "first_name", "participant_id");
+    
+    public static Page<Participant> getParticipantsAfter(Participant cursor, int pageSize) {
+        return PARTICIPANT_PAGES.after(cursor == null ? null : new Object[] { cursor.lastName, cursor.firstName, cursor.participantId },
+            pageSize, mapToParticipant());
+    }
+    
+    public static Page<Participant> getParticipantsBefore(Participant cursor, int pageSize) {
+        return PARTICIPANT_PAGES.before(new Object[] { cursor.lastName, cursor.firstName, cursor.participantId },
+            pageSize, mapToParticipant());
+    }
+    
+    private static final EntityCache<Integer, Participant> PARTICIPANT_CACHE = EntityCache.fromProperties("participants");
+    private static final EntityCache<String, Integer> PARTICIPANT_ID_BY_EMAIL = EntityCache.fromProperties("participantEmails");
+    
+    public static Optional<Participant> getParticipantById(int participantId) {
+        return PARTICIPANT_CACHE.get(participantId, ParticipantService::loadParticipantById);
+    }
+    
     public static Optional<Participant> getParticipantByEmail(String email) {
-        return DatabaseConnection.executeWithConnection(conn -> {
+        Optional<Integer> cachedId = PARTICIPANT_ID_BY_EMAIL.getIfPresent(email);
+        if (cachedId.isPresent()) {
+            Optional<Participant> cached = getParticipantById(cachedId.get())
+                .filter(participant -> participant.email.equals(email));
+            if (cached.isPresent()) {
+                return cached;
+            }
+            PARTICIPANT_ID_BY_EMAIL.invalidate(email);
+        }
+        
+        Participant[] loaded = new Participant[1];
+        Optional<Integer> participantId = PARTICIPANT_ID_BY_EMAIL.get(email, key -> 
+            loadParticipantByEmail(key).map(participant -> {
+                loaded[0] = participant;
+                return participant.participantId;
+            }));
+        return loaded[0] != null ? Optional.of(loaded[0]) : participantId.flatMap(ParticipantService::getParticipantById);
+    }
+    
+    public static List<EntityCache.CacheStats> getCacheStats() {
+        return List.of(PARTICIPANT_CACHE.stats(), PARTICIPANT_ID_BY_EMAIL.stats());
+    }
+    
+    public static void invalidateCache() {
+        PARTICIPANT_CACHE.invalidateAll();
+        PARTICIPANT_ID_BY_EMAIL.invalidateAll();
+    }
+    
+    // Another node changed these participants (CacheInvalidationListener). Email lookups need no
+    // eviction: every hit is checked against the participant it points to.
+    public static void refreshCached(Collection<Integer> participantIds) {
+        participantIds.forEach(PARTICIPANT_CACHE::invalidate);
+    }
+    
+    public static void refreshAllCached() {
+        invalidateCache();
+    }
+    
+    private static Optional<Participant> loadParticipantById(int participantId) {
+        return DatabaseConnection.executeReadOnlyOnPrimary(conn -> {
+            String sql = "SELECT * FROM participants WHERE participant_id = ?";
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, participantId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        return mapToParticipant().apply(rs);
+                    }
+                }
+            }
+            return null;
+        });
+    }
+    
+    private static Optional<Participant> loadParticipantByEmail(String email) {
+        return DatabaseConnection.executeReadOnlyOnPrimary(conn -> {
             String sql = "SELECT * FROM participants WHERE email = ?";
             try (PreparedStatement stmt = conn.prepareStatement(sql)) {
                 stmt.setString(1, email);
@@ -85,16 +189,71 @@ public class ParticipantService {
     }
     
     public static List<Participant> getParticipantsByType(String participantType) {
-        return getAllParticipants().stream()
-            .filter(participant -> participantType.equals(participant.participantType))
-            .collect(Collectors.toList());
+        QueryCriteria criteria = QueryCriteria.where().eq("participant_type", participantType);
+        return DatabaseConnection.executeReadOnly(conn -> {
+            String sql = "SELECT * FROM participants" + criteria.toWhereClause() + " ORDER BY last_name, first_name";
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                criteria.bind(stmt, 1);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    List<Participant> participants = new ArrayList<>();
+                    Function<ResultSet, Participant> mapper = mapToParticipant();
+                    while (rs.next()) {
+                        participants.add(mapper.apply(rs));
+                    }
+                    return participants;
+                }
+            }
+        }).orElse(Collections.emptyList());
     }
     
     public static List<Participant> getParticipantsByInstitution(String institution) {
-        return getAllParticipants().stream()
-            .filter(participant -> participant.institution != null && 
-                   participant.institution.toLowerCase().contains(institution.toLowerCase()))
-            .collect(Collectors.toList());
+        return DatabaseConnection.executeReadOnly(conn -> {
+            String sql = "SELECT * FROM participants WHERE lower(institution) LIKE ? ESCAPE '\\' " +
+                        "ORDER BY last_name, first_name";
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setString(1, "%" + escapeLike(institution.toLowerCase()) + "%");
+                try (ResultSet rs = stmt.executeQuery()) {
+                    List<Participant> participants = new ArrayList<>();
+                    Function<ResultSet, Participant> mapper = mapToParticipant();
+                    while (rs.next()) {
+                        participants.add(mapper.apply(rs));
+                    }
+                    return participants;
+                }
+            }
+        }).orElse(Collections.emptyList());
+    }
+    
+    public static List<Participant> searchParticipantsByInstitution(String query, int limit) {
+        String term = query.trim().toLowerCase();
+        if (term.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return DatabaseConnection.executeReadOnly(conn -> {
+            String sql = "SELECT * FROM participants WHERE lower(institution) LIKE ? ESCAPE '\\' " +
+                        "ORDER BY lower(institution) = ? DESC, lower(institution) LIKE ? ESCAPE '\\' DESC, " +
+                        "similarity(lower(institution), ?) DESC, last_name, first_name, participant_id LIMIT ?";
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                String escaped = escapeLike(term);
+                stmt.setString(1, "%" + escaped + "%");
+                stmt.setString(2, term);
+                stmt.setString(3, escaped + "%");
+                stmt.setString(4, term);
+                stmt.setInt(5, limit);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    List<Participant> participants = new ArrayList<>();
+                    Function<ResultSet, Participant> mapper = mapToParticipant();
+                    while (rs.next()) {
+                        participants.add(mapper.apply(rs));
+                    }
+                    return participants;
+                }
+            }
+        }).orElse(Collections.emptyList());
+    }
+    
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
     }
     
     public static Optional<Integer> createParticipant(String firstName, String lastName, String email, 
@@ -120,9 +279,83 @@ public class ParticipantService {
         });
     }
     
+    public static Optional<BatchResult> createParticipants(List<NewParticipant> participants) {
+        BatchResult.Builder result = new BatchResult.Builder(participants.size());
+        List<Integer> accepted = new ArrayList<>();
+        Map<String, Integer> firstByEmail = new HashMap<>();
+        for (int i = 0; i < participants.size(); i++) {
+            NewParticipant participant = participants.get(i);
+            String overLong = overLongColumn(participant);
+            if (participant.firstName == null || participant.lastName == null || participant.email == null) {
+                result.set(i, BatchResult.Outcome.INVALID, null, "first name, last name and email are required");
+            } else if (overLong != null) {
+                result.set(i, BatchResult.Outcome.INVALID, null, overLong + " is too long");
+            } else if (participant.participantType != null && !PARTICIPANT_TYPES.contains(participant.participantType)) {
+                result.set(i, BatchResult.Outcome.INVALID, null, "invalid participant type: " + participant.participantType);
+            } else if (firstByEmail.putIfAbsent(participant.email, i) != null) {
+                result.set(i, BatchResult.Outcome.SKIPPED, null, "duplicate email in batch");
+            } else {
+                accepted.add(i);
+            }
+        }
+        
+        return DatabaseConnection.executeWithConnection(conn -> {
+            conn.setAutoCommit(false);
+            BatchResult.writeInChunks(conn, accepted, result, chunk -> {
+                String sql = "INSERT INTO participants (first_name, last_name, email, phone, institution, participant_type) " +
+                            "VALUES " + BatchResult.values(chunk.size(), "(?, ?, ?, ?, ?, coalesce(?, 'STUDENT'))") + " " +
+                            "ON CONFLICT (email) DO NOTHING RETURNING participant_id, email";
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    int index = 1;
+                    for (int row : chunk) {
+                        NewParticipant participant = participants.get(row);
+                        stmt.setString(index++, participant.firstName);
+                        stmt.setString(index++, participant.lastName);
+                        stmt.setString(index++, participant.email);
+                        stmt.setString(index++, participant.phone);
+                        stmt.setString(index++, participant.institution);
+                        stmt.setString(index++, participant.participantType);
+                    }
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            result.set(firstByEmail.get(rs.getString(2)), BatchResult.Outcome.CREATED, rs.getInt(1), null);
+                        }
+                    }
+                }
+            });
+            conn.commit();
+            result.setRemaining(BatchResult.Outcome.SKIPPED, "email already registered");
+            return result.build();
+        });
+    }
+    
+    // Column widths from academic_events_db.sql; one longer value would otherwise fail its whole chunk
+    private static String overLongColumn(NewParticipant participant) {
+        if (exceeds(participant.firstName, 100)) {
+            return "first name";
+        }
+        if (exceeds(participant.lastName, 100)) {
+            return "last name";
+        }
+        if (exceeds(participant.email, 200)) {
+            return "email";
+        }
+        if (exceeds(participant.phone, 20)) {
+            return "phone";
+        }
+        if (exceeds(participant.institution, 200)) {
+            return "institution";
+        }
+        return null;
+    }
+    
+    private static boolean exceeds(String value, int maxLength) {
+        return value != null && value.codePointCount(0, value.length()) > maxLength;
+    }
+    
     public static boolean updateParticipant(int participantId, String firstName, String lastName, 
                                            String email, String phone, String institution, String participantType) {
-        return DatabaseConnection.executeWithConnection(conn -> {
+        boolean updated = DatabaseConnection.executeWithConnection(conn -> {
             String sql = "UPDATE participants SET first_name = ?, last_name = ?, email = ?, " +
                         "phone = ?, institution = ?, participant_type = ? WHERE participant_id = ?";
             try (PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -136,15 +369,22 @@ public class ParticipantService {
                 return stmt.executeUpdate() > 0;
             }
         }).orElse(false);
+        PARTICIPANT_CACHE.invalidate(participantId);
+        return updated;
     }
     
     public static boolean deleteParticipant(int participantId) {
-        return DatabaseConnection.executeWithConnection(conn -> {
+        boolean deleted = DatabaseConnection.executeWithConnection(conn -> {
             String sql = "DELETE FROM participants WHERE participant_id = ?";
             try (PreparedStatement stmt = conn.prepareStatement(sql)) {
                 stmt.setInt(1, participantId);
                 return stmt.executeUpdate() > 0;
             }
         }).orElse(false);
+        PARTICIPANT_CACHE.invalidate(participantId);
+        if (deleted) {
+            RegistrationService.onParticipantDeleted(participantId);
+        }
+        return deleted;
     }
 }
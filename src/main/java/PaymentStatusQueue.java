@@ -0,0 +1,379 @@
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ * Write-behind pipeline for payment-status changes (webhook bursts). submit() parks the change in a
+ * bounded map keyed by registration id, so repeated updates to one registration collapse into the
+ * latest value and do not take extra room. A single flusher thread writes a batch once batchSize
+ * registrations are waiting or the oldest has waited flushMillis, through
+ * RegistrationService.updatePaymentStatuses: one set-based UPDATE per 500 rows in one transaction.
+ *
+ * When capacity registrations are waiting, submit() blocks for up to offerTimeoutMillis and then
+ * refuses the change, which the caller should turn into a retry (HTTP 503). A batch that fails to
+ * write goes back into the queue unless a newer value arrived meanwhile, and is retried after
+ * flushMillis. stop() flushes everything still queued before returning.
+ *
+ * Reads do not see queued changes until they are flushed; use flush() where that matters. Direct
+ * writes (RegistrationService.updatePaymentStatus) call discard() first, so an older queued value
+ * never lands on top of them.
+ */
+public class PaymentStatusQueue {
+
+    public static class Config {
+        public final int capacity;
+        public final int batchSize;
+        public final long flushMillis;
+        public final long offerTimeoutMillis;
+
+        public Config(int capacity, int batchSize, long flushMillis, long offerTimeoutMillis) {
+            if (capacity < 1 || batchSize < 1 || flushMillis < 1) {
+                throw new IllegalArgumentException("Payment queue capacity, batchSize and flushMillis must be positive");
+            }
+            this.capacity = capacity;
+            this.batchSize = batchSize;
+            this.flushMillis = flushMillis;
+            this.offerTimeoutMillis = offerTimeoutMillis;
+        }
+
+        public static Config fromProperties(Properties props) {
+            return new Config(
+                Integer.parseInt(props.getProperty("registrations.paymentQueue.capacity", "10000")),
+                Integer.parseInt(props.getProperty("registrations.paymentQueue.batchSize", "500")),
+                Long.parseLong(props.getProperty("registrations.paymentQueue.flushMillis", "200")),
+                Long.parseLong(props.getProperty("registrations.paymentQueue.offerTimeoutMillis", "1000")));
+        }
+    }
+
+    public static class QueueStats {
+        public final int pending;
+        public final long submitted;
+        public final long coalesced;
+        public final long rejected;
+        public final long written;
+        public final long notFound;
+        public final long failedFlushes;
+        public final Histogram batchSizes;
+        public final Histogram flushNanos;
+        public final Histogram queuedNanos;
+
+        public QueueStats(int pending, long submitted, long coalesced, long rejected, long written, long notFound,
+                          long failedFlushes, Histogram batchSizes, Histogram flushNanos, Histogram queuedNanos) {
+            this.pending = pending;
+            this.submitted = submitted;
+            this.coalesced = coalesced;
+            this.rejected = rejected;
+            this.written = written;
+            this.notFound = notFound;
+            this.failedFlushes = failedFlushes;
+            this.batchSizes = batchSizes;
+            this.flushNanos = flushNanos;
+            this.queuedNanos = queuedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("QueueStats{pending=%d, submitted=%d, coalesced=%d, rejected=%d, written=%d, notFound=%d, " +
+                    "failedFlushes=%d, batches=%d, batchSize p50=%d, flush p50/p99=%.2f/%.2f ms}",
+                pending, submitted, coalesced, rejected, written, notFound, failedFlushes, batchSizes.count(),
+                batchSizes.percentile(50), flushNanos.percentile(50) / 1e6, flushNanos.percentile(99) / 1e6);
+        }
+    }
+
+    private static class Pending {
+        final String paymentStatus;
+        final long queuedAt;
+
+        Pending(String paymentStatus, long queuedAt) {
+            this.paymentStatus = paymentStatus;
+            this.queuedAt = queuedAt;
+        }
+    }
+
+    private static volatile PaymentStatusQueue active;
+
+    private final Config config;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final Condition flushDue = lock.newCondition();
+    private final Condition flushed = lock.newCondition();
+    // insertion order is arrival order of the first change per registration, so the head is the oldest
+    private final LinkedHashMap<Integer, Pending> pending = new LinkedHashMap<>();
+    private int inFlight;
+    private Set<Integer> inFlightIds = Set.of();
+    private boolean flushRequested;
+    private boolean closed;
+    private int shutdownRetries;
+    private final Thread flusher;
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder notFound = new LongAdder();
+    private final LongAdder failedFlushes = new LongAdder();
+    private final Histogram batchSizes = new Histogram();
+    private final Histogram flushNanos = new Histogram();
+    private final Histogram queuedNanos = new Histogram();
+
+    public PaymentStatusQueue(Config config) {
+        this.config = config;
+        this.flusher = new Thread(this::run, "payment-status-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    public static boolean startIfConfigured() {
+        Optional<Properties> props = DatabaseConnection.loadDatabaseProperties();
+        boolean configured = props
+            .map(p -> Boolean.parseBoolean(p.getProperty("registrations.paymentQueue.enabled", "false")))
+            .orElse(false);
+        if (configured) {
+            start(Config.fromProperties(props.get()));
+        }
+        return configured;
+    }
+
+    public static synchronized void start(Config config) {
+        stop();
+        active = new PaymentStatusQueue(config);
+    }
+
+    public static synchronized void stop() {
+        PaymentStatusQueue queue = active;
+        active = null;
+        if (queue != null) {
+            queue.close();
+        }
+    }
+
+    public static Optional<PaymentStatusQueue> getActive() {
+        return Optional.ofNullable(active);
+    }
+
+    // false when the queue stayed full for offerTimeoutMillis or is shutting down
+    public boolean submit(int registrationId, String paymentStatus) {
+        if (!RegistrationService.PAYMENT_STATUSES.contains(paymentStatus)) {
+            throw new IllegalArgumentException("Invalid payment status: " + paymentStatus);
+        }
+        long now = System.nanoTime();
+        lock.lock();
+        try {
+            Pending previous = pending.get(registrationId);
+            if (previous != null && !closed) {
+                pending.put(registrationId, new Pending(paymentStatus, previous.queuedAt));
+                submitted.increment();
+                coalesced.increment();
+                return true;
+            }
+            long waitNanos = TimeUnit.MILLISECONDS.toNanos(config.offerTimeoutMillis);
+            while (!closed && pending.size() >= config.capacity) {
+                if (waitNanos <= 0) {
+                    rejected.increment();
+                    return false;
+                }
+                waitNanos = notFull.awaitNanos(waitNanos);
+            }
+            if (closed) {
+                rejected.increment();
+                return false;
+            }
+            // another thread may have queued this registration while we waited for room
+            Pending queued = pending.get(registrationId);
+            pending.put(registrationId, new Pending(paymentStatus, queued != null ? queued.queuedAt : now));
+            submitted.increment();
+            if (pending.size() >= config.batchSize) {
+                flushDue.signal();
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            rejected.increment();
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Writes everything queued so far; false if that did not finish within the timeout
+    public boolean flush(long timeout, TimeUnit unit) {
+        long waitNanos = unit.toNanos(timeout);
+        lock.lock();
+        try {
+            while (!pending.isEmpty() || inFlight > 0) {
+                if (waitNanos <= 0) {
+                    return false;
+                }
+                flushRequested = true;
+                flushDue.signal();
+                waitNanos = flushed.awaitNanos(waitNanos);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Drops the queued change for this registration and waits out a batch that is writing it (a failed
+    // batch puts its values back, so this repeats until neither holds the registration)
+    public void discard(int registrationId) {
+        lock.lock();
+        try {
+            while (true) {
+                if (pending.remove(registrationId) != null) {
+                    notFull.signalAll();
+                }
+                if (!inFlightIds.contains(registrationId)) {
+                    return;
+                }
+                flushed.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            flushDue.signal();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public QueueStats stats() {
+        int waiting;
+        lock.lock();
+        try {
+            waiting = pending.size() + inFlight;
+        } finally {
+            lock.unlock();
+        }
+        return new QueueStats(waiting, submitted.sum(), coalesced.sum(), rejected.sum(), written.sum(), notFound.sum(),
+            failedFlushes.sum(), batchSizes, flushNanos, queuedNanos);
+    }
+
+    private void run() {
+        while (true) {
+            Map<Integer, Pending> batch = nextBatch();
+            if (batch == null) {
+                return;
+            }
+            boolean ok = write(batch);
+            lock.lock();
+            try {
+                inFlight = 0;
+                inFlightIds = Set.of();
+                if (!ok) {
+                    // a newer value queued while the batch was out wins over the failed one
+                    batch.forEach(pending::putIfAbsent);
+                }
+                flushed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            if (!ok) {
+                if (closedAndGivingUp()) {
+                    return;
+                }
+                pause();
+            }
+        }
+    }
+
+    // Blocks until a batch is due; null once closed and empty
+    private Map<Integer, Pending> nextBatch() {
+        lock.lock();
+        try {
+            while (true) {
+                if (pending.isEmpty()) {
+                    flushRequested = false;
+                    if (closed) {
+                        return null;
+                    }
+                    flushDue.await();
+                    continue;
+                }
+                long dueIn = pending.values().iterator().next().queuedAt
+                    + TimeUnit.MILLISECONDS.toNanos(config.flushMillis) - System.nanoTime();
+                if (closed || flushRequested || pending.size() >= config.batchSize || dueIn <= 0) {
+                    break;
+                }
+                flushDue.awaitNanos(dueIn);
+            }
+            Map<Integer, Pending> batch = new LinkedHashMap<>();
+            Iterator<Map.Entry<Integer, Pending>> oldest = pending.entrySet().iterator();
+            while (oldest.hasNext() && batch.size() < config.batchSize) {
+                Map.Entry<Integer, Pending> entry = oldest.next();
+                batch.put(entry.getKey(), entry.getValue());
+                oldest.remove();
+            }
+            inFlight = batch.size();
+            inFlightIds = batch.keySet();
+            notFull.signalAll();
+            return batch;
+        } catch (InterruptedException e) {
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean write(Map<Integer, Pending> batch) {
+        Map<Integer, String> statuses = new LinkedHashMap<>();
+        batch.forEach((registrationId, change) -> statuses.put(registrationId, change.paymentStatus));
+        long start = System.nanoTime();
+        Optional<BatchResult> result = RegistrationService.updatePaymentStatuses(statuses);
+        long end = System.nanoTime();
+        if (result.isEmpty()) {
+            failedFlushes.increment();
+            return false;
+        }
+        flushNanos.record(end - start);
+        batchSizes.record(batch.size());
+        batch.values().forEach(change -> queuedNanos.record(end - change.queuedAt));
+        written.add(result.get().count(BatchResult.Outcome.UPDATED));
+        notFound.add(result.get().count(BatchResult.Outcome.NOT_FOUND));
+        return true;
+    }
+
+    // On shutdown a failing database gets a few more tries, then the remaining changes are reported as lost
+    private boolean closedAndGivingUp() {
+        lock.lock();
+        try {
+            if (!closed || ++shutdownRetries < 3) {
+                return false;
+            }
+            System.err.println("Payment status queue closed with " + pending.size() +
+                " unwritten changes for registrations " + pending.keySet());
+            pending.clear();
+            flushed.signalAll();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(config.flushMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
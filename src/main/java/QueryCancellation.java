@@ -0,0 +1,73 @@
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.function.Supplier;
+
+/*
+ * A handle for cancelling the database work of one task from another thread. While run(...) is
+ * executing, every statement created on a connection borrowed from the pool is registered here, and
+ * cancel() forwards to Statement.cancel() on the ones still open. Once cancelled, creating another
+ * statement in the task fails with SQLState 57014 (query_canceled), so multi-query work stops early.
+ * cancel() and unregister() run under the same monitor: a connection only goes back to the pool once
+ * no cancel() is still working on its statements, so a late cancel never reaches the next borrower.
+ */
+public class QueryCancellation {
+    private static final ThreadLocal<QueryCancellation> CURRENT = new ThreadLocal<>();
+
+    private final Set<Statement> statements = new HashSet<>();
+    private volatile boolean cancelled;
+
+    public static Optional<QueryCancellation> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    public static boolean isCurrentCancelled() {
+        QueryCancellation current = CURRENT.get();
+        return current != null && current.cancelled;
+    }
+
+    public <T> T run(Supplier<T> work) {
+        QueryCancellation previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            if (cancelled) {
+                throw new CancellationException("Cancelled before it started");
+            }
+            return work.get();
+        } finally {
+            CURRENT.set(previous);
+            synchronized (this) {
+                statements.clear();
+            }
+        }
+    }
+
+    public synchronized void cancel() {
+        cancelled = true;
+        for (Statement statement : statements) {
+            try {
+                statement.cancel();
+            } catch (SQLException e) {
+                // the statement finished or was closed in the meantime
+            }
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    synchronized void register(Statement statement) throws SQLException {
+        if (cancelled) {
+            throw new SQLException("Query cancelled", "57014");
+        }
+        statements.add(statement);
+    }
+
+    // Called when the borrowing connection goes back to the pool, before anyone else can reuse its statements;
+    // blocks while a cancel() is in progress
+    synchronized void unregister(Collection<Statement> released) {
+        statements.removeAll(released);
+    }
+}
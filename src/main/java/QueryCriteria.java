@@ -0,0 +1,91 @@
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.regex.Pattern;
+
+public class QueryCriteria {
+    private static final Pattern COLUMN_NAME = Pattern.compile("[a-z_][a-z0-9_]*(\\.[a-z_][a-z0-9_]*)?");
+
+    private final List<String> predicates = new ArrayList<>();
+    private final List<Object> parameters = new ArrayList<>();
+
+    public static QueryCriteria where() {
+        return new QueryCriteria();
+    }
+
+    public QueryCriteria eq(String column, Object value) {
+        return add(checked(column) + " = ?", value);
+    }
+
+    public QueryCriteria in(String column, Collection<?> values) {
+        if (values.isEmpty()) {
+            predicates.add("FALSE");
+            return this;
+        }
+        predicates.add(checked(column) + " IN (" + String.join(", ", Collections.nCopies(values.size(), "?")) + ")");
+        parameters.addAll(values);
+        return this;
+    }
+
+    public QueryCriteria atLeast(String column, Object value) {
+        return add(checked(column) + " >= ?", value);
+    }
+
+    public QueryCriteria before(String column, Object value) {
+        return add(checked(column) + " < ?", value);
+    }
+
+    public QueryCriteria atMost(String column, Object value) {
+        return add(checked(column) + " <= ?", value);
+    }
+
+    public QueryCriteria isNull(String column) {
+        predicates.add(checked(column) + " IS NULL");
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return predicates.isEmpty();
+    }
+
+    public String toWhereClause() {
+        return predicates.isEmpty() ? "" : " WHERE " + String.join(" AND ", predicates);
+    }
+
+    public int bind(PreparedStatement stmt, int firstIndex) throws SQLException {
+        int index = firstIndex;
+        for (Object parameter : parameters) {
+            stmt.setObject(index++, toSqlValue(parameter));
+        }
+        return index;
+    }
+
+    @Override
+    public String toString() {
+        return "QueryCriteria{" + toWhereClause().trim() + ", parameters=" + parameters + "}";
+    }
+
+    private QueryCriteria add(String predicate, Object value) {
+        predicates.add(predicate);
+        parameters.add(Objects.requireNonNull(value, "criteria value"));
+        return this;
+    }
+
+    private static String checked(String column) {
+        if (!COLUMN_NAME.matcher(column).matches()) {
+            throw new IllegalArgumentException("Invalid column name: " + column);
+        }
+        return column;
+    }
+
+    static Object toSqlValue(Object value) {
+        if (value instanceof LocalDate) {
+            return java.sql.Date.valueOf((LocalDate) value);
+        }
+        if (value instanceof LocalDateTime) {
+            return Timestamp.valueOf((LocalDateTime) value);
+        }
+        return value;
+    }
+}
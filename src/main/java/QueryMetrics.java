@@ -0,0 +1,265 @@
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Per-operation instrumentation for DatabaseConnection. An operation is the service method that
+ * asked for the connection (e.g. RegistrationService.createRegistration), found by walking the
+ * stack past the database helpers, so call sites need no changes. For each operation it keeps
+ * histograms of connection acquire time, execution time (the whole callback: statements plus
+ * mapping) and rows mapped, and counts acquire failures and SQL errors by SQLState.
+ * metrics.enabled=false turns all of it into a no-op.
+ */
+public class QueryMetrics {
+    private static final String PREFIX = "academic_events_db";
+    private static final double[] QUANTILES = { 0.5, 0.95, 0.99 };
+    private static final Set<String> HELPER_CLASSES = Set.of(
+        "DatabaseConnection", "QueryMetrics", "Page", "Page$Keyset", "QueryCriteria", "EntityCache",
+        "ConnectionPool", "ConnectionPool$StatementCache", "SlowQueryLog", "SlowQueryLog$Recorder", "SlowQueryLog$Entry");
+    private static final StackWalker STACK = StackWalker.getInstance();
+    private static final ThreadLocal<Execution> CURRENT = new ThreadLocal<>();
+    private static final Map<String, Operation> OPERATIONS = new ConcurrentHashMap<>();
+    private static final Operation DISABLED = new Operation("disabled");
+
+    private static final class Config {
+        static final boolean ENABLED = DatabaseConnection.loadDatabaseProperties()
+            .map(props -> Boolean.parseBoolean(props.getProperty("metrics.enabled", "true")))
+            .orElse(true);
+    }
+
+    public static class Operation {
+        public final String name;
+        public final Histogram acquireNanos = new Histogram();
+        public final Histogram executeNanos = new Histogram();
+        public final Histogram rows = new Histogram();
+        private final LongAdder acquireFailures = new LongAdder();
+        private final Map<String, LongAdder> errorsBySqlState = new ConcurrentHashMap<>();
+
+        Operation(String name) {
+            this.name = name;
+        }
+
+        public long acquireFailures() {
+            return acquireFailures.sum();
+        }
+
+        public long errors() {
+            return errorsBySqlState.values().stream().mapToLong(LongAdder::sum).sum();
+        }
+
+        public Map<String, Long> errorsBySqlState() {
+            Map<String, Long> errors = new TreeMap<>();
+            errorsBySqlState.forEach((state, count) -> errors.put(state, count.sum()));
+            return errors;
+        }
+    }
+
+    // Rows mapped on this thread while an execution is open are attributed to it
+    static final class Execution {
+        final Operation operation;
+        final Execution outer;
+        final long startNanos;
+        long rows;
+
+        Execution(Operation operation, Execution outer, long startNanos) {
+            this.operation = operation;
+            this.outer = outer;
+            this.startNanos = startNanos;
+        }
+    }
+
+    public static boolean isEnabled() {
+        return Config.ENABLED;
+    }
+
+    static Operation forCaller() {
+        if (!Config.ENABLED) {
+            return DISABLED;
+        }
+        return OPERATIONS.computeIfAbsent(callerName(), Operation::new);
+    }
+
+    // Also used by statement-level hooks, so JDBC proxy frames are skipped as well
+    static String callerName() {
+        return STACK.walk(frames -> frames
+            .filter(frame -> !HELPER_CLASSES.contains(frame.getClassName()) && !frame.getClassName().contains("$Proxy"))
+            .findFirst()
+            .map(frame -> frame.getClassName() + "." + logicalMethodName(frame.getMethodName()))
+            .orElse("unknown"));
+    }
+
+    // lambda$getParticipantByEmail$3 -> getParticipantByEmail
+    private static String logicalMethodName(String methodName) {
+        if (methodName.startsWith("lambda$")) {
+            int end = methodName.indexOf('$', 7);
+            return methodName.substring(7, end < 0 ? methodName.length() : end);
+        }
+        return methodName;
+    }
+
+    static void acquired(Operation operation, long nanos) {
+        if (operation != DISABLED) {
+            operation.acquireNanos.record(nanos);
+        }
+    }
+
+    static void acquireFailed(Operation operation) {
+        if (operation != DISABLED) {
+            operation.acquireFailures.increment();
+        }
+    }
+
+    static Execution begin(Operation operation) {
+        if (operation == DISABLED) {
+            return null;
+        }
+        Execution execution = new Execution(operation, CURRENT.get(), System.nanoTime());
+        CURRENT.set(execution);
+        return execution;
+    }
+
+    // Streamed queries stay open after the call returns and may be closed on another thread, so their
+    // execution is never made current; the stream reports its rows and its end directly
+    static Execution beginDetached(Operation operation) {
+        return operation == DISABLED ? null : new Execution(operation, null, System.nanoTime());
+    }
+
+    static void rowMapped(Execution execution) {
+        if (execution != null) {
+            execution.rows++;
+        }
+    }
+
+    static void endDetached(Execution execution, String failedSqlState) {
+        if (execution != null) {
+            record(execution, failedSqlState);
+        }
+    }
+
+    static void end(Execution execution, String failedSqlState) {
+        if (execution == null) {
+            return;
+        }
+        record(execution, failedSqlState);
+        if (execution.outer == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(execution.outer);
+        }
+    }
+
+    private static void record(Execution execution, String failedSqlState) {
+        Operation operation = execution.operation;
+        operation.executeNanos.record(System.nanoTime() - execution.startNanos);
+        operation.rows.record(execution.rows);
+        if (failedSqlState != null) {
+            operation.errorsBySqlState.computeIfAbsent(failedSqlState, state -> new LongAdder()).increment();
+        }
+    }
+
+    static void rowMapped() {
+        Execution execution = CURRENT.get();
+        if (execution != null) {
+            execution.rows++;
+        }
+    }
+
+    public static List<Operation> getOperations() {
+        List<Operation> operations = new ArrayList<>(OPERATIONS.values());
+        operations.sort(Comparator.comparing(operation -> operation.name));
+        return operations;
+    }
+
+    public static void reset() {
+        OPERATIONS.clear();
+    }
+
+    public static String toPrometheusText() {
+        List<Operation> operations = getOperations();
+        StringBuilder out = new StringBuilder(4096);
+        summary(out, "acquire_seconds", "Time to borrow a pooled connection", operations,
+            operation -> operation.acquireNanos, 1e-9);
+        summary(out, "execute_seconds", "Time spent running the operation on its connection", operations,
+            operation -> operation.executeNanos, 1e-9);
+        summary(out, "rows", "Rows mapped per operation", operations, operation -> operation.rows, 1);
+
+        out.append("# HELP ").append(PREFIX).append("_acquire_failures_total Connection borrows that timed out or failed\n");
+        out.append("# TYPE ").append(PREFIX).append("_acquire_failures_total counter\n");
+        for (Operation operation : operations) {
+            out.append(PREFIX).append("_acquire_failures_total{operation=\"").append(operation.name).append("\"} ")
+                .append(operation.acquireFailures()).append('\n');
+        }
+        out.append("# HELP ").append(PREFIX).append("_errors_total SQLExceptions by SQLState\n");
+        out.append("# TYPE ").append(PREFIX).append("_errors_total counter\n");
+        for (Operation operation : operations) {
+            operation.errorsBySqlState().forEach((state, count) ->
+                out.append(PREFIX).append("_errors_total{operation=\"").append(operation.name)
+                    .append("\",sqlstate=\"").append(state).append("\"} ").append(count).append('\n'));
+        }
+
+        DatabaseConnection.getPoolStats().ifPresent(stats -> {
+            gauge(out, "pool_active_connections", "Connections currently borrowed", stats.active);
+            gauge(out, "pool_idle_connections", "Open connections waiting in the pool", stats.idle);
+            gauge(out, "pool_waiting_callers", "Callers waiting for a connection", stats.waiting);
+            gauge(out, "pool_max_connections", "Configured pool size", stats.maxSize);
+        });
+        PaymentStatusQueue.getActive().map(PaymentStatusQueue::stats).ifPresent(stats -> {
+            gauge(out, "payment_queue_pending", "Payment status changes waiting to be written", stats.pending);
+            counter(out, "payment_queue_submitted_total", "Payment status changes accepted", stats.submitted);
+            counter(out, "payment_queue_coalesced_total", "Changes that replaced a queued change for the same registration", stats.coalesced);
+            counter(out, "payment_queue_rejected_total", "Changes refused because the queue stayed full", stats.rejected);
+            counter(out, "payment_queue_failed_flushes_total", "Batches that failed and were queued again", stats.failedFlushes);
+            histogramSummary(out, "payment_queue_batch_size", "Registrations per flushed batch", stats.batchSizes, 1);
+            histogramSummary(out, "payment_queue_flush_seconds", "Time to write one batch", stats.flushNanos, 1e-9);
+            histogramSummary(out, "payment_queue_delay_seconds", "Time from submit to written", stats.queuedNanos, 1e-9);
+        });
+        return out.toString();
+    }
+
+    private static void summary(StringBuilder out, String metric, String help, List<Operation> operations,
+                                java.util.function.Function<Operation, Histogram> histogramOf, double scale) {
+        String name = PREFIX + "_" + metric;
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" summary\n");
+        for (Operation operation : operations) {
+            Histogram histogram = histogramOf.apply(operation);
+            String labels = "operation=\"" + operation.name + "\"";
+            for (double quantile : QUANTILES) {
+                out.append(name).append('{').append(labels).append(",quantile=\"").append(quantile).append("\"} ")
+                    .append(format(histogram.percentile(quantile * 100) * scale)).append('\n');
+            }
+            out.append(name).append("_sum{").append(labels).append("} ").append(format(histogram.sum() * scale)).append('\n');
+            out.append(name).append("_count{").append(labels).append("} ").append(histogram.count()).append('\n');
+        }
+    }
+
+    private static void histogramSummary(StringBuilder out, String metric, String help, Histogram histogram, double scale) {
+        String name = PREFIX + "_" + metric;
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" summary\n");
+        for (double quantile : QUANTILES) {
+            out.append(name).append("{quantile=\"").append(quantile).append("\"} ")
+                .append(format(histogram.percentile(quantile * 100) * scale)).append('\n');
+        }
+        out.append(name).append("_sum ").append(format(histogram.sum() * scale)).append('\n');
+        out.append(name).append("_count ").append(histogram.count()).append('\n');
+    }
+
+    private static void counter(StringBuilder out, String metric, String help, long value) {
+        String name = PREFIX + "_" + metric;
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" counter\n");
+        out.append(name).append(' ').append(value).append('\n');
+    }
+
+    private static void gauge(StringBuilder out, String metric, String help, long value) {
+        String name = PREFIX + "_" + metric;
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" gauge\n");
+        out.append(name).append(' ').append(value).append('\n');
+    }
+
+    private static String format(double value) {
+        return value == Math.rint(value) && Math.abs(value) < 1e15 ? Long.toString((long) value) : Double.toString(value);
+    }
+}
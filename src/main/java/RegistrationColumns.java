@@ -0,0 +1,353 @@
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Read-only, column-per-array copy of the registrations table for reports. A row is an index into
+ * parallel arrays: registration_id and participant_id as ints, event_id as an int code into a
+ * dictionary of distinct events (so per-event counts index an array instead of hashing),
+ * registration_date as epoch microseconds of the stored wall-clock time, and status / payment_status
+ * as one-hot byte flags (1, 2, 4 in the order of STATUSES / PAYMENT_STATUSES). Notes are not loaded;
+ * notes(row) fetches and keeps them on first use. The columns are nullable: a NULL status is flag 0
+ * and so falls in no bucket, a NULL registration_date is stored as NO_DATE and matches no range, and
+ * a NULL event_id gets code NO_EVENT and is left out of the per-event counts.
+ *
+ * That is 22 bytes per row (4 + 4 + 4 + 8 + 1 + 1) against roughly 200 for a Registration in a list
+ * (object, LocalDateTime with its date and time, status strings, notes), and the target is to stay
+ * under 24 bytes per row measured on the heap (RegistrationColumnsCheck; the scan timings are in
+ * RegistrationColumnsBenchmarks). Counting scans are branch-free loops over one or two primitive
+ * arrays, which C2 unrolls and can auto-vectorize.
+ */
+public class RegistrationColumns {
+    public static final List<String> STATUSES = List.of("PENDING", "CONFIRMED", "CANCELLED");
+    public static final List<String> PAYMENT_STATUSES = List.of("PENDING", "PAID", "REFUNDED");
+
+    // Stand-ins for NULL: below any toMicros() value, and not an index into the event dictionary
+    private static final long NO_DATE = Long.MIN_VALUE;
+    private static final int NO_EVENT = -1;
+
+    // Reports only aggregate, so rows come in physical order
+    private static final String COLUMNS_SQL = "SELECT registration_id, event_id, participant_id, " +
+        "extract(epoch FROM date_trunc('second', registration_date))::bigint * 1000000 " +
+        "+ extract(microseconds FROM registration_date)::bigint % 1000000 AS registered_micros, status, payment_status " +
+        "FROM registrations";
+    private static final String ESTIMATE_SQL = "SELECT greatest(reltuples, 0)::bigint FROM pg_class WHERE oid = 'registrations'::regclass";
+
+    // Per-event counts from one pass; slot order is the event dictionary order
+    public static class EventCounts {
+        private final int[] eventIds;
+        private final Map<Integer, Integer> slotByEvent;
+        private final long[] byStatus;
+        private final long[] byPaymentStatus;
+
+        EventCounts(int[] eventIds, Map<Integer, Integer> slotByEvent, long[] byStatus, long[] byPaymentStatus) {
+            this.eventIds = eventIds;
+            this.slotByEvent = slotByEvent;
+            this.byStatus = byStatus;
+            this.byPaymentStatus = byPaymentStatus;
+        }
+
+        public int[] eventIds() {
+            return eventIds.clone();
+        }
+
+        public long statusCount(int eventId, String status) {
+            return count(byStatus, eventId, STATUSES.indexOf(status));
+        }
+
+        public long paymentStatusCount(int eventId, String paymentStatus) {
+            return count(byPaymentStatus, eventId, PAYMENT_STATUSES.indexOf(paymentStatus));
+        }
+
+        private long count(long[] counts, int eventId, int code) {
+            Integer slot = slotByEvent.get(eventId);
+            if (slot == null || code < 0) {
+                return 0;
+            }
+            return counts[slot * 3 + code];
+        }
+    }
+
+    private final int size;
+    private final int[] registrationIds;
+    private final int[] eventCodes;
+    private final int[] participantIds;
+    private final long[] registeredMicros;
+    private final byte[] statuses;
+    private final byte[] paymentStatuses;
+    private final int[] eventIds;
+    private final Map<Integer, Integer> eventCodeById;
+    private final Map<Integer, Optional<String>> notes = new ConcurrentHashMap<>();
+
+    private RegistrationColumns(Builder builder) {
+        this.size = builder.size;
+        this.registrationIds = builder.registrationIds;
+        this.eventCodes = builder.eventCodes;
+        this.participantIds = builder.participantIds;
+        this.registeredMicros = builder.registeredMicros;
+        this.statuses = builder.statuses;
+        this.paymentStatuses = builder.paymentStatuses;
+        this.eventIds = Arrays.copyOf(builder.eventIds, builder.eventCount);
+        this.eventCodeById = builder.eventCodeById;
+    }
+
+    // Streams the table through a cursor; conn must not be in autocommit mode
+    public static RegistrationColumns load(Connection conn) throws SQLException {
+        int expected = 1024;
+        try (PreparedStatement stmt = conn.prepareStatement(ESTIMATE_SQL);
+             ResultSet rs = stmt.executeQuery()) {
+            if (rs.next()) {
+                expected = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(expected, rs.getLong(1) + rs.getLong(1) / 16));
+            }
+        }
+        Builder builder = new Builder(expected);
+        try (PreparedStatement stmt = conn.prepareStatement(COLUMNS_SQL)) {
+            stmt.setFetchSize(DatabaseConnection.getFetchSize());
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    builder.add(rs.getInt(1), rs.getObject(2, Integer.class), rs.getInt(3), rs.getObject(4, Long.class),
+                        rs.getString(5), rs.getString(6));
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int registrationId(int row) {
+        return registrationIds[checked(row)];
+    }
+
+    // 0 for a NULL event_id, as rs.getInt reads it for a Registration
+    public int eventId(int row) {
+        int code = eventCodes[checked(row)];
+        return code == NO_EVENT ? 0 : eventIds[code];
+    }
+
+    public int participantId(int row) {
+        return participantIds[checked(row)];
+    }
+
+    public LocalDateTime registrationDate(int row) {
+        long micros = registeredMicros[checked(row)];
+        if (micros == NO_DATE) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000), Math.floorMod(micros, 1_000_000) * 1000, ZoneOffset.UTC);
+    }
+
+    public String status(int row) {
+        return value(STATUSES, statuses[checked(row)]);
+    }
+
+    public String paymentStatus(int row) {
+        return value(PAYMENT_STATUSES, paymentStatuses[checked(row)]);
+    }
+
+    // Read from the table on first use, so it reflects the current row rather than the load
+    public Optional<String> notes(int row) {
+        int registrationId = registrationId(row);
+        Optional<String> cached = notes.get(registrationId);
+        if (cached != null) {
+            return cached;
+        }
+        Optional<Optional<String>> loaded = DatabaseConnection.executeReadOnly(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement("SELECT notes FROM registrations WHERE registration_id = ?")) {
+                stmt.setInt(1, registrationId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    return rs.next() ? Optional.ofNullable(rs.getString(1)) : null;
+                }
+            }
+        });
+        loaded.ifPresent(value -> notes.put(registrationId, value));
+        return loaded.orElse(Optional.empty());
+    }
+
+    public RegistrationService.Registration toRegistration(int row) {
+        return new RegistrationService.Registration(registrationId(row), eventId(row), participantId(row),
+            registrationDate(row), status(row), paymentStatus(row), notes(row).orElse(null));
+    }
+
+    public long[] countByStatus() {
+        return countFlags(statuses);
+    }
+
+    public long[] countByPaymentStatus() {
+        return countFlags(paymentStatuses);
+    }
+
+    // Rows whose status and payment status are both in the given sets (null means any)
+    public long count(Set<String> statusFilter, Set<String> paymentStatusFilter) {
+        byte statusMask = mask(STATUSES, statusFilter);
+        byte paymentMask = mask(PAYMENT_STATUSES, paymentStatusFilter);
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            count += ((statuses[i] & statusMask) != 0 & (paymentStatuses[i] & paymentMask) != 0) ? 1 : 0;
+        }
+        return count;
+    }
+
+    // Rows registered in [from, to)
+    public long countRegisteredBetween(LocalDateTime from, LocalDateTime to) {
+        long low = toMicros(from);
+        long high = toMicros(to);
+        long[] micros = registeredMicros;
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            long value = micros[i];
+            count += (value >= low & value < high) ? 1 : 0;
+        }
+        return count;
+    }
+
+    public EventCounts countByEvent() {
+        long[] byStatus = new long[eventIds.length * 3];
+        long[] byPaymentStatus = new long[eventIds.length * 3];
+        for (int i = 0; i < size; i++) {
+            int code = eventCodes[i];
+            if (code == NO_EVENT) {
+                continue;
+            }
+            int slot = code * 3;
+            int status = statuses[i];
+            int paymentStatus = paymentStatuses[i];
+            byStatus[slot] += status & 1;
+            byStatus[slot + 1] += status >> 1 & 1;
+            byStatus[slot + 2] += status >> 2;
+            byPaymentStatus[slot] += paymentStatus & 1;
+            byPaymentStatus[slot + 1] += paymentStatus >> 1 & 1;
+            byPaymentStatus[slot + 2] += paymentStatus >> 2;
+        }
+        return new EventCounts(eventIds, eventCodeById, byStatus, byPaymentStatus);
+    }
+
+    // Heap held by the columns themselves (array headers included, notes excluded)
+    public long columnBytes() {
+        return 16L * 7 + 4L * (registrationIds.length + eventCodes.length + participantIds.length + eventIds.length)
+            + 8L * registeredMicros.length + statuses.length + paymentStatuses.length;
+    }
+
+    // One-hot flags: three independent bit sums in one pass
+    private long[] countFlags(byte[] flags) {
+        int first = 0;
+        int second = 0;
+        int third = 0;
+        for (int i = 0; i < size; i++) {
+            int flag = flags[i];
+            first += flag & 1;
+            second += flag >> 1 & 1;
+            third += flag >> 2;
+        }
+        return new long[] { first, second, third };
+    }
+
+    private static byte mask(List<String> values, Set<String> filter) {
+        if (filter == null) {
+            return 7;
+        }
+        int mask = 0;
+        for (String value : filter) {
+            int code = values.indexOf(value);
+            if (code >= 0) {
+                mask |= 1 << code;
+            }
+        }
+        return (byte) mask;
+    }
+
+    private static long toMicros(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + dateTime.getNano() / 1000;
+    }
+
+    private int checked(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " of " + size);
+        }
+        return row;
+    }
+
+    private static byte flag(List<String> values, String value) {
+        if (value == null) {
+            return 0;
+        }
+        int code = values.indexOf(value);
+        if (code < 0) {
+            throw new IllegalArgumentException("Unknown value: " + value);
+        }
+        return (byte) (1 << code);
+    }
+
+    private static String value(List<String> values, byte flag) {
+        return flag == 0 ? null : values.get(Integer.numberOfTrailingZeros(flag));
+    }
+
+    public static class Builder {
+        private int size;
+        private int[] registrationIds;
+        private int[] eventCodes;
+        private int[] participantIds;
+        private long[] registeredMicros;
+        private byte[] statuses;
+        private byte[] paymentStatuses;
+        private int[] eventIds = new int[64];
+        private int eventCount;
+        private final Map<Integer, Integer> eventCodeById = new HashMap<>();
+
+        public Builder(int expectedRows) {
+            allocate(Math.max(16, expectedRows));
+        }
+
+        // A null argument stands for a NULL column
+        public Builder add(int registrationId, Integer eventId, int participantId, Long registeredMicros,
+                           String status, String paymentStatus) {
+            if (size == registrationIds.length) {
+                allocate(size + (size >> 1));
+            }
+            Integer code = eventId == null ? Integer.valueOf(NO_EVENT) : eventCodeById.get(eventId);
+            if (code == null) {
+                if (eventCount == eventIds.length) {
+                    eventIds = Arrays.copyOf(eventIds, eventCount * 2);
+                }
+                code = eventCount;
+                eventIds[eventCount++] = eventId;
+                eventCodeById.put(eventId, code);
+            }
+            registrationIds[size] = registrationId;
+            eventCodes[size] = code;
+            participantIds[size] = participantId;
+            this.registeredMicros[size] = registeredMicros == null ? NO_DATE : registeredMicros;
+            statuses[size] = flag(STATUSES, status);
+            paymentStatuses[size] = flag(PAYMENT_STATUSES, paymentStatus);
+            size++;
+            return this;
+        }
+
+        public Builder add(RegistrationService.Registration registration) {
+            return add(registration.registrationId, registration.eventId, registration.participantId,
+                registration.registrationDate == null ? null : toMicros(registration.registrationDate),
+                registration.status, registration.paymentStatus);
+        }
+
+        // Trims the arrays when the estimate overshot by more than an eighth
+        public RegistrationColumns build() {
+            if (registrationIds.length - size > registrationIds.length / 8) {
+                allocate(size);
+            }
+            return new RegistrationColumns(this);
+        }
+
+        private void allocate(int capacity) {
+            registrationIds = registrationIds == null ? new int[capacity] : Arrays.copyOf(registrationIds, capacity);
+            eventCodes = eventCodes == null ? new int[capacity] : Arrays.copyOf(eventCodes, capacity);
+            participantIds = participantIds == null ? new int[capacity] : Arrays.copyOf(participantIds, capacity);
+            registeredMicros = registeredMicros == null ? new long[capacity] : Arrays.copyOf(registeredMicros, capacity);
+            statuses = statuses == null ? new byte[capacity] : Arrays.copyOf(statuses, capacity);
+            paymentStatuses = paymentStatuses == null ? new byte[capacity] : Arrays.copyOf(paymentStatuses, capacity);
+        }
+    }
+}
@@ -0,0 +1,337 @@
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public class RegistrationIndex {
+    private static final int[] NO_SLOTS = new int[0];
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private RegistrationService.Registration[] slots = new RegistrationService.Registration[1024];
+    private int[] freeSlots = new int[64];
+    private int freeCount;
+    private int slotCount;
+    private final IntIntMap slotById = new IntIntMap(1024);
+    private final IntMultimap slotsByEvent = new IntMultimap();
+    private final IntMultimap slotsByParticipant = new IntMultimap();
+    private final IntIntMap confirmedByEvent = new IntIntMap(256);
+    private final IntIntMap paidByEvent = new IntIntMap(256);
+
+    public void put(RegistrationService.Registration registration) {
+        lock.writeLock().lock();
+        try {
+            int slot = slotById.get(registration.registrationId, -1);
+            if (slot >= 0) {
+                unlink(slot);
+            } else {
+                slot = allocateSlot();
+                slotById.put(registration.registrationId, slot);
+            }
+            slots[slot] = registration;
+            slotsByEvent.add(registration.eventId, slot);
+            slotsByParticipant.add(registration.participantId, slot);
+            adjustCounters(registration, 1);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int registrationId) {
+        lock.writeLock().lock();
+        try {
+            int slot = slotById.remove(registrationId, -1);
+            if (slot >= 0) {
+                unlink(slot);
+                releaseSlot(slot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeEvent(int eventId) {
+        removeAll(slotsByEvent, eventId);
+    }
+
+    public void removeParticipant(int participantId) {
+        removeAll(slotsByParticipant, participantId);
+    }
+
+    public List<RegistrationService.Registration> getByEvent(int eventId) {
+        return collect(slotsByEvent, eventId);
+    }
+
+    public List<RegistrationService.Registration> getByParticipant(int participantId) {
+        return collect(slotsByParticipant, participantId);
+    }
+
+    public int countConfirmed(int eventId) {
+        lock.readLock().lock();
+        try {
+            return confirmedByEvent.get(eventId, 0);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int countPaid(int eventId) {
+        lock.readLock().lock();
+        try {
+            return paidByEvent.get(eventId, 0);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeAll(IntMultimap multimap, int key) {
+        lock.writeLock().lock();
+        try {
+            for (int slot : multimap.get(key)) {
+                slotById.remove(slots[slot].registrationId, -1);
+                unlink(slot);
+                releaseSlot(slot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private List<RegistrationService.Registration> collect(IntMultimap multimap, int key) {
+        List<RegistrationService.Registration> result;
+        lock.readLock().lock();
+        try {
+            int[] matches = multimap.get(key);
+            result = new ArrayList<>(matches.length);
+            for (int slot : matches) {
+                result.add(slots[slot]);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        result.sort(Comparator.comparing((RegistrationService.Registration registration) -> registration.registrationDate)
+            .thenComparingInt(registration -> registration.registrationId)
+            .reversed());
+        return result;
+    }
+
+    private void unlink(int slot) {
+        RegistrationService.Registration previous = slots[slot];
+        slotsByEvent.remove(previous.eventId, slot);
+        slotsByParticipant.remove(previous.participantId, slot);
+        adjustCounters(previous, -1);
+    }
+
+    private void adjustCounters(RegistrationService.Registration registration, int delta) {
+        if ("CONFIRMED".equals(registration.status)) {
+            confirmedByEvent.add(registration.eventId, delta);
+        }
+        if ("PAID".equals(registration.paymentStatus)) {
+            paidByEvent.add(registration.eventId, delta);
+        }
+    }
+
+    private int allocateSlot() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if (slotCount == slots.length) {
+            slots = Arrays.copyOf(slots, slots.length * 2);
+        }
+        return slotCount++;
+    }
+
+    private void releaseSlot(int slot) {
+        slots[slot] = null;
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeSlots.length * 2);
+        }
+        freeSlots[freeCount++] = slot;
+    }
+
+    private static final class IntIntMap {
+        private int[] keys;
+        private int[] values;
+        private boolean[] used;
+        private int size;
+
+        IntIntMap(int expectedSize) {
+            int capacity = Integer.highestOneBit(Math.max(expectedSize, 8) * 2 - 1) << 1;
+            keys = new int[capacity];
+            values = new int[capacity];
+            used = new boolean[capacity];
+        }
+
+        int size() {
+            return size;
+        }
+
+        int get(int key, int missing) {
+            int index = find(key);
+            return index >= 0 ? values[index] : missing;
+        }
+
+        void put(int key, int value) {
+            if ((size + 1) * 4 > keys.length * 3) {
+                resize(keys.length * 2);
+            }
+            int mask = keys.length - 1;
+            int index = mix(key) & mask;
+            while (used[index]) {
+                if (keys[index] == key) {
+                    values[index] = value;
+                    return;
+                }
+                index = (index + 1) & mask;
+            }
+            used[index] = true;
+            keys[index] = key;
+            values[index] = value;
+            size++;
+        }
+
+        void add(int key, int delta) {
+            int updated = get(key, 0) + delta;
+            if (updated == 0) {
+                remove(key, 0);
+            } else {
+                put(key, updated);
+            }
+        }
+
+        int remove(int key, int missing) {
+            int index = find(key);
+            if (index < 0) {
+                return missing;
+            }
+            int removed = values[index];
+            int mask = keys.length - 1;
+            int next = index;
+            while (true) {
+                next = (next + 1) & mask;
+                if (!used[next]) {
+                    break;
+                }
+                int home = mix(keys[next]) & mask;
+                boolean stays = index <= next ? (index < home && home <= next) : (index < home || home <= next);
+                if (!stays) {
+                    keys[index] = keys[next];
+                    values[index] = values[next];
+                    index = next;
+                }
+            }
+            used[index] = false;
+            size--;
+            return removed;
+        }
+
+        private int find(int key) {
+            int mask = keys.length - 1;
+            int index = mix(key) & mask;
+            while (used[index]) {
+                if (keys[index] == key) {
+                    return index;
+                }
+                index = (index + 1) & mask;
+            }
+            return -1;
+        }
+
+        private void resize(int capacity) {
+            int[] oldKeys = keys;
+            int[] oldValues = values;
+            boolean[] oldUsed = used;
+            keys = new int[capacity];
+            values = new int[capacity];
+            used = new boolean[capacity];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldUsed[i]) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static int mix(int key) {
+            int h = key * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+
+    private static final class IntMultimap {
+        private final IntIntMap bucketByKey = new IntIntMap(1024);
+        private int[][] buckets = new int[1024][];
+        private int[] bucketSizes = new int[1024];
+        private int[] freeBuckets = new int[64];
+        private int freeCount;
+        private int bucketCount;
+
+        void add(int key, int value) {
+            int bucket = bucketByKey.get(key, -1);
+            if (bucket < 0) {
+                bucket = allocateBucket();
+                bucketByKey.put(key, bucket);
+            }
+            int[] values = buckets[bucket];
+            int size = bucketSizes[bucket];
+            if (size == values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+                buckets[bucket] = values;
+            }
+            values[size] = value;
+            bucketSizes[bucket] = size + 1;
+        }
+
+        void remove(int key, int value) {
+            int bucket = bucketByKey.get(key, -1);
+            if (bucket < 0) {
+                return;
+            }
+            int[] values = buckets[bucket];
+            int size = bucketSizes[bucket];
+            for (int i = 0; i < size; i++) {
+                if (values[i] == value) {
+                    values[i] = values[--size];
+                    bucketSizes[bucket] = size;
+                    break;
+                }
+            }
+            if (size == 0) {
+                bucketByKey.remove(key, -1);
+                buckets[bucket] = null;
+                if (freeCount == freeBuckets.length) {
+                    freeBuckets = Arrays.copyOf(freeBuckets, freeBuckets.length * 2);
+                }
+                freeBuckets[freeCount++] = bucket;
+            }
+        }
+
+        int[] get(int key) {
+            int bucket = bucketByKey.get(key, -1);
+            return bucket < 0 ? NO_SLOTS : Arrays.copyOf(buckets[bucket], bucketSizes[bucket]);
+        }
+
+        private int allocateBucket() {
+            int bucket;
+            if (freeCount > 0) {
+                bucket = freeBuckets[--freeCount];
+            } else {
+                if (bucketCount == buckets.length) {
+                    buckets = Arrays.copyOf(buckets, buckets.length * 2);
+                    bucketSizes = Arrays.copyOf(bucketSizes, bucketSizes.length * 2);
+                }
+                bucket = bucketCount++;
+            }
+            buckets[bucket] = new int[4];
+            bucketSizes[bucket] = 0;
+            return bucket;
+        }
+    }
+}
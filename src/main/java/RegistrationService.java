@@ -1,7 +1,8 @@
 import java.sql.*;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import java.time.LocalDateTime;
 
 public class RegistrationService {
@@ -33,104 +34,715 @@ public class RegistrationService {
         }
     }
     
+    public static class NewRegistration {
+        public final int eventId;
+        public final int participantId;
+        public final String notes;
+        
+        public NewRegistration(int eventId, int participantId, String notes) {
+            this.eventId = eventId;
+            this.participantId = participantId;
+            this.notes = notes;
+        }
+    }
+    
+    public enum ReservationOutcome {
+        CONFIRMED, FULL, ALREADY_REGISTERED, EVENT_NOT_FOUND, PARTICIPANT_NOT_FOUND, REGISTRATION_NOT_FOUND, FAILED
+    }
+    
+    public static class ReservationResult {
+        public final ReservationOutcome outcome;
+        public final Integer registrationId;
+        public final long confirmedRegistrations;
+        public final Integer maxParticipants;
+        
+        public ReservationResult(ReservationOutcome outcome, Integer registrationId, 
+                               long confirmedRegistrations, Integer maxParticipants) {
+            this.outcome = outcome;
+            this.registrationId = registrationId;
+            this.confirmedRegistrations = confirmedRegistrations;
+            this.maxParticipants = maxParticipants;
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("ReservationResult{outcome=%s, registrationId=%s, confirmed=%d, max=%s}", 
+                outcome, registrationId, confirmedRegistrations, maxParticipants);
+        }
+    }
+    
+    public static final Set<String> REGISTRATION_STATUSES = Set.of("PENDING", "CONFIRMED", "CANCELLED");
+    public static final Set<String> PAYMENT_STATUSES = Set.of("PENDING", "PAID", "REFUNDED");
+    
+    private static final String[] REGISTRATION_COLUMNS = {
+        "registration_id", "event_id", "participant_id", "registration_date", "status", "payment_status", "notes"
+    };
+    
     public static Function<ResultSet, Registration> mapToRegistration() {
-        return rs -> {
-            try {
-                return new Registration(
-                    rs.getInt("registration_id"),
-                    rs.getInt("event_id"),
-                    rs.getInt("participant_id"),
-                    rs.getTimestamp("registration_date").toLocalDateTime(),
-                    rs.getString("status"),
-                    rs.getString("payment_status"),
-                    rs.getString("notes")
-                );
-            } catch (SQLException e) {
-                throw new RuntimeException("Error mapping ResultSet to Registration", e);
-            }
-        };
+        return new RowMapper<>("Registration", REGISTRATION_COLUMNS, (rs, c) -> new Registration(
+            rs.getInt(c[0]),
+            rs.getInt(c[1]),
+            rs.getInt(c[2]),
+            rs.getTimestamp(c[3]).toLocalDateTime(),
+            rs.getString(c[4]),
+            rs.getString(c[5]),
+            rs.getString(c[6])
+        ));
+    }
+    
+    public static class RegistrationFilter {
+        private final QueryCriteria criteria = QueryCriteria.where();
+        
+        public RegistrationFilter event(int eventId) {
+            criteria.eq("event_id", eventId);
+            return this;
+        }
+        
+        public RegistrationFilter participant(int participantId) {
+            criteria.eq("participant_id", participantId);
+            return this;
+        }
+        
+        public RegistrationFilter status(String status) {
+            criteria.eq("status", status);
+            return this;
+        }
+        
+        public RegistrationFilter paymentStatus(String paymentStatus) {
+            criteria.eq("payment_status", paymentStatus);
+            return this;
+        }
+        
+        public RegistrationFilter registeredFrom(LocalDateTime from) {
+            criteria.atLeast("registration_date", from);
+            return this;
+        }
+        
+        public RegistrationFilter registeredBefore(LocalDateTime before) {
+            criteria.before("registration_date", before);
+            return this;
+        }
+        
+        public QueryCriteria toCriteria() {
+            return criteria;
+        }
+    }
+    
+    public static RegistrationFilter filter() {
+        return new RegistrationFilter();
     }
     
     public static List<Registration> getAllRegistrations() {
-        return DatabaseConnection.executeWithConnection(conn -> {
-            String sql = "SELECT * FROM registrations ORDER BY registration_date DESC";
-            try (PreparedStatement stmt = conn.prepareStatement(sql);
-                 ResultSet rs = stmt.executeQuery()) {
-                
-                List<Registration> registrations = new ArrayList<>();
-                while (rs.next()) {
-                    registrations.add(mapToRegistration().apply(rs));
+        return findRegistrations(filter());
+    }
+    
+    public static List<Registration> findRegistrations(RegistrationFilter filter) {
+        QueryCriteria criteria = filter.toCriteria();
+        return DatabaseConnection.executeReadOnly(conn -> {
+            String sql = "SELECT * FROM registrations" + criteria.toWhereClause() + " ORDER BY registration_date DESC";
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                criteria.bind(stmt, 1);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    List<Registration> registrations = new ArrayList<>();
+                    Function<ResultSet, Registration> mapper = mapToRegistration();
+                    while (rs.next()) {
+                        registrations.add(mapper.apply(rs));
+                    }
+                    return registrations;
                 }
-                return registrations;
             }
         }).orElse(Collections.emptyList());
     }
     
+    public static Stream<Registration> streamAllRegistrations() {
+        return streamRegistrations(filter());
+    }
+    
+    public static Stream<Registration> streamRegistrations(RegistrationFilter filter) {
+        QueryCriteria criteria = filter.toCriteria();
+        String sql = "SELECT * FROM registrations" + criteria.toWhereClause() + " ORDER BY registration_date DESC";
+        return DatabaseConnection.streamQuery(sql, stmt -> criteria.bind(stmt, 1), mapToRegistration());
+    }
+    
+    public static long forEachRegistration(RegistrationFilter filter, Consumer<Registration> consumer) {
+        QueryCriteria criteria = filter.toCriteria();
+        String sql = "SELECT * FROM registrations" + criteria.toWhereClause() + " ORDER BY registration_date DESC";
+        return DatabaseConnection.forEachRow(sql, stmt -> criteria.bind(stmt, 1), mapToRegistration(), consumer).orElse(0L);
+    }
+    
+    // Compact read-only copy of the whole table for analytics (see RegistrationColumns)
+    public static Optional<RegistrationColumns> loadColumns() {
+        return DatabaseConnection.executeReadOnly(conn -> {
+            conn.setAutoCommit(false);
+            RegistrationColumns columns = RegistrationColumns.load(conn);
+            conn.commit();
+            return columns;
+        });
+    }
+    
+    private static final Page.Keyset REGISTRATION_PAGES = new Page.Keyset("registrations", true, "registration_date", "registration_id");
+    
+    public static Page<Registration> getRegistrationsAfter(Registration cursor, int pageSize) {
+        return REGISTRATION_PAGES.after(cursor == null ? null : new Object[] { cursor.registrationDate, cursor.registrationId },
+            pageSize, mapToRegistration());
+    }
+    
+    public static Page<Registration> getRegistrationsBefore(Registration cursor, int pageSize) {
+        return REGISTRATION_PAGES.before(new Object[] { cursor.registrationDate, cursor.registrationId },
+            pageSize, mapToRegistration());
+    }
+    
+    public static long countRegistrations(RegistrationFilter filter) {
+        QueryCriteria criteria = filter.toCriteria();
+        return DatabaseConnection.executeReadOnly(conn -> {
+            String sql = "SELECT count(*) FROM registrations" + criteria.toWhereClause();
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                criteria.bind(stmt, 1);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    return rs.next() ? rs.getLong(1) : 0L;
+                }
+            }
+        }).orElse(0L);
+    }
+    
+    private static volatile RegistrationIndex index;
+    // Guards publishing a rebuilt index against concurrent changes; non-null while a rebuild is loading
+    private static final Object INDEX_LOCK = new Object();
+    private static List<Consumer<RegistrationIndex>> changesDuringBuild;
+    
+    // On failure the current index (if any) stays as it was and false is returned
+    public static synchronized boolean enableIndex() {
+        RegistrationIndex built = new RegistrationIndex();
+        List<Consumer<RegistrationIndex>> changes = new ArrayList<>();
+        synchronized (INDEX_LOCK) {
+            changesDuringBuild = changes;
+        }
+        OptionalLong rows = OptionalLong.empty();
+        try {
+            rows = DatabaseConnection.forEachRowOnPrimary("SELECT * FROM registrations", stmt -> { }, mapToRegistration(), built::put);
+        } finally {
+            synchronized (INDEX_LOCK) {
+                changesDuringBuild = null;
+                if (rows.isPresent()) {
+                    // writes committed after the load's snapshot are replayed in the order they happened
+                    changes.forEach(change -> change.accept(built));
+                    index = built;
+                }
+            }
+        }
+        return rows.isPresent();
+    }
+    
+    public static boolean enableIndexIfConfigured() {
+        boolean configured = DatabaseConnection.loadDatabaseProperties()
+            .map(props -> Boolean.parseBoolean(props.getProperty("registrations.index.enabled", "false")))
+            .orElse(false);
+        return configured && enableIndex();
+    }
+    
+    public static void disableIndex() {
+        synchronized (INDEX_LOCK) {
+            index = null;
+        }
+    }
+    
+    // Every change to the index goes through here so that a rebuild in progress also sees it
+    private static void updateIndex(Consumer<RegistrationIndex> change) {
+        synchronized (INDEX_LOCK) {
+            if (index != null) {
+                change.accept(index);
+            }
+            if (changesDuringBuild != null) {
+                changesDuringBuild.add(change);
+            }
+        }
+    }
+    
+    public static Optional<RegistrationIndex> getIndex() {
+        return Optional.ofNullable(index);
+    }
+    
+    public static void onEventDeleted(int eventId) {
+        updateIndex(current -> current.removeEvent(eventId));
+    }
+    
+    public static void onParticipantDeleted(int participantId) {
+        updateIndex(current -> current.removeParticipant(participantId));
+    }
+    
+    // Another node changed these registrations (CacheInvalidationListener); rows are re-read on the primary
+    public static void refreshCached(Collection<Integer> registrationIds) {
+        if (index == null) {
+            return;
+        }
+        Optional<Map<Integer, Registration>> reloaded = DatabaseConnection.executeReadOnlyOnPrimary(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement("SELECT * FROM registrations WHERE registration_id = ANY(?)")) {
+                stmt.setArray(1, conn.createArrayOf("integer", registrationIds.toArray()));
+                try (ResultSet rs = stmt.executeQuery()) {
+                    Map<Integer, Registration> registrations = new HashMap<>();
+                    Function<ResultSet, Registration> mapper = mapToRegistration();
+                    while (rs.next()) {
+                        Registration registration = mapper.apply(rs);
+                        registrations.put(registration.registrationId, registration);
+                    }
+                    return registrations;
+                }
+            }
+        });
+        if (reloaded.isEmpty()) {
+            System.err.println("Registration index disabled: changed registrations could not be reloaded");
+            disableIndex();
+            return;
+        }
+        updateIndex(current -> registrationIds.forEach(registrationId -> {
+            Registration registration = reloaded.get().get(registrationId);
+            if (registration != null) {
+                current.put(registration);
+            } else {
+                current.remove(registrationId);
+            }
+        }));
+    }
+    
+    public static void refreshAllCached() {
+        if (index != null && !enableIndex()) {
+            System.err.println("Registration index disabled: rebuild failed");
+            disableIndex();
+        }
+    }
+    
+    public static Optional<Registration> getRegistrationById(int registrationId) {
+        return DatabaseConnection.executeReadOnly(conn -> {
+            String sql = "SELECT * FROM registrations WHERE registration_id = ?";
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, registrationId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    return rs.next() ? mapToRegistration().apply(rs) : null;
+                }
+            }
+        });
+    }
+    
     public static List<Registration> getRegistrationsByEvent(int eventId) {
-        return getAllRegistrations().stream()
-            .filter(registration -> registration.eventId == eventId)
-            .collect(Collectors.toList());
+        return getIndex()
+            .map(current -> current.getByEvent(eventId))
+            .orElseGet(() -> findRegistrations(filter().event(eventId)));
     }
     
     public static List<Registration> getRegistrationsByParticipant(int participantId) {
-        return getAllRegistrations().stream()
-            .filter(registration -> registration.participantId == participantId)
-            .collect(Collectors.toList());
+        return getIndex()
+            .map(current -> current.getByParticipant(participantId))
+            .orElseGet(() -> findRegistrations(filter().participant(participantId)));
     }
     
     public static List<Registration> getConfirmedRegistrations() {
-        return getAllRegistrations().stream()
-            .filter(registration -> "CONFIRMED".equals(registration.status))
-            .collect(Collectors.toList());
+        return findRegistrations(filter().status("CONFIRMED"));
     }
     
     public static long countRegistrationsForEvent(int eventId) {
-        return getRegistrationsByEvent(eventId).stream()
-            .filter(registration -> "CONFIRMED".equals(registration.status))
-            .count();
+        return getIndex()
+            .map(current -> (long) current.countConfirmed(eventId))
+            .orElseGet(() -> RegistrationStatsService.getStats(eventId)
+                .map(stats -> stats.confirmed)
+                .orElseGet(() -> countRegistrations(filter().event(eventId).status("CONFIRMED"))));
     }
     
+    // Same checks as reserveSeat; empty when the event is full or the participant is already registered
     public static Optional<Integer> createRegistration(int eventId, int participantId, String notes) {
+        ReservationResult result = reserveSeat(eventId, participantId, notes);
+        return result.outcome == ReservationOutcome.CONFIRMED ? Optional.of(result.registrationId) : Optional.empty();
+    }
+    
+    // Confirmed seats of the event aliased e: the trigger-maintained counter, or a count for events created before it
+    static final String CONFIRMED_SEATS_SQL = "coalesce((SELECT s.confirmed FROM event_registration_stats s WHERE s.event_id = e.event_id), " +
+        "(SELECT count(*) FROM registrations c WHERE c.event_id = e.event_id AND c.status = 'CONFIRMED'))";
+    
+    private static class Seats {
+        final Integer maxParticipants;
+        final long confirmed;
+        
+        Seats(Integer maxParticipants, long confirmed) {
+            this.maxParticipants = maxParticipants;
+            this.confirmed = confirmed;
+        }
+        
+        boolean isFull() {
+            return maxParticipants != null && confirmed >= maxParticipants;
+        }
+    }
+    
+    // Locks only this event's row, so concurrent confirmations for the same event queue here; null if there is no such event
+    private static Seats lockSeats(Connection conn, int eventId) throws SQLException {
+        Integer maxParticipants;
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT max_participants FROM events WHERE event_id = ? FOR NO KEY UPDATE")) {
+            stmt.setInt(1, eventId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                maxParticipants = (Integer) rs.getObject("max_participants");
+            }
+        }
+        
+        // A new statement takes a fresh snapshot, so this sees every confirmation committed before the lock was granted.
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT " + CONFIRMED_SEATS_SQL + " FROM (SELECT ?::int AS event_id) e")) {
+            stmt.setInt(1, eventId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return new Seats(maxParticipants, rs.getLong(1));
+            }
+        }
+    }
+    
+    // The same lock for several events at once, taken in event_id order so two batches cannot deadlock
+    private static void lockEvents(Connection conn, String eventIdsSql, Collection<Integer> ids) throws SQLException {
+        if (ids.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT event_id FROM events WHERE event_id IN (" + eventIdsSql + ") ORDER BY event_id FOR NO KEY UPDATE")) {
+            stmt.setArray(1, conn.createArrayOf("integer", ids.toArray()));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    // locked
+                }
+            }
+        }
+    }
+    
+    // An existing registration in any status is ALREADY_REGISTERED; confirmRegistration re-confirms one
+    public static ReservationResult reserveSeat(int eventId, int participantId, String notes) {
         return DatabaseConnection.executeWithConnection(conn -> {
-            String sql = "INSERT INTO registrations (event_id, participant_id, notes) " +
-                        "VALUES (?, ?, ?) RETURNING registration_id";
-            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            conn.setAutoCommit(false);
+            
+            Seats seats = lockSeats(conn, eventId);
+            if (seats == null) {
+                conn.rollback();
+                return new ReservationResult(ReservationOutcome.EVENT_NOT_FOUND, null, 0, null);
+            }
+            if (seats.isFull()) {
+                conn.rollback();
+                return new ReservationResult(ReservationOutcome.FULL, null, seats.confirmed, seats.maxParticipants);
+            }
+            
+            String insertSql = "INSERT INTO registrations (event_id, participant_id, status, notes) " +
+                              "VALUES (?, ?, 'CONFIRMED', ?) ON CONFLICT (event_id, participant_id) DO NOTHING RETURNING *";
+            Registration created;
+            try (PreparedStatement stmt = conn.prepareStatement(insertSql)) {
                 stmt.setInt(1, eventId);
                 stmt.setInt(2, participantId);
                 stmt.setString(3, notes);
-                
                 try (ResultSet rs = stmt.executeQuery()) {
-                    if (rs.next()) {
-                        return rs.getInt(1);
+                    if (!rs.next()) {
+                        conn.rollback();
+                        return new ReservationResult(ReservationOutcome.ALREADY_REGISTERED, null, seats.confirmed, seats.maxParticipants);
+                    }
+                    created = mapToRegistration().apply(rs);
+                }
+            } catch (SQLException e) {
+                conn.rollback();
+                if ("23503".equals(e.getSQLState())) {
+                    return new ReservationResult(ReservationOutcome.PARTICIPANT_NOT_FOUND, null, seats.confirmed, seats.maxParticipants);
+                }
+                throw e;
+            }
+            
+            conn.commit();
+            updateIndex(current -> current.put(created));
+            return new ReservationResult(ReservationOutcome.CONFIRMED, created.registrationId, seats.confirmed + 1, seats.maxParticipants);
+        }).orElseGet(() -> new ReservationResult(ReservationOutcome.FAILED, null, 0, null));
+    }
+    
+    // Status change to CONFIRMED with the same capacity check as reserveSeat
+    public static ReservationResult confirmRegistration(int registrationId) {
+        return DatabaseConnection.executeWithConnection(conn -> {
+            conn.setAutoCommit(false);
+            
+            Integer eventId = null;
+            try (PreparedStatement stmt = conn.prepareStatement("SELECT event_id FROM registrations WHERE registration_id = ?")) {
+                stmt.setInt(1, registrationId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (!rs.next()) {
+                        conn.rollback();
+                        return new ReservationResult(ReservationOutcome.REGISTRATION_NOT_FOUND, null, 0, null);
+                    }
+                    eventId = (Integer) rs.getObject(1);
+                }
+            }
+            Seats seats = eventId == null ? null : lockSeats(conn, eventId);
+            long confirmed = seats == null ? 0 : seats.confirmed;
+            Integer maxParticipants = seats == null ? null : seats.maxParticipants;
+            
+            // re-read under the lock: the registration may have been confirmed or deleted meanwhile
+            String status;
+            try (PreparedStatement stmt = conn.prepareStatement("SELECT status FROM registrations WHERE registration_id = ?")) {
+                stmt.setInt(1, registrationId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    status = rs.next() ? rs.getString(1) : null;
+                }
+            }
+            if (status == null || "CONFIRMED".equals(status)) {
+                conn.rollback();
+                return new ReservationResult(status == null ? ReservationOutcome.REGISTRATION_NOT_FOUND : ReservationOutcome.CONFIRMED,
+                    status == null ? null : registrationId, confirmed, maxParticipants);
+            }
+            if (seats != null && seats.isFull()) {
+                conn.rollback();
+                return new ReservationResult(ReservationOutcome.FULL, null, confirmed, maxParticipants);
+            }
+            
+            Registration updated;
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "UPDATE registrations SET status = 'CONFIRMED' WHERE registration_id = ? RETURNING *")) {
+                stmt.setInt(1, registrationId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    rs.next();
+                    updated = mapToRegistration().apply(rs);
+                }
+            }
+            
+            conn.commit();
+            updateIndex(current -> current.put(updated));
+            return new ReservationResult(ReservationOutcome.CONFIRMED, registrationId, confirmed + 1, maxParticipants);
+        }).orElseGet(() -> new ReservationResult(ReservationOutcome.FAILED, null, 0, null));
+    }
+    
+    public static Optional<BatchResult> createRegistrations(List<NewRegistration> registrations) {
+        BatchResult.Builder result = new BatchResult.Builder(registrations.size());
+        List<Integer> accepted = new ArrayList<>();
+        Map<Long, Integer> firstByPair = new HashMap<>();
+        Set<Integer> eventIds = new HashSet<>();
+        for (int i = 0; i < registrations.size(); i++) {
+            NewRegistration registration = registrations.get(i);
+            if (firstByPair.putIfAbsent(pairKey(registration.eventId, registration.participantId), i) != null) {
+                result.set(i, BatchResult.Outcome.SKIPPED, null, "duplicate registration in batch");
+            } else {
+                accepted.add(i);
+                eventIds.add(registration.eventId);
+            }
+        }
+        
+        return DatabaseConnection.executeWithConnection(conn -> {
+            conn.setAutoCommit(false);
+            lockEvents(conn, "SELECT unnest(?::int[])", eventIds);
+            List<Registration> written = new ArrayList<>();
+            // rows are numbered per event in batch order and only those that fit in the free seats are inserted
+            BatchResult.writeInChunks(conn, accepted, result, chunk -> {
+                String sql = "INSERT INTO registrations (event_id, participant_id, notes) " +
+                            "SELECT c.event_id, c.participant_id, c.notes FROM (" +
+                            "SELECT v.*, row_number() OVER (PARTITION BY v.event_id ORDER BY v.ord) AS seat FROM (VALUES " +
+                            BatchResult.values(chunk.size(), "(?::int, ?::int, ?::text, ?::int)") + ") AS v(event_id, participant_id, notes, ord) " +
+                            "WHERE EXISTS (SELECT 1 FROM participants p WHERE p.participant_id = v.participant_id) " +
+                            "AND NOT EXISTS (SELECT 1 FROM registrations r WHERE r.event_id = v.event_id AND r.participant_id = v.participant_id)" +
+                            ") c JOIN events e ON e.event_id = c.event_id " +
+                            "WHERE e.max_participants IS NULL OR c.seat <= e.max_participants - " + CONFIRMED_SEATS_SQL + " " +
+                            "ON CONFLICT (event_id, participant_id) DO NOTHING " +
+                            "RETURNING *";
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    int index = 1;
+                    for (int row : chunk) {
+                        NewRegistration registration = registrations.get(row);
+                        stmt.setInt(index++, registration.eventId);
+                        stmt.setInt(index++, registration.participantId);
+                        stmt.setString(index++, registration.notes);
+                        stmt.setInt(index++, row);
+                    }
+                    List<Registration> created = new ArrayList<>();
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        Function<ResultSet, Registration> mapper = mapToRegistration();
+                        while (rs.next()) {
+                            created.add(mapper.apply(rs));
+                        }
+                    }
+                    for (Registration registration : created) {
+                        int row = firstByPair.get(pairKey(registration.eventId, registration.participantId));
+                        result.set(row, BatchResult.Outcome.CREATED, registration.registrationId, null);
+                    }
+                    written.addAll(created);
+                }
+            });
+            Set<Integer> full = fullEvents(conn, eventIds);
+            conn.commit();
+            updateIndex(current -> written.forEach(current::put));
+            for (int row : accepted) {
+                if (!result.isDecided(row) && full.contains(registrations.get(row).eventId)) {
+                    result.set(row, BatchResult.Outcome.SKIPPED, null, "event is full");
+                }
+            }
+            result.setRemaining(BatchResult.Outcome.SKIPPED, "already registered or unknown event/participant");
+            return result.build();
+        });
+    }
+    
+    private static Set<Integer> fullEvents(Connection conn, Collection<Integer> eventIds) throws SQLException {
+        Set<Integer> full = new HashSet<>();
+        if (eventIds.isEmpty()) {
+            return full;
+        }
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT e.event_id FROM events e WHERE e.event_id = ANY(?) " +
+                "AND e.max_participants IS NOT NULL AND " + CONFIRMED_SEATS_SQL + " >= e.max_participants")) {
+            stmt.setArray(1, conn.createArrayOf("integer", eventIds.toArray()));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    full.add(rs.getInt(1));
+                }
+            }
+        }
+        return full;
+    }
+    
+    public static Optional<BatchResult> updateRegistrationStatuses(Map<Integer, String> statuses) {
+        return updateColumnInBatch("status", statuses, REGISTRATION_STATUSES);
+    }
+    
+    public static Optional<BatchResult> updatePaymentStatuses(Map<Integer, String> paymentStatuses) {
+        return updateColumnInBatch("payment_status", paymentStatuses, PAYMENT_STATUSES);
+    }
+    
+    // Status changes that take a seat (to CONFIRMED from anything else) are admitted per event, in batch order,
+    // only while seats are free; the events are locked first as in reserveSeat
+    private static final String STATUS_WITHIN_CAPACITY_SQL = " FROM (SELECT v.registration_id, v.value, x.event_id, " +
+        "v.value = 'CONFIRMED' AND x.status <> 'CONFIRMED' AS takes_seat, " +
+        "row_number() OVER (PARTITION BY x.event_id, v.value = 'CONFIRMED' AND x.status <> 'CONFIRMED' ORDER BY v.ord) AS seat " +
+        "FROM (VALUES %s) AS v(registration_id, value, ord) JOIN registrations x ON x.registration_id = v.registration_id) c " +
+        "LEFT JOIN events e ON e.event_id = c.event_id " +
+        "WHERE r.registration_id = c.registration_id AND (NOT c.takes_seat OR e.max_participants IS NULL " +
+        "OR c.seat <= e.max_participants - " + CONFIRMED_SEATS_SQL.replace("%", "%%") + ") RETURNING r.*";
+    
+    private static Optional<BatchResult> updateColumnInBatch(String column, Map<Integer, String> values, Set<String> allowed) {
+        List<Map.Entry<Integer, String>> entries = new ArrayList<>(values.entrySet());
+        BatchResult.Builder result = new BatchResult.Builder(entries.size());
+        Map<Integer, Integer> rowById = new HashMap<>();
+        List<Integer> accepted = new ArrayList<>();
+        boolean seats = column.equals("status");
+        List<Integer> confirming = new ArrayList<>();
+        for (int i = 0; i < entries.size(); i++) {
+            if (!allowed.contains(entries.get(i).getValue())) {
+                result.set(i, BatchResult.Outcome.INVALID, entries.get(i).getKey(), "invalid " + column + ": " + entries.get(i).getValue());
+            } else {
+                rowById.put(entries.get(i).getKey(), i);
+                accepted.add(i);
+                if (seats && entries.get(i).getValue().equals("CONFIRMED")) {
+                    confirming.add(entries.get(i).getKey());
+                }
+            }
+        }
+        
+        return DatabaseConnection.executeWithConnection(conn -> {
+            conn.setAutoCommit(false);
+            lockEvents(conn, "SELECT event_id FROM registrations WHERE registration_id = ANY(?)", confirming);
+            List<Registration> written = new ArrayList<>();
+            for (int from = 0; from < accepted.size(); from += BatchResult.CHUNK_SIZE) {
+                List<Integer> chunk = accepted.subList(from, Math.min(from + BatchResult.CHUNK_SIZE, accepted.size()));
+                String sql = seats
+                    ? "UPDATE registrations r SET status = c.value" +
+                        String.format(STATUS_WITHIN_CAPACITY_SQL, BatchResult.values(chunk.size(), "(?::int, ?::varchar, ?::int)"))
+                    : "UPDATE registrations r SET " + column + " = v.value FROM (VALUES " +
+                        BatchResult.values(chunk.size(), "(?::int, ?::varchar)") + ") AS v(registration_id, value) " +
+                        "WHERE r.registration_id = v.registration_id RETURNING r.*";
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    int index = 1;
+                    for (int row : chunk) {
+                        stmt.setInt(index++, entries.get(row).getKey());
+                        stmt.setString(index++, entries.get(row).getValue());
+                        if (seats) {
+                            stmt.setInt(index++, row);
+                        }
+                    }
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        Function<ResultSet, Registration> mapper = mapToRegistration();
+                        while (rs.next()) {
+                            Registration updated = mapper.apply(rs);
+                            result.set(rowById.get(updated.registrationId), BatchResult.Outcome.UPDATED, updated.registrationId, null);
+                            written.add(updated);
+                        }
                     }
                 }
             }
-            return null;
+            Set<Integer> existing = seats ? existingRegistrations(conn, confirming) : Set.of();
+            conn.commit();
+            updateIndex(current -> written.forEach(current::put));
+            for (int row : accepted) {
+                if (!result.isDecided(row)) {
+                    int registrationId = entries.get(row).getKey();
+                    if (existing.contains(registrationId)) {
+                        result.set(row, BatchResult.Outcome.SKIPPED, registrationId, "event is full");
+                    } else {
+                        result.set(row, BatchResult.Outcome.NOT_FOUND, registrationId, "registration not found");
+                    }
+                }
+            }
+            return result.build();
         });
     }
     
+    private static Set<Integer> existingRegistrations(Connection conn, Collection<Integer> registrationIds) throws SQLException {
+        Set<Integer> existing = new HashSet<>();
+        if (registrationIds.isEmpty()) {
+            return existing;
+        }
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT registration_id FROM registrations WHERE registration_id = ANY(?)")) {
+            stmt.setArray(1, conn.createArrayOf("integer", registrationIds.toArray()));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    existing.add(rs.getInt(1));
+                }
+            }
+        }
+        return existing;
+    }
+    
+    private static long pairKey(int eventId, int participantId) {
+        return ((long) eventId << 32) | (participantId & 0xFFFFFFFFL);
+    }
+    
+    // CONFIRMED goes through confirmRegistration and fails when the event is full
     public static boolean updateRegistrationStatus(int registrationId, String status) {
+        if ("CONFIRMED".equals(status)) {
+            return confirmRegistration(registrationId).outcome == ReservationOutcome.CONFIRMED;
+        }
         return DatabaseConnection.executeWithConnection(conn -> {
-            String sql = "UPDATE registrations SET status = ? WHERE registration_id = ?";
+            String sql = "UPDATE registrations SET status = ? WHERE registration_id = ? RETURNING *";
             try (PreparedStatement stmt = conn.prepareStatement(sql)) {
                 stmt.setString(1, status);
                 stmt.setInt(2, registrationId);
-                return stmt.executeUpdate() > 0;
+                return applyUpdate(stmt);
             }
         }).orElse(false);
     }
     
+    // Wins over any change still waiting in the PaymentStatusQueue for this registration
     public static boolean updatePaymentStatus(int registrationId, String paymentStatus) {
+        PaymentStatusQueue.getActive().ifPresent(queue -> queue.discard(registrationId));
         return DatabaseConnection.executeWithConnection(conn -> {
-            String sql = "UPDATE registrations SET payment_status = ? WHERE registration_id = ?";
+            String sql = "UPDATE registrations SET payment_status = ? WHERE registration_id = ? RETURNING *";
             try (PreparedStatement stmt = conn.prepareStatement(sql)) {
                 stmt.setString(1, paymentStatus);
                 stmt.setInt(2, registrationId);
-                return stmt.executeUpdate() > 0;
+                return applyUpdate(stmt);
             }
         }).orElse(false);
     }
     
+    private static boolean applyUpdate(PreparedStatement stmt) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery()) {
+            if (!rs.next()) {
+                return false;
+            }
+            Registration updated = mapToRegistration().apply(rs);
+            updateIndex(current -> current.put(updated));
+            return true;
+        }
+    }
+    
+    // Webhook path: queued and coalesced when registrations.paymentQueue.enabled, written at once otherwise.
+    // With the queue, true means accepted (an unknown id is only counted as notFound when flushed).
+    public static boolean submitPaymentStatus(int registrationId, String paymentStatus) {
+        Optional<PaymentStatusQueue> queue = PaymentStatusQueue.getActive();
+        return queue.isPresent() ? queue.get().submit(registrationId, paymentStatus)
+            : updatePaymentStatus(registrationId, paymentStatus);
+    }
+    
     public static boolean cancelRegistration(int registrationId) {
         return updateRegistrationStatus(registrationId, "CANCELLED");
     }
@@ -140,7 +752,11 @@ public class RegistrationService {
             String sql = "DELETE FROM registrations WHERE registration_id = ?";
             try (PreparedStatement stmt = conn.prepareStatement(sql)) {
                 stmt.setInt(1, registrationId);
-                return stmt.executeUpdate() > 0;
+                boolean deleted = stmt.executeUpdate() > 0;
+                if (deleted) {
+                    updateIndex(current -> current.remove(registrationId));
+                }
+                return deleted;
             }
         }).orElse(false);
     }
@@ -0,0 +1,160 @@
+import java.math.BigDecimal;
+import java.sql.*;
+import java.util.*;
+import java.util.function.Function;
+
+public class RegistrationStatsService {
+    private static final String RECOMPUTED_SQL = "SELECT e.event_id, " +
+        "count(r.registration_id) FILTER (WHERE r.status = 'CONFIRMED') AS confirmed, " +
+        "count(r.registration_id) FILTER (WHERE r.status = 'PENDING') AS pending, " +
+        "count(r.registration_id) FILTER (WHERE r.status = 'CANCELLED') AS cancelled, " +
+        "count(r.registration_id) FILTER (WHERE r.payment_status = 'PAID') AS paid, " +
+        "count(r.registration_id) FILTER (WHERE r.payment_status = 'REFUNDED') AS refunded, " +
+        "count(r.registration_id) FILTER (WHERE r.payment_status = 'PAID') * coalesce(e.registration_fee, 0) AS paid_revenue " +
+        "FROM events e LEFT JOIN registrations r ON r.event_id = e.event_id GROUP BY e.event_id";
+
+    public static class EventStats {
+        public final int eventId;
+        public final long confirmed;
+        public final long pending;
+        public final long cancelled;
+        public final long paid;
+        public final long refunded;
+        public final BigDecimal paidRevenue;
+
+        public EventStats(int eventId, long confirmed, long pending, long cancelled,
+                         long paid, long refunded, BigDecimal paidRevenue) {
+            this.eventId = eventId;
+            this.confirmed = confirmed;
+            this.pending = pending;
+            this.cancelled = cancelled;
+            this.paid = paid;
+            this.refunded = refunded;
+            this.paidRevenue = paidRevenue;
+        }
+
+        public long total() {
+            return confirmed + pending + cancelled;
+        }
+
+        boolean sameCounts(EventStats other) {
+            return confirmed == other.confirmed && pending == other.pending && cancelled == other.cancelled
+                && paid == other.paid && refunded == other.refunded && paidRevenue.compareTo(other.paidRevenue) == 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("EventStats{eventId=%d, confirmed=%d, pending=%d, cancelled=%d, paid=%d, refunded=%d, paidRevenue=%.2f}",
+                eventId, confirmed, pending, cancelled, paid, refunded, paidRevenue);
+        }
+    }
+
+    public static class Drift {
+        public final int eventId;
+        public final EventStats stored;
+        public final EventStats actual;
+
+        public Drift(int eventId, EventStats stored, EventStats actual) {
+            this.eventId = eventId;
+            this.stored = stored;
+            this.actual = actual;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Drift{eventId=%d, stored=%s, actual=%s}", eventId, stored, actual);
+        }
+    }
+
+    private static final String[] STATS_COLUMNS = {
+        "event_id", "confirmed", "pending", "cancelled", "paid", "refunded", "paid_revenue"
+    };
+
+    public static Function<ResultSet, EventStats> mapToEventStats() {
+        return new RowMapper<>("EventStats", STATS_COLUMNS, (rs, c) -> new EventStats(
+            rs.getInt(c[0]),
+            rs.getLong(c[1]),
+            rs.getLong(c[2]),
+            rs.getLong(c[3]),
+            rs.getLong(c[4]),
+            rs.getLong(c[5]),
+            rs.getBigDecimal(c[6])
+        ));
+    }
+
+    public static Optional<EventStats> getStats(int eventId) {
+        return DatabaseConnection.executeReadOnly(conn -> {
+            String sql = "SELECT * FROM event_registration_stats WHERE event_id = ?";
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, eventId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    return rs.next() ? mapToEventStats().apply(rs) : null;
+                }
+            }
+        });
+    }
+
+    public static List<EventStats> getAllStats() {
+        return DatabaseConnection.executeReadOnly(conn -> {
+            String sql = "SELECT * FROM event_registration_stats ORDER BY event_id";
+            try (PreparedStatement stmt = conn.prepareStatement(sql);
+                 ResultSet rs = stmt.executeQuery()) {
+                List<EventStats> stats = new ArrayList<>();
+                Function<ResultSet, EventStats> mapper = mapToEventStats();
+                while (rs.next()) {
+                    stats.add(mapper.apply(rs));
+                }
+                return stats;
+            }
+        }).orElse(new ArrayList<>());
+    }
+
+    public static Optional<List<Drift>> verify() {
+        return DatabaseConnection.executeWithConnection(conn -> {
+            conn.setAutoCommit(false);
+            conn.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            conn.setReadOnly(true);
+
+            Map<Integer, EventStats> stored = new HashMap<>();
+            try (PreparedStatement stmt = conn.prepareStatement("SELECT * FROM event_registration_stats");
+                 ResultSet rs = stmt.executeQuery()) {
+                Function<ResultSet, EventStats> mapper = mapToEventStats();
+                while (rs.next()) {
+                    EventStats stats = mapper.apply(rs);
+                    stored.put(stats.eventId, stats);
+                }
+            }
+
+            List<Drift> drifts = new ArrayList<>();
+            try (PreparedStatement stmt = conn.prepareStatement(RECOMPUTED_SQL + " ORDER BY e.event_id");
+                 ResultSet rs = stmt.executeQuery()) {
+                Function<ResultSet, EventStats> mapper = mapToEventStats();
+                while (rs.next()) {
+                    EventStats actual = mapper.apply(rs);
+                    EventStats current = stored.get(actual.eventId);
+                    if (current == null || !current.sameCounts(actual)) {
+                        drifts.add(new Drift(actual.eventId, current, actual));
+                    }
+                }
+            }
+            conn.commit();
+            return drifts;
+        });
+    }
+
+    public static Optional<Integer> rebuild() {
+        return DatabaseConnection.executeWithConnection(conn -> {
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                // SHARE mode keeps registration writes (and their trigger deltas) out until the recount commits
+                stmt.execute("LOCK TABLE registrations IN SHARE MODE");
+                stmt.executeUpdate("DELETE FROM event_registration_stats");
+                int rebuilt = stmt.executeUpdate("INSERT INTO event_registration_stats " +
+                    "(event_id, confirmed, pending, cancelled, paid, refunded, paid_revenue) " + RECOMPUTED_SQL +
+                    " ON CONFLICT (event_id) DO NOTHING");
+                conn.commit();
+                return rebuilt;
+            }
+        });
+    }
+}
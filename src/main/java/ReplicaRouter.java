@@ -0,0 +1,238 @@
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/*
+ * Sends read-only operations to a set of replica pools and everything else to the primary.
+ * Replicas are picked round-robin or by fewest borrowed connections; one that fails to open a
+ * connection is skipped for db.replica.retryMillis, and when none can serve the read it runs on the
+ * primary. A replica whose pool is merely busy (acquire timeout) is passed over for this read only.
+ *
+ * Read-your-writes (db.replica.readYourWrites=true) is per node: after every primary operation the
+ * router remembers the primary's WAL position, and a replica only serves reads once its replayed
+ * position has reached it. Until then the read goes to the primary. A server that is not a standby
+ * reports no replay position and is treated as behind, so with two independent instances every read
+ * after the first write lands on the primary.
+ */
+public class ReplicaRouter {
+
+    public static class RouterConfig {
+        public final List<String> urls;
+        public final boolean leastLoaded;
+        public final boolean readYourWrites;
+        public final long retryMillis;
+
+        public RouterConfig(List<String> urls, boolean leastLoaded, boolean readYourWrites, long retryMillis) {
+            this.urls = List.copyOf(urls);
+            this.leastLoaded = leastLoaded;
+            this.readYourWrites = readYourWrites;
+            this.retryMillis = retryMillis;
+        }
+
+        public static RouterConfig fromProperties(Properties props) {
+            List<String> urls = Arrays.stream(props.getProperty("db.replica.urls", "").split(","))
+                .map(String::trim)
+                .filter(url -> !url.isEmpty())
+                .collect(Collectors.toList());
+            String balancing = props.getProperty("db.replica.balancing", "round-robin");
+            if (!balancing.equals("round-robin") && !balancing.equals("least-loaded")) {
+                throw new IllegalArgumentException("db.replica.balancing must be round-robin or least-loaded: " + balancing);
+            }
+            return new RouterConfig(urls, balancing.equals("least-loaded"),
+                Boolean.parseBoolean(props.getProperty("db.replica.readYourWrites", "false")),
+                Long.parseLong(props.getProperty("db.replica.retryMillis", "5000")));
+        }
+    }
+
+    public static class ReplicaStats {
+        public final String url;
+        public final boolean available;
+        public final long reads;
+        public final long failures;
+        public final long behindPrimary;
+        public final ConnectionPool.PoolStats pool;
+
+        public ReplicaStats(String url, boolean available, long reads, long failures, long behindPrimary,
+                            ConnectionPool.PoolStats pool) {
+            this.url = url;
+            this.available = available;
+            this.reads = reads;
+            this.failures = failures;
+            this.behindPrimary = behindPrimary;
+            this.pool = pool;
+        }
+    }
+
+    public static class RouterStats {
+        public final List<ReplicaStats> replicas;
+        public final long primaryReads;
+        public final long staleFallbacks;
+
+        public RouterStats(List<ReplicaStats> replicas, long primaryReads, long staleFallbacks) {
+            this.replicas = replicas;
+            this.primaryReads = primaryReads;
+            this.staleFallbacks = staleFallbacks;
+        }
+    }
+
+    private static class Replica {
+        final String url;
+        final ConnectionPool pool;
+        final LongAdder reads = new LongAdder();
+        final LongAdder failures = new LongAdder();
+        volatile long downUntilNanos;
+        volatile long replayedLsn = -1;
+
+        Replica(String url, ConnectionPool pool) {
+            this.url = url;
+            this.pool = pool;
+        }
+
+        boolean isAvailable(long now) {
+            return downUntilNanos - now <= 0;
+        }
+    }
+
+    private final RouterConfig config;
+    private final ConnectionPool primary;
+    private final List<Replica> replicas;
+    private final AtomicInteger next = new AtomicInteger();
+    private final AtomicLong lastWriteLsn = new AtomicLong(-1);
+    private final LongAdder primaryReads = new LongAdder();
+    private final LongAdder staleFallbacks = new LongAdder();
+
+    public ReplicaRouter(RouterConfig config, ConnectionPool primary, ConnectionPool.PoolConfig poolConfig) {
+        this.config = config;
+        this.primary = primary;
+        this.replicas = config.urls.stream()
+            .map(url -> new Replica(url, new ConnectionPool(poolConfig.withUrl(url))))
+            .collect(Collectors.toList());
+        replicas.forEach(replica -> replica.pool.prewarm());
+    }
+
+    public Optional<Connection> borrowForRead() {
+        return leaseForRead().map(lease -> lease.connection);
+    }
+
+    public Optional<ConnectionPool.Lease> leaseForRead() {
+        long now = System.nanoTime();
+        for (Replica replica : candidates(now)) {
+            long connectFailures = replica.pool.connectFailures();
+            Optional<ConnectionPool.Lease> lease = replica.pool.lease();
+            if (lease.isEmpty()) {
+                if (replica.pool.connectFailures() != connectFailures) {
+                    replica.failures.increment();
+                    replica.downUntilNanos = System.nanoTime() + config.retryMillis * 1_000_000L;
+                }
+                continue;
+            }
+            if (config.readYourWrites && !caughtUp(replica, lease.get().connection)) {
+                closeQuietly(lease.get().connection);
+                staleFallbacks.increment();
+                continue;
+            }
+            replica.reads.increment();
+            return lease;
+        }
+        primaryReads.increment();
+        return primary.lease();
+    }
+
+    // Available replicas in the order to try them; the balancing policy only decides who goes first
+    private List<Replica> candidates(long now) {
+        List<Replica> available = new ArrayList<>(replicas.size());
+        for (Replica replica : replicas) {
+            if (replica.isAvailable(now)) {
+                available.add(replica);
+            }
+        }
+        if (available.size() > 1) {
+            if (config.leastLoaded) {
+                available.sort(Comparator.comparingDouble(replica -> {
+                    ConnectionPool.PoolStats stats = replica.pool.stats();
+                    return (stats.active + stats.waiting) / (double) stats.maxSize;
+                }));
+            } else {
+                Collections.rotate(available, -Math.floorMod(next.getAndIncrement(), available.size()));
+            }
+        }
+        return available;
+    }
+
+    private boolean caughtUp(Replica replica, Connection conn) {
+        long required = lastWriteLsn.get();
+        if (required < 0 || replica.replayedLsn >= required) {
+            return true;
+        }
+        try {
+            replica.replayedLsn = Math.max(replica.replayedLsn, queryLsn(conn, "SELECT pg_last_wal_replay_lsn()"));
+        } catch (SQLException e) {
+            System.err.println("Could not read replay position of " + replica.url + ": " + e.getMessage());
+            return false;
+        }
+        return replica.replayedLsn >= required;
+    }
+
+    // Called on the primary connection after an operation that may have written
+    void recordWrite(Connection conn) {
+        if (!config.readYourWrites || replicas.isEmpty()) {
+            return;
+        }
+        try {
+            long lsn = queryLsn(conn, "SELECT pg_current_wal_lsn()");
+            lastWriteLsn.accumulateAndGet(lsn, Math::max);
+        } catch (SQLException e) {
+            // the connection is unusable (aborted transaction); its writes were not committed either
+        }
+    }
+
+    // LSNs print as two hex halves, e.g. 16/B374D848; NULL (not a standby) sorts before everything
+    private static long queryLsn(Connection conn, String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            String lsn = rs.next() ? rs.getString(1) : null;
+            if (lsn == null) {
+                return -1;
+            }
+            int slash = lsn.indexOf('/');
+            return (Long.parseLong(lsn.substring(0, slash), 16) << 32) | Long.parseLong(lsn.substring(slash + 1), 16);
+        }
+    }
+
+    public RouterStats stats() {
+        long now = System.nanoTime();
+        long required = lastWriteLsn.get();
+        List<ReplicaStats> replicaStats = replicas.stream()
+            .map(replica -> new ReplicaStats(replica.url, replica.isAvailable(now), replica.reads.sum(),
+                replica.failures.sum(), lagBehind(required, replica.replayedLsn),
+                replica.pool.stats()))
+            .collect(Collectors.toList());
+        return new RouterStats(replicaStats, primaryReads.sum(), staleFallbacks.sum());
+    }
+
+    // WAL bytes between the last write and the replica's last known replay position, -1 when unknown
+    private static long lagBehind(long required, long replayed) {
+        if (required < 0) {
+            return 0;
+        }
+        return replayed < 0 ? -1 : Math.max(0, required - replayed);
+    }
+
+    public void close() {
+        replicas.forEach(replica -> replica.pool.close());
+    }
+
+    private static void closeQuietly(Connection conn) {
+        try {
+            conn.close();
+        } catch (SQLException e) {
+            System.err.println("Error returning replica connection: " + e.getMessage());
+        }
+    }
+}
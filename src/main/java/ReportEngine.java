@@ -0,0 +1,321 @@
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+
+public class ReportEngine {
+    private static final String EVENTS_SQL = "SELECT * FROM events ORDER BY start_date";
+    private static final String PARTICIPANTS_SQL = "SELECT * FROM participants ORDER BY last_name, first_name";
+
+    private static final ExecutorService LOADERS = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "report-snapshot-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public static class Snapshot {
+        public final List<EventService.Event> events;
+        public final List<ParticipantService.Participant> participants;
+        public final RegistrationColumns registrations;
+
+        public Snapshot(List<EventService.Event> events, List<ParticipantService.Participant> participants,
+                       RegistrationColumns registrations) {
+            this.events = events;
+            this.participants = participants;
+            this.registrations = registrations;
+        }
+    }
+
+    public static class EventSummary {
+        public final long totalEvents;
+        public final List<EventService.Event> upcomingEvents;
+        public final Map<String, Long> eventsByStatus;
+
+        public EventSummary(long totalEvents, List<EventService.Event> upcomingEvents, Map<String, Long> eventsByStatus) {
+            this.totalEvents = totalEvents;
+            this.upcomingEvents = upcomingEvents;
+            this.eventsByStatus = eventsByStatus;
+        }
+    }
+
+    public static class ParticipantSummary {
+        public final long totalParticipants;
+        public final Map<String, Long> participantsByType;
+        public final Map<String, Long> topInstitutions;
+
+        public ParticipantSummary(long totalParticipants, Map<String, Long> participantsByType,
+                                 Map<String, Long> topInstitutions) {
+            this.totalParticipants = totalParticipants;
+            this.participantsByType = participantsByType;
+            this.topInstitutions = topInstitutions;
+        }
+    }
+
+    public static class RegistrationSummary {
+        public final long totalRegistrations;
+        public final long confirmedRegistrations;
+        public final Map<String, Long> registrationsByStatus;
+        public final Map<String, Long> registrationsByPaymentStatus;
+
+        public RegistrationSummary(long totalRegistrations, long confirmedRegistrations,
+                                  Map<String, Long> registrationsByStatus, Map<String, Long> registrationsByPaymentStatus) {
+            this.totalRegistrations = totalRegistrations;
+            this.confirmedRegistrations = confirmedRegistrations;
+            this.registrationsByStatus = registrationsByStatus;
+            this.registrationsByPaymentStatus = registrationsByPaymentStatus;
+        }
+    }
+
+    public static class Dashboard {
+        public final EventSummary eventSummary;
+        public final ParticipantSummary participantSummary;
+        public final RegistrationSummary registrationSummary;
+        public final RevenueService.RevenueReport revenueReport;
+
+        public Dashboard(EventSummary eventSummary, ParticipantSummary participantSummary,
+                        RegistrationSummary registrationSummary, RevenueService.RevenueReport revenueReport) {
+            this.eventSummary = eventSummary;
+            this.participantSummary = participantSummary;
+            this.registrationSummary = registrationSummary;
+            this.revenueReport = revenueReport;
+        }
+    }
+
+    public static Optional<Dashboard> generateDashboard() {
+        return loadSnapshot().map(ReportEngine::generateDashboard);
+    }
+
+    public static Dashboard generateDashboard(Snapshot snapshot) {
+        CompletableFuture<EventSummary> events = CompletableFuture.supplyAsync(() -> summarizeEvents(snapshot.events));
+        CompletableFuture<ParticipantSummary> participants = CompletableFuture.supplyAsync(() -> summarizeParticipants(snapshot.participants));
+        CompletableFuture<RegistrationSummary> registrations = CompletableFuture.supplyAsync(() -> summarizeRegistrations(snapshot.registrations));
+        CompletableFuture<RevenueService.RevenueReport> revenue = CompletableFuture.supplyAsync(() ->
+            RevenueService.generateRevenueReport(snapshot.events, snapshot.registrations));
+
+        return new Dashboard(events.join(), participants.join(), registrations.join(), revenue.join());
+    }
+
+    public static EventSummary summarizeEvents(List<EventService.Event> events) {
+        LocalDate today = LocalDate.now();
+        List<EventService.Event> upcoming = events.stream()
+            .filter(event -> event.startDate.isAfter(today))
+            .filter(event -> "ACTIVE".equals(event.status))
+            .collect(Collectors.toList());
+
+        GroupCounts<EventService.Event> counts = events.parallelStream()
+            .collect(countingBy(List.of(event -> event.status)));
+
+        return new EventSummary(counts.total, upcoming, counts.sorted(0));
+    }
+
+    public static ParticipantSummary summarizeParticipants(List<ParticipantService.Participant> participants) {
+        GroupCounts<ParticipantService.Participant> counts = participants.parallelStream()
+            .collect(countingBy(List.of(
+                participant -> participant.participantType,
+                participant -> participant.institution == null || participant.institution.isEmpty()
+                    ? null : participant.institution
+            )));
+
+        return new ParticipantSummary(counts.total, counts.sorted(0), counts.top(1, 5));
+    }
+
+    // Row-object baseline for RegistrationColumnsBenchmarks and RegistrationColumnsCheck; reports use the columns
+    public static RegistrationSummary summarizeRegistrations(List<RegistrationService.Registration> registrations) {
+        GroupCounts<RegistrationService.Registration> counts = registrations.parallelStream()
+            .collect(countingBy(List.of(
+                registration -> registration.status,
+                registration -> registration.paymentStatus
+            )));
+
+        Map<String, Long> byStatus = counts.sorted(0);
+        return new RegistrationSummary(counts.total, byStatus.getOrDefault("CONFIRMED", 0L),
+            byStatus, counts.sorted(1));
+    }
+
+    public static RegistrationSummary summarizeRegistrations(RegistrationColumns registrations) {
+        Map<String, Long> byStatus = new TreeMap<>();
+        Map<String, Long> byPaymentStatus = new TreeMap<>();
+        long[] statusCounts = registrations.countByStatus();
+        long[] paymentCounts = registrations.countByPaymentStatus();
+        for (int code = 0; code < statusCounts.length; code++) {
+            putNonZero(byStatus, RegistrationColumns.STATUSES.get(code), statusCounts[code]);
+            putNonZero(byPaymentStatus, RegistrationColumns.PAYMENT_STATUSES.get(code), paymentCounts[code]);
+        }
+        return new RegistrationSummary(registrations.size(), byStatus.getOrDefault("CONFIRMED", 0L),
+            byStatus, byPaymentStatus);
+    }
+
+    public static Optional<RegistrationSummary> loadRegistrationSummary() {
+        return DatabaseConnection.executeReadOnly(conn -> {
+            String sql = "SELECT coalesce(sum(confirmed), 0) AS confirmed, coalesce(sum(pending), 0) AS pending, " +
+                        "coalesce(sum(cancelled), 0) AS cancelled, coalesce(sum(paid), 0) AS paid, " +
+                        "coalesce(sum(refunded), 0) AS refunded FROM event_registration_stats";
+            try (PreparedStatement stmt = conn.prepareStatement(sql);
+                 ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                long confirmed = rs.getLong("confirmed");
+                long total = confirmed + rs.getLong("pending") + rs.getLong("cancelled");
+
+                Map<String, Long> byStatus = new TreeMap<>();
+                putNonZero(byStatus, "CONFIRMED", confirmed);
+                putNonZero(byStatus, "PENDING", rs.getLong("pending"));
+                putNonZero(byStatus, "CANCELLED", rs.getLong("cancelled"));
+
+                Map<String, Long> byPaymentStatus = new TreeMap<>();
+                putNonZero(byPaymentStatus, "PAID", rs.getLong("paid"));
+                putNonZero(byPaymentStatus, "REFUNDED", rs.getLong("refunded"));
+                putNonZero(byPaymentStatus, "PENDING", total - rs.getLong("paid") - rs.getLong("refunded"));
+
+                return new RegistrationSummary(total, confirmed, byStatus, byPaymentStatus);
+            }
+        });
+    }
+
+    private static void putNonZero(Map<String, Long> counts, String key, long count) {
+        if (count != 0) {
+            counts.put(key, count);
+        }
+    }
+
+    public static Optional<Snapshot> loadSnapshot() {
+        return DatabaseConnection.executeReadOnlyOnServer((leader, server) -> {
+            leader.setAutoCommit(false);
+            leader.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            leader.setReadOnly(true);
+
+            String snapshotId;
+            try (Statement stmt = leader.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT pg_export_snapshot()")) {
+                rs.next();
+                snapshotId = rs.getString(1);
+            }
+
+            // the snapshot only exists on the server the leader is connected to (primary or replica)
+            SnapshotQuery<List<ParticipantService.Participant>> participantsQuery =
+                conn -> loadAll(conn, PARTICIPANTS_SQL, ParticipantService.mapToParticipant());
+            CompletableFuture<List<ParticipantService.Participant>> participants =
+                loadInSnapshot(server, snapshotId, participantsQuery);
+            CompletableFuture<RegistrationColumns> registrations =
+                loadInSnapshot(server, snapshotId, RegistrationColumns::load);
+
+            List<EventService.Event> events = loadAll(leader, EVENTS_SQL, EventService.mapToEvent());
+            Snapshot snapshot = new Snapshot(
+                events,
+                joinOrLoad(participants, leader, participantsQuery),
+                joinOrLoad(registrations, leader, RegistrationColumns::load)
+            );
+            leader.commit();
+            return snapshot;
+        });
+    }
+
+    @FunctionalInterface
+    private interface SnapshotQuery<R> {
+        R run(Connection conn) throws SQLException;
+    }
+
+    private static <R> R joinOrLoad(CompletableFuture<R> pending, Connection leader, SnapshotQuery<R> query) throws SQLException {
+        try {
+            R rows = pending.join();
+            if (rows != null) {
+                return rows;
+            }
+        } catch (CompletionException e) {
+            System.err.println("Snapshot loader failed, loading on the leader connection: " + e.getCause().getMessage());
+        }
+        return query.run(leader);
+    }
+
+    private static <R> CompletableFuture<R> loadInSnapshot(ConnectionPool server, String snapshotId, SnapshotQuery<R> query) {
+        return CompletableFuture.supplyAsync(() -> server.borrow()
+            .map(conn -> {
+                try (Connection connection = conn) {
+                    connection.setAutoCommit(false);
+                    connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+                    connection.setReadOnly(true);
+                    try (Statement stmt = connection.createStatement()) {
+                        stmt.execute("SET TRANSACTION SNAPSHOT '" + snapshotId.replace("'", "''") + "'");
+                    }
+                    R rows = query.run(connection);
+                    connection.commit();
+                    return rows;
+                } catch (SQLException e) {
+                    throw new CompletionException(e);
+                }
+            })
+            .orElse(null), LOADERS);
+    }
+
+    private static <T> List<T> loadAll(Connection conn, String sql, Function<ResultSet, T> mapper) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            List<T> rows = new ArrayList<>();
+            while (rs.next()) {
+                rows.add(mapper.apply(rs));
+            }
+            return rows;
+        }
+    }
+
+    // One counter map per classifier; a null key is not counted
+    private static <T> Collector<T, GroupCounts<T>, GroupCounts<T>> countingBy(List<Function<T, String>> classifiers) {
+        return Collector.of(
+            () -> new GroupCounts<>(classifiers),
+            GroupCounts::add,
+            GroupCounts::merge,
+            Collector.Characteristics.IDENTITY_FINISH
+        );
+    }
+
+    private static final class GroupCounts<T> {
+        private final List<Function<T, String>> classifiers;
+        private final List<Map<String, long[]>> counters;
+        private long total;
+
+        GroupCounts(List<Function<T, String>> classifiers) {
+            this.classifiers = classifiers;
+            this.counters = new ArrayList<>(classifiers.size());
+            for (int i = 0; i < classifiers.size(); i++) {
+                counters.add(new HashMap<>());
+            }
+        }
+
+        void add(T element) {
+            total++;
+            for (int i = 0; i < classifiers.size(); i++) {
+                String key = classifiers.get(i).apply(element);
+                if (key != null) {
+                    counters.get(i).computeIfAbsent(key, k -> new long[1])[0]++;
+                }
+            }
+        }
+
+        GroupCounts<T> merge(GroupCounts<T> other) {
+            total += other.total;
+            for (int i = 0; i < classifiers.size(); i++) {
+                Map<String, long[]> target = counters.get(i);
+                other.counters.get(i).forEach((key, count) ->
+                    target.computeIfAbsent(key, k -> new long[1])[0] += count[0]);
+            }
+            return this;
+        }
+
+        Map<String, Long> sorted(int dimension) {
+            Map<String, Long> result = new TreeMap<>();
+            counters.get(dimension).forEach((key, count) -> result.put(key, count[0]));
+            return result;
+        }
+
+        Map<String, Long> top(int dimension, int limit) {
+            Map<String, Long> result = new LinkedHashMap<>();
+            counters.get(dimension).entrySet().stream()
+                .sorted((entry1, entry2) -> Long.compare(entry2.getValue()[0], entry1.getValue()[0]))
+                .limit(limit)
+                .forEach(entry -> result.put(entry.getKey(), entry.getValue()[0]));
+            return result;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+import java.math.BigDecimal;
+import java.sql.*;
+import java.util.*;
+
+public class RevenueService {
+
+    public static class EventRevenue {
+        public final int eventId;
+        public final String eventName;
+        public final BigDecimal registrationFee;
+        public final long confirmedRegistrations;
+        public final long paidRegistrations;
+        public final BigDecimal potentialRevenue;
+        public final BigDecimal paidRevenue;
+
+        public EventRevenue(int eventId, String eventName, BigDecimal registrationFee,
+                           long confirmedRegistrations, long paidRegistrations) {
+            this(eventId, eventName, registrationFee, confirmedRegistrations, paidRegistrations,
+                registrationFee.multiply(BigDecimal.valueOf(paidRegistrations)));
+        }
+
+        public EventRevenue(int eventId, String eventName, BigDecimal registrationFee,
+                           long confirmedRegistrations, long paidRegistrations, BigDecimal paidRevenue) {
+            this.eventId = eventId;
+            this.eventName = eventName;
+            this.registrationFee = registrationFee;
+            this.confirmedRegistrations = confirmedRegistrations;
+            this.paidRegistrations = paidRegistrations;
+            this.potentialRevenue = registrationFee.multiply(BigDecimal.valueOf(confirmedRegistrations));
+            this.paidRevenue = paidRevenue;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("EventRevenue{id=%d, name='%s', confirmed=%d, paid=%d, potential=%.2f, revenue=%.2f}",
+                eventId, eventName, confirmedRegistrations, paidRegistrations, potentialRevenue, paidRevenue);
+        }
+    }
+
+    public static class RevenueReport {
+        public final BigDecimal totalPotentialRevenue;
+        public final BigDecimal totalPaidRevenue;
+        public final List<EventRevenue> eventRevenues;
+
+        public RevenueReport(List<EventRevenue> eventRevenues) {
+            this.eventRevenues = Collections.unmodifiableList(eventRevenues);
+            this.totalPotentialRevenue = eventRevenues.stream()
+                .map(revenue -> revenue.potentialRevenue)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+            this.totalPaidRevenue = eventRevenues.stream()
+                .map(revenue -> revenue.paidRevenue)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        }
+
+        public Optional<EventRevenue> forEvent(int eventId) {
+            return eventRevenues.stream()
+                .filter(revenue -> revenue.eventId == eventId)
+                .findFirst();
+        }
+    }
+
+    public static Optional<RevenueReport> generateRevenueReport() {
+        return DatabaseConnection.executeReadOnly(conn -> {
+            String sql = "SELECT e.event_id, e.event_name, e.registration_fee, " +
+                        "coalesce(s.confirmed, 0) AS confirmed, coalesce(s.paid, 0) AS paid, " +
+                        "coalesce(s.paid_revenue, 0) AS paid_revenue " +
+                        "FROM events e LEFT JOIN event_registration_stats s ON s.event_id = e.event_id " +
+                        "ORDER BY e.start_date, e.event_id";
+            try (PreparedStatement stmt = conn.prepareStatement(sql);
+                 ResultSet rs = stmt.executeQuery()) {
+
+                List<EventRevenue> revenues = new ArrayList<>();
+                while (rs.next()) {
+                    BigDecimal fee = rs.getBigDecimal("registration_fee");
+                    revenues.add(new EventRevenue(
+                        rs.getInt("event_id"),
+                        rs.getString("event_name"),
+                        fee != null ? fee : BigDecimal.ZERO,
+                        rs.getLong("confirmed"),
+                        rs.getLong("paid"),
+                        rs.getBigDecimal("paid_revenue")
+                    ));
+                }
+                return new RevenueReport(revenues);
+            }
+        });
+    }
+
+    public static RevenueReport generateRevenueReport(List<EventService.Event> events, RegistrationColumns registrations) {
+        RegistrationColumns.EventCounts counts = registrations.countByEvent();
+        List<EventRevenue> revenues = new ArrayList<>(events.size());
+        for (EventService.Event event : events) {
+            revenues.add(new EventRevenue(
+                event.eventId,
+                event.eventName,
+                event.registrationFee != null ? event.registrationFee : BigDecimal.ZERO,
+                counts.statusCount(event.eventId, "CONFIRMED"),
+                counts.paymentStatusCount(event.eventId, "PAID")
+            ));
+        }
+        return new RevenueReport(revenues);
+    }
+
+    // Row-object version of the report above, kept as the baseline for RegistrationColumnsBenchmarks and
+    // RegistrationColumnsCheck
+    public static RevenueReport generateRevenueReport(List<EventService.Event> events,
+                                                      List<RegistrationService.Registration> registrations) {
+        Map<Integer, long[]> countsByEvent = new HashMap<>(events.size() * 2);
+        events.forEach(event -> countsByEvent.put(event.eventId, new long[2]));
+
+        for (RegistrationService.Registration registration : registrations) {
+            long[] counts = countsByEvent.get(registration.eventId);
+            if (counts == null) {
+                continue;
+            }
+            if ("CONFIRMED".equals(registration.status)) {
+                counts[0]++;
+            }
+            if ("PAID".equals(registration.paymentStatus)) {
+                counts[1]++;
+            }
+        }
+
+        List<EventRevenue> revenues = new ArrayList<>(events.size());
+        for (EventService.Event event : events) {
+            long[] counts = countsByEvent.get(event.eventId);
+            revenues.add(new EventRevenue(
+                event.eventId,
+                event.eventName,
+                event.registrationFee != null ? event.registrationFee : BigDecimal.ZERO,
+                counts[0],
+                counts[1]
+            ));
+        }
+        return new RevenueReport(revenues);
+    }
+}
@@ -0,0 +1,58 @@
+import java.sql.*;
+import java.util.*;
+import java.util.function.Function;
+
+/*
+ * Maps rows by column index. Indexes are resolved from the ResultSetMetaData the first time the
+ * mapper sees a ResultSet, so create one mapper per query (it is not thread-safe) and reuse it
+ * for every row of that query.
+ */
+public class RowMapper<T> implements Function<ResultSet, T> {
+
+    @FunctionalInterface
+    public interface ColumnReader<T> {
+        T read(ResultSet rs, int[] columns) throws SQLException;
+    }
+
+    private final String type;
+    private final String[] columnNames;
+    private final ColumnReader<T> reader;
+    private ResultSet boundTo;
+    private int[] columns;
+
+    public RowMapper(String type, String[] columnNames, ColumnReader<T> reader) {
+        this.type = type;
+        this.columnNames = columnNames;
+        this.reader = reader;
+    }
+
+    @Override
+    public T apply(ResultSet rs) {
+        try {
+            if (rs != boundTo) {
+                columns = resolve(rs.getMetaData());
+                boundTo = rs;
+            }
+            QueryMetrics.rowMapped();
+            return reader.read(rs, columns);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error mapping ResultSet to " + type, e);
+        }
+    }
+
+    private int[] resolve(ResultSetMetaData metaData) throws SQLException {
+        Map<String, Integer> byLabel = new HashMap<>();
+        for (int i = metaData.getColumnCount(); i >= 1; i--) {
+            byLabel.put(metaData.getColumnLabel(i).toLowerCase(Locale.ROOT), i);
+        }
+        int[] resolved = new int[columnNames.length];
+        for (int i = 0; i < columnNames.length; i++) {
+            Integer index = byLabel.get(columnNames[i]);
+            if (index == null) {
+                throw new SQLException("Column '" + columnNames[i] + "' not found in result set for " + type);
+            }
+            resolved[i] = index;
+        }
+        return resolved;
+    }
+}
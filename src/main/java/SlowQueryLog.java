@@ -0,0 +1,445 @@
+import java.io.*;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/*
+ * Times every statement handed out by the connection pool. A statement that runs for at least
+ * db.slowQuery.thresholdMillis is written to a size-rotated log with its SQL, bind values,
+ * duration, row count and the service operation that issued it. Logging and the plan capture run
+ * on one background thread behind a bounded queue (entries are dropped, and counted, when it is
+ * full), so the caller only pays for the timing and the bind bookkeeping.
+ *
+ * Plans: SELECT/WITH statements are re-run as EXPLAIN (ANALYZE, BUFFERS) in a read-only transaction
+ * that is rolled back; anything else (or a read that turns out to lock rows) only gets a plain
+ * EXPLAIN, because ANALYZE would execute the write a second time.
+ */
+public class SlowQueryLog {
+
+    public static class Config {
+        public final long thresholdMillis;
+        public final Path file;
+        public final long maxFileBytes;
+        public final int maxFiles;
+        public final boolean explain;
+        public final long explainTimeoutMillis;
+        public final int queueCapacity;
+
+        public Config(long thresholdMillis, Path file, long maxFileBytes, int maxFiles,
+                      boolean explain, long explainTimeoutMillis, int queueCapacity) {
+            this.thresholdMillis = thresholdMillis;
+            this.file = file;
+            this.maxFileBytes = maxFileBytes;
+            this.maxFiles = maxFiles;
+            this.explain = explain;
+            this.explainTimeoutMillis = explainTimeoutMillis;
+            this.queueCapacity = queueCapacity;
+        }
+
+        public static Config fromProperties(Properties props) {
+            return new Config(
+                Long.parseLong(props.getProperty("db.slowQuery.thresholdMillis", "500")),
+                Paths.get(props.getProperty("db.slowQuery.file", "logs/slow-queries.log")),
+                Long.parseLong(props.getProperty("db.slowQuery.maxFileBytes", "10485760")),
+                Integer.parseInt(props.getProperty("db.slowQuery.maxFiles", "5")),
+                Boolean.parseBoolean(props.getProperty("db.slowQuery.explain", "true")),
+                Long.parseLong(props.getProperty("db.slowQuery.explainTimeoutMillis", "30000")),
+                Integer.parseInt(props.getProperty("db.slowQuery.queueCapacity", "1000"))
+            );
+        }
+
+        public boolean isEnabled() {
+            return thresholdMillis > 0;
+        }
+    }
+
+    public static class SlowQueryStats {
+        public final long logged;
+        public final long dropped;
+        public final long explainFailures;
+
+        public SlowQueryStats(long logged, long dropped, long explainFailures) {
+            this.logged = logged;
+            this.dropped = dropped;
+            this.explainFailures = explainFailures;
+        }
+    }
+
+    private static final int MAX_BIND_LENGTH = 200;
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+        "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private static class Binding {
+        final Method setter;
+        final Object[] args;
+
+        Binding(Method setter, Object[] args) {
+            this.setter = setter;
+            this.args = args;
+        }
+
+        boolean replayable() {
+            for (int i = 1; i < args.length; i++) {
+                if (args[i] instanceof InputStream || args[i] instanceof Reader
+                        || args[i] instanceof Blob || args[i] instanceof Clob) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            Object value = args[1];
+            if (setter.getName().equals("setNull") || value == null) {
+                return "NULL";
+            }
+            String text = value instanceof String ? "'" + value + "'" : String.valueOf(value);
+            return text.length() > MAX_BIND_LENGTH ? text.substring(0, MAX_BIND_LENGTH) + "..." : text;
+        }
+    }
+
+    private class Entry {
+        final LocalDateTime at = LocalDateTime.now();
+        final String operation = QueryMetrics.callerName();
+        final String sql;
+        final SortedMap<Integer, Binding> binds;
+        final long elapsedNanos;
+        final int batchSize;
+        final AtomicBoolean submitted = new AtomicBoolean();
+        volatile long rows;
+
+        Entry(String sql, SortedMap<Integer, Binding> binds, long elapsedNanos, int batchSize, long rows) {
+            this.sql = sql;
+            this.binds = binds;
+            this.elapsedNanos = elapsedNanos;
+            this.batchSize = batchSize;
+            this.rows = rows;
+        }
+
+        void submit() {
+            if (!submitted.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                worker.execute(() -> write(this));
+            } catch (RejectedExecutionException e) {
+                dropped.increment();
+            }
+        }
+    }
+
+    private final Config config;
+    private final long thresholdNanos;
+    private final Supplier<Optional<Connection>> explainConnections;
+    private final ThreadPoolExecutor worker;
+    private final ThreadLocal<Boolean> onWorker = ThreadLocal.withInitial(() -> false);
+    private final LongAdder logged = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder explainFailures = new LongAdder();
+    private Writer out;
+    private long fileBytes;
+
+    public SlowQueryLog(Config config, Supplier<Optional<Connection>> explainConnections) {
+        this.config = config;
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(config.thresholdMillis);
+        this.explainConnections = explainConnections;
+        this.worker = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(config.queueCapacity), runnable -> {
+                Thread thread = new Thread(() -> {
+                    onWorker.set(true);
+                    runnable.run();
+                }, "slow-query-log");
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+
+    public SlowQueryStats stats() {
+        return new SlowQueryStats(logged.sum(), dropped.sum(), explainFailures.sum());
+    }
+
+    public Config getConfig() {
+        return config;
+    }
+
+    // sql is null for plain Statements; their SQL arrives with execute(sql)
+    Statement wrap(Statement statement, String sql) {
+        if (onWorker.get()) {
+            return statement;
+        }
+        Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+            : statement instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+        return (Statement) Proxy.newProxyInstance(SlowQueryLog.class.getClassLoader(), new Class<?>[] { type },
+            new Recorder(statement, sql));
+    }
+
+    public void close() {
+        worker.shutdown();
+        try {
+            worker.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException e) {
+                    // nothing left to flush to
+                }
+                out = null;
+            }
+        }
+    }
+
+    private class Recorder implements InvocationHandler {
+        private final Statement target;
+        private final String sql;
+        private final SortedMap<Integer, Binding> binds = new TreeMap<>();
+        private int batchSize;
+        private Entry pending;
+
+        Recorder(Statement target, String sql) {
+            this.target = target;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Timed" + target;
+                case "clearParameters":
+                    binds.clear();
+                    break;
+                case "addBatch":
+                    batchSize++;
+                    break;
+                case "clearBatch":
+                    batchSize = 0;
+                    break;
+                case "close":
+                    finishPending();
+                    break;
+                default:
+                    if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer
+                            && method.getDeclaringClass() != Statement.class) {
+                        binds.put((Integer) args[0], new Binding(method, args.clone()));
+                    }
+                    break;
+            }
+            if (!EXECUTE_METHODS.contains(name)) {
+                return call(method, args);
+            }
+
+            finishPending();
+            String executed = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : sql;
+            int batch = name.endsWith("Batch") ? batchSize : 0;
+            long start = System.nanoTime();
+            Object result = call(method, args);
+            long elapsed = System.nanoTime() - start;
+            if (batch > 0) {
+                batchSize = 0;
+            }
+            if (elapsed < thresholdNanos) {
+                return result;
+            }
+
+            Entry entry = new Entry(executed, new TreeMap<>(binds), elapsed, batch, -1);
+            if (result instanceof ResultSet) {
+                pending = entry;
+                entry.rows = 0;
+                return countingRows((ResultSet) result, entry);
+            }
+            if (result instanceof Integer || result instanceof Long) {
+                entry.rows = ((Number) result).longValue();
+            } else if (result instanceof int[]) {
+                entry.rows = Arrays.stream((int[]) result).filter(count -> count > 0).asLongStream().sum();
+            } else if (result instanceof long[]) {
+                entry.rows = Arrays.stream((long[]) result).filter(count -> count > 0).sum();
+            } else if (Boolean.FALSE.equals(result)) {
+                entry.rows = target.getUpdateCount();
+            }
+            entry.submit();
+            return result;
+        }
+
+        private void finishPending() {
+            if (pending != null) {
+                pending.submit();
+                pending = null;
+            }
+        }
+
+        private Object call(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    // Rows are only known once the caller has read them; the entry is logged when the result set closes
+    private static ResultSet countingRows(ResultSet rs, Entry entry) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            Object result;
+            try {
+                result = method.invoke(rs, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                entry.rows++;
+            } else if (method.getName().equals("close")) {
+                entry.submit();
+            }
+            return result;
+        };
+        return (ResultSet) Proxy.newProxyInstance(SlowQueryLog.class.getClassLoader(), new Class<?>[] { ResultSet.class }, handler);
+    }
+
+    private void write(Entry entry) {
+        StringBuilder text = new StringBuilder(1024);
+        text.append(entry.at).append(String.format(" slow query %.1f ms", entry.elapsedNanos / 1_000_000.0))
+            .append(", rows=").append(entry.rows < 0 ? "?" : String.valueOf(entry.rows));
+        if (entry.batchSize > 0) {
+            text.append(", batch=").append(entry.batchSize);
+        }
+        text.append(", operation=").append(entry.operation).append('\n');
+        text.append("SQL: ").append(entry.sql == null ? "<unknown>" : entry.sql.trim()).append('\n');
+        if (!entry.binds.isEmpty()) {
+            StringJoiner joined = new StringJoiner(", ", "Binds: [", "]\n");
+            entry.binds.forEach((index, binding) -> joined.add(index + "=" + binding));
+            text.append(joined);
+        }
+        if (config.explain && entry.sql != null && entry.batchSize == 0) {
+            text.append(explain(entry));
+        }
+        text.append('\n');
+        append(text.toString());
+        logged.increment();
+    }
+
+    private String explain(Entry entry) {
+        if (entry.binds.values().stream().anyMatch(binding -> !binding.replayable())) {
+            return "Plan: not captured (stream or LOB bind values cannot be replayed)\n";
+        }
+        String sql = entry.sql.trim();
+        String verb = sql.split("\\s+", 2)[0].toUpperCase(Locale.ROOT);
+        boolean read = verb.equals("SELECT") || verb.equals("WITH");
+        Optional<Connection> connection = explainConnections.get();
+        if (connection.isEmpty()) {
+            explainFailures.increment();
+            return "Plan: not captured (no connection available)\n";
+        }
+        try (Connection conn = connection.get()) {
+            conn.setAutoCommit(false);
+            if (read) {
+                try {
+                    beginExplain(conn, true);
+                    return "Plan (EXPLAIN ANALYZE, BUFFERS):\n" + runExplain(conn, "EXPLAIN (ANALYZE, BUFFERS) ", sql, entry.binds);
+                } catch (SQLException e) {
+                    // e.g. SELECT ... FOR UPDATE in a read-only transaction: fall back to the estimate
+                    conn.rollback();
+                }
+            }
+            beginExplain(conn, false);
+            return "Plan (EXPLAIN, not executed):\n" + runExplain(conn, "EXPLAIN ", sql, entry.binds);
+        } catch (SQLException | ReflectiveOperationException e) {
+            explainFailures.increment();
+            return "Plan: not captured (" + e.getMessage() + ")\n";
+        }
+    }
+
+    private void beginExplain(Connection conn, boolean readOnly) throws SQLException {
+        conn.setReadOnly(readOnly);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("SET LOCAL statement_timeout = " + config.explainTimeoutMillis);
+        }
+    }
+
+    private static String runExplain(Connection conn, String prefix, String sql, SortedMap<Integer, Binding> binds)
+            throws SQLException, ReflectiveOperationException {
+        try (PreparedStatement stmt = conn.prepareStatement(prefix + sql)) {
+            for (Binding binding : binds.values()) {
+                binding.setter.invoke(stmt, binding.args);
+            }
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    plan.append("  ").append(rs.getString(1)).append('\n');
+                }
+            }
+            return plan.toString();
+        } finally {
+            conn.rollback();
+        }
+    }
+
+    private synchronized void append(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        try {
+            if (out == null) {
+                open();
+            }
+            if (fileBytes > 0 && fileBytes + bytes.length > config.maxFileBytes) {
+                rotate();
+            }
+            out.write(text);
+            out.flush();
+            fileBytes += bytes.length;
+        } catch (IOException e) {
+            System.err.println("Error writing slow query log: " + e.getMessage());
+        }
+    }
+
+    private void open() throws IOException {
+        Path parent = config.file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        fileBytes = Files.exists(config.file) ? Files.size(config.file) : 0;
+        out = Files.newBufferedWriter(config.file, StandardCharsets.UTF_8,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    // slow-queries.log -> slow-queries.log.1 -> ... -> slow-queries.log.<maxFiles - 1>, the oldest is deleted
+    private void rotate() throws IOException {
+        out.close();
+        for (int i = config.maxFiles - 1; i >= 1; i--) {
+            Path source = i == 1 ? config.file : Paths.get(config.file + "." + (i - 1));
+            if (Files.exists(source)) {
+                Files.move(source, Paths.get(config.file + "." + i), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        if (config.maxFiles <= 1) {
+            Files.deleteIfExists(config.file);
+        }
+        open();
+    }
+}
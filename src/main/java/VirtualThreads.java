@@ -0,0 +1,47 @@
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * The build targets Java 17, so Executors.newVirtualThreadPerTaskExecutor() is looked up at run
+ * time: on Java 21+ every task gets its own virtual thread, on older runtimes the tasks run on a
+ * cached pool of daemon platform threads instead.
+ */
+public class VirtualThreads {
+    private static final boolean AVAILABLE = probe();
+
+    public static boolean isAvailable() {
+        return AVAILABLE;
+    }
+
+    public static ExecutorService newThreadPerTaskExecutor(String name) {
+        ExecutorService executor = AVAILABLE ? newVirtualExecutor() : null;
+        if (executor != null) {
+            return executor;
+        }
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Java 19/20 have the method but throw unless preview features are enabled
+    private static boolean probe() {
+        ExecutorService executor = newVirtualExecutor();
+        if (executor == null) {
+            return false;
+        }
+        executor.shutdown();
+        return true;
+    }
+
+    private static ExecutorService newVirtualExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+}